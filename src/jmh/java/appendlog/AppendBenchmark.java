@@ -0,0 +1,115 @@
+package appendlog;
+
+import org.appendlog.PageAlignedAppender;
+import org.benchmark.BenchmarkResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * {@code recordCount} small records appended to an empty file: one {@code write} per record against
+ * {@link PageAlignedAppender}. Both end with the data in the page cache, no sync.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class AppendBenchmark {
+    public static final String OutputFile = "appendLog.json";
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+        @Param({"100", "512", "4000"})
+        public int recordSize;
+
+        @Param({"1000000"})
+        public int recordCount;
+
+        @Param({"1048576"})
+        public int bufferSize;
+
+        Path path;
+        ByteBuffer record;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            record = randomData(ByteBuffer.allocateDirect(recordSize));
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() throws IOException {
+            Files.deleteIfExists(path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public long unbufferedAppend(AppendState state) throws IOException {
+        try(FileChannel ch = FileChannel.open(state.path, CREATE, WRITE, APPEND)){
+            for (int i = 0; i < state.recordCount; i++) {
+                state.record.rewind();
+                while(state.record.hasRemaining()){
+                    ch.write(state.record);
+                }
+            }
+            return ch.size();
+        }
+    }
+
+    @Benchmark
+    public long combinedAppend(AppendState state) throws IOException {
+        try(PageAlignedAppender appender = new PageAlignedAppender(state.path, state.bufferSize)){
+            for (int i = 0; i < state.recordCount; i++) {
+                state.record.rewind();
+                appender.append(state.record);
+            }
+            return appender.size();
+        }
+    }
+
+    /**
+     * Runs the benchmark and stores records per second in {@code ./src/main/resources/appendLog.json},
+     * one series per method over the record size.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(AppendBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String method = method(result);
+            int recordSize = Integer.parseInt(params.getParam("recordSize"));
+            int recordCount = Integer.parseInt(params.getParam("recordCount"));
+            BenchmarkResult.Series s = series.computeIfAbsent(method, k ->
+                    new BenchmarkResult.Series(method, "record size", "bytes", "records/s")
+                            .param("recordCount", recordCount)
+                            .param("bufferSize", params.getParam("bufferSize")));
+            // score is the time of recordCount appends in ms
+            BenchmarkResult.Point point = perSecond(recordSize, recordCount, result);
+            s.addPoint(point.metric("mbs", point.getValue() * recordSize / (1024 * 1024)));
+        }
+
+        writeResults(OutputFile, AppendBenchmark.class, series.values());
+    }
+}
@@ -0,0 +1,203 @@
+package appendlog;
+
+import org.appendlog.GroupCommitLog;
+import org.benchmark.BenchmarkResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Durable appends from N threads: every operation is one record which is on disk when it returns.
+ * {@code perRecordSync} is a write and {@code fdatasync} per record, {@code groupCommit} waits for the
+ * {@link GroupCommitLog} future. Sampled times give the commit latency percentiles, the throughput is
+ * threads / mean latency. {@link SyncCounters} give the records per sync of the group commit.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2)
+public class GroupCommitBenchmark {
+    public static final String OutputFile = "groupCommit.json";
+
+    private static final int[] Threads = {1, 4, 16, 64};
+
+    @State(Scope.Benchmark)
+    public static class LogState {
+        @Param({"0", "200", "1000"})
+        public int batchWindowMicros;
+
+        @Param({"1024"})
+        public int maxBatchRecords;
+
+        @Param({"1048576"})
+        public int maxBatchBytes;
+
+        Path path;
+        GroupCommitLog log;
+        // syncs already counted by some thread
+        final AtomicLong countedBatches = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            log = new GroupCommitLog(path, batchWindowMicros, TimeUnit.MICROSECONDS, maxBatchRecords, maxBatchBytes);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            log.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ChannelState {
+        Path path;
+        FileChannel ch;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            ch = FileChannel.open(path, CREATE, WRITE, APPEND);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            ch.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RecordState {
+        @Param({"100"})
+        public int recordSize;
+
+        ByteBuffer record;
+
+        @Setup(Level.Trial)
+        public void setupTrial() {
+            record = randomData(ByteBuffer.allocateDirect(recordSize));
+        }
+    }
+
+    /**
+     * Records and syncs of an iteration. Every sync is counted once by the first thread which sees it, so the
+     * sums over the threads are the totals of the log.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SyncCounters {
+        public long records;
+        public long syncs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+            syncs = 0;
+        }
+
+        void count(GroupCommitLog log, AtomicLong countedBatches) {
+            records++;
+            long batches = log.batches();
+            long counted = countedBatches.getAndAccumulate(batches, Math::max);
+            if (batches > counted) {
+                syncs += batches - counted;
+            }
+        }
+    }
+
+    @Benchmark
+    public long perRecordSync(ChannelState state, RecordState record) throws IOException {
+        record.record.clear();
+        while(record.record.hasRemaining()){
+            state.ch.write(record.record);
+        }
+        state.ch.force(false);
+        return record.record.position();
+    }
+
+    @Benchmark
+    public long groupCommit(LogState state, RecordState record, SyncCounters counters)
+            throws ExecutionException, InterruptedException {
+        record.record.clear();
+        long offset = state.log.append(record.record).get();
+        counters.count(state.log, state.countedBatches);
+        return offset;
+    }
+
+    /**
+     * Runs the benchmark once per thread count and stores commits per second in
+     * {@code ./src/main/resources/groupCommit.json}, one series per method and batch window over the number of
+     * writer threads. Points carry p50/p99/p99.9 commit latency in microseconds, group commit points the records
+     * per sync.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : Threads) {
+            Options options = new OptionsBuilder()
+                    .parent(new CommandLineOptions(args))
+                    .include(GroupCommitBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String method = method(result);
+            String window = params.getParam("batchWindowMicros");
+            String name = window == null ? method : method + ", " + window + "us window";
+            BenchmarkResult.Series s = series.computeIfAbsent(name, k -> {
+                BenchmarkResult.Series created = new BenchmarkResult.Series(name, "threads", "", "commits/s")
+                        .param("recordSize", params.getParam("recordSize"));
+                if (window != null) {
+                    created.param("batchWindowMicros", window)
+                            .param("maxBatchRecords", params.getParam("maxBatchRecords"))
+                            .param("maxBatchBytes", params.getParam("maxBatchBytes"));
+                }
+                return created;
+            });
+            // score is the mean commit latency in us, every thread has one commit in flight
+            Statistics statistics = result.getPrimaryResult().getStatistics();
+            int threads = params.getThreads();
+            BenchmarkResult.Point point = perSecond(threads, threads, result)
+                    .metric("p50Us", statistics.getPercentile(50))
+                    .metric("p99Us", statistics.getPercentile(99))
+                    .metric("p999Us", statistics.getPercentile(99.9));
+            Result syncs = result.getSecondaryResults().get("syncs");
+            if (syncs != null && syncs.getScore() > 0) {
+                point.metric("recordsPerSync", result.getSecondaryResults().get("records").getScore() / syncs.getScore());
+            }
+            s.addPoint(point);
+        }
+
+        writeResults(OutputFile, GroupCommitBenchmark.class, series.values());
+    }
+}
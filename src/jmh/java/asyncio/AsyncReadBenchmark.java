@@ -0,0 +1,186 @@
+package asyncio;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import org.asyncio.AsyncFileEngine;
+import org.asyncio.IoUringEngine;
+import org.asyncio.ThreadPoolEngine;
+import org.benchmark.BenchmarkResult;
+import org.directbuffer.DirectBufferPool;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.pagecache.CachePolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Random block reads over a cold file with a fixed number of reads in flight: io_uring against the thread pool
+ * engine, where every outstanding read is a blocking {@link FileChannel#read(ByteBuffer, long)} on its own thread.
+ * Every invocation reads each block of the file once in a shuffled order; a completed read immediately queues the
+ * next one, so the queue depth stays constant.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class AsyncReadBenchmark {
+    public static final String OutputFile = "asyncRead.json";
+
+    public enum Engine {
+        IO_URING,
+        THREAD_POOL
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReadState {
+        @Param({"1"})
+        public int fileSizeGb;
+
+        @Param({"4096", "65536"})
+        public int blockSize;
+
+        @Param({"1", "2", "4", "8", "16", "32", "64", "128"})
+        public int queueDepth;
+
+        @Param({"IO_URING", "THREAD_POOL"})
+        public Engine engine;
+
+        Path path;
+        FileChannel ch;
+        AsyncFileEngine io;
+        ByteBuffer[] buffers;
+        long[] randomOffsets;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            writeRandom(path, fileSize());
+            int blocks = (int) (fileSize() / blockSize);
+            randomOffsets = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                randomOffsets[i] = (long) i * blockSize;
+            }
+            for (int i = blocks - 1; i > 0; i--) {
+                int j = PcgRSUFast.nextInt(i + 1);
+                long tmp = randomOffsets[i];
+                randomOffsets[i] = randomOffsets[j];
+                randomOffsets[j] = tmp;
+            }
+            buffers = new ByteBuffer[queueDepth];
+            for (int i = 0; i < queueDepth; i++) {
+                buffers[i] = DirectBufferPool.shared().acquire(blockSize);
+            }
+            ch = FileChannel.open(path, READ);
+            io = engine == Engine.IO_URING ? new IoUringEngine(queueDepth) : new ThreadPoolEngine(queueDepth);
+        }
+
+        @Setup(Level.Invocation)
+        public void dropCache() throws IOException {
+            CachePolicy.COLD.apply(path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            io.close();
+            ch.close();
+            for (ByteBuffer buf : buffers) {
+                DirectBufferPool.shared().release(buf);
+            }
+            Files.deleteIfExists(path);
+        }
+
+        long fileSize() {
+            return (long) fileSizeGb * 1024 * 1024 * 1024;
+        }
+    }
+
+    @Benchmark
+    public long randomRead(ReadState state) throws IOException {
+        ClosedLoop loop = new ClosedLoop(state);
+        for (ByteBuffer buf : state.buffers) {
+            loop.next(buf);
+        }
+        while(state.io.outstanding() > 0){
+            state.io.await(1);
+        }
+        if (loop.error != null) {
+            throw new IOException(loop.error);
+        }
+        return loop.read;
+    }
+
+    private static class ClosedLoop implements CompletionHandler<Integer, ByteBuffer> {
+        final ReadState state;
+        int next;
+        long read;
+        Throwable error;
+
+        ClosedLoop(ReadState state) {
+            this.state = state;
+        }
+
+        void next(ByteBuffer buf) {
+            if (next == state.randomOffsets.length || error != null) {
+                return;
+            }
+            buf.clear();
+            try {
+                state.io.read(state.ch, buf, state.randomOffsets[next++], buf, this);
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        @Override
+        public void completed(Integer bytes, ByteBuffer buf) {
+            read += bytes;
+            next(buf);
+        }
+
+        @Override
+        public void failed(Throwable e, ByteBuffer buf) {
+            error = e;
+        }
+    }
+
+    /**
+     * Runs the benchmark and stores IOPS per queue depth in {@code ./src/main/resources/asyncRead.json},
+     * one series per engine and block size. Any JMH command line option can be passed to override the defaults.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(AsyncReadBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String engine = params.getParam("engine");
+            int blockSize = Integer.parseInt(params.getParam("blockSize"));
+            long fileSize = Long.parseLong(params.getParam("fileSizeGb")) * 1024 * 1024 * 1024;
+            BenchmarkResult.Series s = series.computeIfAbsent(engine + ":" + blockSize, k ->
+                    new BenchmarkResult.Series(engine + " random read", "queue depth", "operations", "IOPS")
+                            .param("engine", engine)
+                            .param("blockSize", blockSize)
+                            .param("fileSizeGb", params.getParam("fileSizeGb"))
+                            .param("cachePolicy", CachePolicy.COLD));
+            // score is the time of one pass in ms, reported as reads per second
+            s.addPoint(perSecond(Double.parseDouble(params.getParam("queueDepth")), fileSize / blockSize, result));
+        }
+
+        writeResults(OutputFile, AsyncReadBenchmark.class, series.values());
+    }
+}
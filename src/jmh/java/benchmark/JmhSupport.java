@@ -0,0 +1,133 @@
+package benchmark;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
+import org.directbuffer.DirectBufferPool;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Fixtures shared by the JMH benchmarks, the counterpart of {@code benchmark.TestFiles} of the tests: the files
+ * under {@link #baseTestPath} a trial works with, and running a benchmark class and turning its results into a
+ * {@link BenchmarkResult}.
+ */
+public final class JmhSupport {
+    public static final String baseTestPath = "./src/test/resources/";
+
+    private JmhSupport() {
+    }
+
+    /**
+     * A path for a new file under {@link #baseTestPath}, the directory is created when missing.
+     */
+    public static Path newFile() throws IOException {
+        Files.createDirectories(Paths.get(baseTestPath));
+        return Paths.get(baseTestPath + "jmh-" + System.nanoTime());
+    }
+
+    /**
+     * Fills the buffer with random bytes the same way as the tests do and flips it.
+     */
+    public static ByteBuffer randomData(ByteBuffer buf) {
+        buf.clear();
+        while(buf.hasRemaining()){
+            buf.put((byte) PcgRSUFast.nextChar());
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Creates or truncates the file and writes the whole buffer to it until it has at least {@code size} bytes.
+     * The buffer is ready to be written again afterwards.
+     */
+    public static void write(Path path, ByteBuffer buf, long size) throws IOException {
+        try(FileChannel ch = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE)){
+            for (long written = 0; written < size; buf.flip()) {
+                while(buf.hasRemaining()){
+                    written += ch.write(buf);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates or truncates the file and fills it with {@code size} bytes of random data.
+     */
+    public static void writeRandom(Path path, long size) throws IOException {
+        ByteBuffer buf = DirectBufferPool.shared().acquire(1024 * 1024);
+        try {
+            write(path, randomData(buf), size);
+        } finally {
+            DirectBufferPool.shared().release(buf);
+        }
+    }
+
+    /**
+     * Runs the benchmarks of the class, any JMH command line option overrides the annotations.
+     */
+    public static Collection<RunResult> run(Class<?> benchmark, String[] args)
+            throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(benchmark.getSimpleName())
+                .build();
+        return new Runner(options).run();
+    }
+
+    /**
+     * Name of the benchmark method the result was measured with.
+     */
+    public static String method(RunResult result) {
+        String benchmark = result.getParams().getBenchmark();
+        return benchmark.substring(benchmark.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * The primary score with its error and number of measurements as a point at {@code x}.
+     */
+    public static BenchmarkResult.Point point(double x, String label, RunResult result) {
+        Result primary = result.getPrimaryResult();
+        return new BenchmarkResult.Point(x, label, primary.getScore(), primary.getScoreError(),
+                primary.getStatistics().getN());
+    }
+
+    /**
+     * {@code amount} per second as a point at {@code x}, for a score that is the time {@code amount} took in the
+     * output time unit of the benchmark, e.g. MB/s of a whole file read. The error is scaled with the value.
+     */
+    public static BenchmarkResult.Point perSecond(double x, double amount, RunResult result) {
+        Result primary = result.getPrimaryResult();
+        double seconds = primary.getScore() * result.getParams().getTimeUnit().toNanos(1) / 1e9;
+        double rate = amount / seconds;
+        return new BenchmarkResult.Point(x, null, rate, rate * primary.getScoreError() / primary.getScore(),
+                primary.getStatistics().getN());
+    }
+
+    /**
+     * Writes the series to {@code ./src/main/resources/<outputFile>}, with the environment of {@link #baseTestPath}.
+     */
+    public static void writeResults(String outputFile, Class<?> benchmark, Collection<BenchmarkResult.Series> series)
+            throws IOException {
+        BenchmarkResult output = new BenchmarkResult(benchmark.getName(), Paths.get(baseTestPath));
+        series.forEach(output::addSeries);
+        ResultWriter.write(outputFile, output);
+    }
+}
@@ -0,0 +1,167 @@
+package directio;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import org.benchmark.BenchmarkResult;
+import org.directio.AlignedBufferPool;
+import org.directio.DirectIOFileChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.pagecache.CachePolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Buffered {@link FileChannel} reads, as done by {@code SequentialReadingTest} and {@code RandomReadTest},
+ * against {@link DirectIOFileChannel} reads of the same file. Buffered reads start from a cold page cache,
+ * so both paths hit the device and the difference is the copy through the page cache.
+ * Every invocation reads the whole file once, in file order or in a random block order.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class DirectIOBenchmark {
+    public static final String OutputFile = "directIO.json";
+
+    private static final Map<String, String> titles = new LinkedHashMap<>();
+    static {
+        titles.put("bufferedSequential", "Buffered sequential read");
+        titles.put("directSequential", "O_DIRECT sequential read");
+        titles.put("bufferedRandom", "Buffered random read");
+        titles.put("directRandom", "O_DIRECT random read");
+    }
+
+    @State(Scope.Benchmark)
+    public static class FileState {
+        @Param({"1", "2", "4"})
+        public int fileSizeGb;
+
+        @Param({"4096", "65536", "1048576"})
+        public int blockSize;
+
+        Path path;
+        ByteBuffer buf;
+        long[] randomOffsets;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            // aligned buffer works for both paths, so only the channel differs
+            buf = randomData(AlignedBufferPool.allocateAligned(blockSize, DirectIOFileChannel.DefaultBlockSize));
+            // COLD writes the dirty pages back before dropping them from the page cache
+            write(path, buf, fileSize());
+            // every block exactly once, in a shuffled order
+            int blocks = (int) (fileSize() / blockSize);
+            randomOffsets = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                randomOffsets[i] = (long) i * blockSize;
+            }
+            for (int i = blocks - 1; i > 0; i--) {
+                int j = PcgRSUFast.nextInt(i + 1);
+                long tmp = randomOffsets[i];
+                randomOffsets[i] = randomOffsets[j];
+                randomOffsets[j] = tmp;
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void dropCache() throws IOException {
+            CachePolicy.COLD.apply(path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            Files.deleteIfExists(path);
+        }
+
+        long fileSize() {
+            return (long) fileSizeGb * 1024 * 1024 * 1024;
+        }
+    }
+
+    @Benchmark
+    public long bufferedSequential(FileState state) throws IOException {
+        long read = 0;
+        try(FileChannel ch = FileChannel.open(state.path, READ)){
+            for (long position = 0; position < state.fileSize(); position += state.blockSize) {
+                state.buf.clear();
+                read += ch.read(state.buf, position);
+            }
+        }
+        return read;
+    }
+
+    @Benchmark
+    public long directSequential(FileState state) throws IOException {
+        long read = 0;
+        try(DirectIOFileChannel ch = DirectIOFileChannel.open(state.path, READ)){
+            for (long position = 0; position < state.fileSize(); position += state.blockSize) {
+                state.buf.clear();
+                read += ch.read(state.buf, position);
+            }
+        }
+        return read;
+    }
+
+    @Benchmark
+    public long bufferedRandom(FileState state) throws IOException {
+        long read = 0;
+        try(FileChannel ch = FileChannel.open(state.path, READ)){
+            for (long position : state.randomOffsets) {
+                state.buf.clear();
+                read += ch.read(state.buf, position);
+            }
+        }
+        return read;
+    }
+
+    @Benchmark
+    public long directRandom(FileState state) throws IOException {
+        long read = 0;
+        try(DirectIOFileChannel ch = DirectIOFileChannel.open(state.path, READ)){
+            for (long position : state.randomOffsets) {
+                state.buf.clear();
+                read += ch.read(state.buf, position);
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Runs the benchmarks and stores them in {@code ./src/main/resources/directIO.json}, one series per benchmark
+     * and block size. Any JMH command line option can be passed to override the defaults.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(DirectIOBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String method = method(result);
+            String key = method + ":" + params.getParam("blockSize");
+            BenchmarkResult.Series s = series.computeIfAbsent(key, k ->
+                    new BenchmarkResult.Series(titles.get(method), "file size", "GB", "ms")
+                            .param("benchmark", method)
+                            .param("blockSize", params.getParam("blockSize"))
+                            .param("cachePolicy", CachePolicy.COLD));
+            s.addPoint(point(Double.parseDouble(params.getParam("fileSizeGb")), null, result));
+        }
+
+        writeResults(OutputFile, DirectIOBenchmark.class, series.values());
+    }
+}
@@ -0,0 +1,147 @@
+package loadtype;
+
+import org.benchmark.BenchmarkResult;
+import org.loadtype.AccessDistribution;
+import org.loadtype.MixedWorkload;
+import org.loadtype.RandomReadWorkload;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * JMH version of the load type tests from {@code ./src/test/java/loadtype}.
+ * Every invocation processes the whole file once, so the score is the time of one pass.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class LoadTypeBenchmark {
+    public static final String OutputFile = "loadType.json";
+
+    private static final Map<String, String> titles = new LinkedHashMap<>();
+    static {
+        titles.put("sequentialReading", "Sequential reading");
+        titles.put("appendOnlyWrite", "Append-only write");
+        titles.put("randomRead", "Random read");
+        titles.put("randomWrite", "Random write");
+        titles.put("mixedReadWrite", "Random read/write");
+    }
+
+    @Benchmark
+    public long sequentialReading(LoadTypeState.Read state) throws IOException {
+        return state.runSharded((shard, from, to, buf) -> {
+            long read = 0;
+            try(FileChannel ch = FileChannel.open(state.path, READ)){
+                ch.position(from);
+                while(read < to - from){
+                    buf.clear();
+                    int bytes = ch.read(buf);
+                    if (bytes <= 0){
+                        break;
+                    }
+                    read += bytes;
+                }
+            }
+            return read;
+        });
+    }
+
+    @Benchmark
+    public long appendOnlyWrite(LoadTypeState.Write state) throws IOException {
+        return state.runSharded((shard, from, to, buf) -> {
+            long written = 0;
+            try(FileChannel ch = FileChannel.open(state.path, APPEND)){
+                while(written < to - from){
+                    while(buf.hasRemaining()){
+                        int bytes = ch.write(buf);
+                        if (bytes <= 0){
+                            break;
+                        }
+                        written += bytes;
+                    }
+                    buf.flip();
+                }
+            }
+            return written;
+        });
+    }
+
+    @Benchmark
+    public long randomRead(LoadTypeState.Read state) throws IOException {
+        return state.runSharded((shard, from, to, buf) -> {
+            RandomReadWorkload workload = new RandomReadWorkload(AccessDistribution.UNIFORM, state.blockSize,
+                    state.blockSize, state.randomOffsets[shard].length);
+            try(FileChannel ch = FileChannel.open(state.path, READ)){
+                return workload.run(ch, buf, state.randomOffsets[shard]).getBytes();
+            }
+        });
+    }
+
+    @Benchmark
+    public long randomWrite(LoadTypeState.Write state) throws IOException {
+        return state.runSharded((shard, from, to, buf) -> {
+            long written = 0;
+            byte[] bytes = new byte[buf.capacity()];
+            buf.duplicate().get(bytes);
+            try(RandomAccessFile file = new RandomAccessFile(state.path.toFile(), "rw")){
+                file.seek(from);
+                while(written < to - from){
+                    file.write(bytes);
+                    written += bytes.length;
+                }
+            }
+            return written;
+        });
+    }
+
+    @Benchmark
+    public long mixedReadWrite(LoadTypeState.Read state) throws IOException {
+        MixedWorkload.Result result = state.mixedWorkload.run(state.path, state.mixedPlan);
+        return result.getReadBytes() + result.getWriteBytes();
+    }
+
+    /**
+     * Runs all load type benchmarks and stores them in {@code ./src/main/resources/loadType.json},
+     * one series per benchmark, block size and thread count. The file is picked up by {@link org.loadtype.LoadType}.
+     * Any JMH command line option can be passed to override the defaults, for example
+     * {@code -p fileSizeGb=1,2 -p threads=1}.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(LoadTypeBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String method = method(result);
+            // write benchmarks have no cache policy
+            String cachePolicy = params.getParam("cachePolicy");
+            String key = method + ":" + params.getParam("blockSize") + ":" + params.getParam("threads") + ":" + cachePolicy;
+            BenchmarkResult.Series s = series.computeIfAbsent(key, k -> {
+                BenchmarkResult.Series created = new BenchmarkResult.Series(titles.get(method), "file size", "GB", "ms")
+                        .param("benchmark", method)
+                        .param("blockSize", params.getParam("blockSize"))
+                        .param("threads", params.getParam("threads"));
+                return cachePolicy != null ? created.param("cachePolicy", cachePolicy) : created;
+            });
+            s.addPoint(point(Double.parseDouble(params.getParam("fileSizeGb")), null, result));
+        }
+
+        writeResults(OutputFile, LoadTypeBenchmark.class, series.values());
+    }
+}
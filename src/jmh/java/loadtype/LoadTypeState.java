@@ -0,0 +1,142 @@
+package loadtype;
+
+import org.directbuffer.DirectBufferPool;
+import org.loadtype.AccessDistribution;
+import org.loadtype.MixedWorkload;
+import org.loadtype.RandomReadWorkload;
+import org.openjdk.jmh.annotations.*;
+import org.pagecache.CachePolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static benchmark.JmhSupport.*;
+
+@State(Scope.Benchmark)
+public abstract class LoadTypeState {
+    @Param({"1", "2", "4", "8"})
+    public int fileSizeGb;
+
+    @Param({"4096", "65536", "1048576"})
+    public int blockSize;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    Path path;
+    ByteBuffer[] buffers;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        path = newFile();
+        executor = Executors.newFixedThreadPool(threads);
+        // one buffer per worker thread, filled with random data the same way as the tests do
+        buffers = new ByteBuffer[threads];
+        for (int i = 0; i < threads; i++) {
+            buffers[i] = randomData(DirectBufferPool.shared().acquire(blockSize));
+        }
+        prepareFile();
+    }
+
+    abstract void prepareFile() throws IOException;
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        executor.shutdownNow();
+        for (ByteBuffer buf : buffers) {
+            DirectBufferPool.shared().release(buf);
+        }
+        Files.deleteIfExists(path);
+    }
+
+    long fileSize() {
+        return (long) fileSizeGb * 1024 * 1024 * 1024;
+    }
+
+    void writeFile() throws IOException {
+        write(path, buffers[0], fileSize());
+    }
+
+    /**
+     * Splits the file into {@code threads} contiguous shards and runs the task for every shard on its own thread.
+     * Returns the total number of bytes reported by the tasks.
+     */
+    long runSharded(ShardTask task) throws IOException {
+        long shardSize = fileSize() / threads;
+        List<Future<Long>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            final long from = shardSize * i;
+            final long to = i == threads - 1 ? fileSize() : from + shardSize;
+            final int shard = i;
+            final ByteBuffer buf = buffers[i];
+            futures.add(executor.submit(() -> task.run(shard, from, to, buf)));
+        }
+        long total = 0;
+        for (Future<Long> future : futures) {
+            try {
+                total += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+        return total;
+    }
+
+    interface ShardTask {
+        long run(int shard, long from, long to, ByteBuffer buf) throws IOException;
+    }
+
+    public static class Read extends LoadTypeState {
+        @Param({"COLD", "WARM"})
+        public CachePolicy cachePolicy;
+
+        // random read offsets per shard, uniform over the whole file
+        long[][] randomOffsets;
+        MixedWorkload mixedWorkload;
+        MixedWorkload.Plan mixedPlan;
+
+        @Override
+        void prepareFile() throws IOException {
+            writeFile();
+            randomOffsets = new long[threads][];
+            RandomReadWorkload workload = new RandomReadWorkload(AccessDistribution.UNIFORM, blockSize, blockSize,
+                    (int) (fileSize() / threads / blockSize));
+            for (int i = 0; i < threads; i++) {
+                randomOffsets[i] = workload.offsets(fileSize());
+            }
+            // 70% reads, as many operations as the file has blocks
+            mixedWorkload = new MixedWorkload(0.7, blockSize, AccessDistribution.UNIFORM, threads,
+                    MixedWorkload.SyncPolicy.NONE, fileSize() / blockSize);
+            mixedPlan = mixedWorkload.plan(fileSize());
+        }
+
+        @Setup(Level.Invocation)
+        public void applyCachePolicy() throws IOException {
+            cachePolicy.apply(path);
+        }
+    }
+
+    public static class Write extends LoadTypeState {
+        @Override
+        void prepareFile() {
+        }
+
+        @Setup(Level.Invocation)
+        public void cleanFile() throws IOException {
+            Files.deleteIfExists(path);
+            Files.createFile(path);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package loadtype;
+
+import org.benchmark.BenchmarkResult;
+import org.loadtype.ParallelReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.pagecache.CachePolicy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+
+/**
+ * Whole file read with {@link ParallelReader} over a thread count sweep, to find where a drive stops scaling.
+ * Run it with COLD (the default), a warm page cache shows memory bandwidth instead of the device.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class ParallelReadBenchmark {
+    public static final String OutputFile = "parallelRead.json";
+
+    @State(Scope.Benchmark)
+    public static class ReaderState {
+        @Param({"4"})
+        public int fileSizeGb;
+
+        // replaced by 1..2 x cores in main unless given on the command line
+        @Param({"1"})
+        public int threads;
+
+        @Param({"131072", "1048576"})
+        public int chunkSize;
+
+        @Param({"COLD"})
+        public CachePolicy cachePolicy;
+
+        Path path;
+        ParallelReader reader;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            writeRandom(path, (long) fileSizeGb * 1024 * 1024 * 1024);
+            reader = new ParallelReader(threads, chunkSize);
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() throws IOException {
+            cachePolicy.apply(path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public long parallelRead(ReaderState state) throws IOException {
+        return state.reader.read(state.path).getBytes();
+    }
+
+    /**
+     * Thread counts 1, 2, 4 ... up to twice the number of cores, the last one is always 2 x cores.
+     */
+    static String[] threadSweep() {
+        int max = 2 * Runtime.getRuntime().availableProcessors();
+        List<String> threads = new ArrayList<>();
+        for (int t = 1; t < max; t *= 2) {
+            threads.add(String.valueOf(t));
+        }
+        threads.add(String.valueOf(max));
+        return threads.toArray(new String[0]);
+    }
+
+    /**
+     * Runs the benchmark and stores throughput in {@code ./src/main/resources/parallelRead.json}, one series per
+     * chunk size and cache policy over the number of threads. Points carry the speedup over one thread.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .include(ParallelReadBenchmark.class.getSimpleName());
+        if (!commandLine.getParameter("threads").hasValue()) {
+            options.param("threads", threadSweep());
+        }
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String chunkSize = params.getParam("chunkSize");
+            String cachePolicy = params.getParam("cachePolicy");
+            int threads = Integer.parseInt(params.getParam("threads"));
+            long fileSize = Long.parseLong(params.getParam("fileSizeGb")) * 1024 * 1024 * 1024;
+            String name = (Integer.parseInt(chunkSize) / 1024) + "KB chunks, " + cachePolicy;
+            BenchmarkResult.Series s = series.computeIfAbsent(name, k ->
+                    new BenchmarkResult.Series(name, "threads", "", "MB/s")
+                            .param("chunkSize", chunkSize)
+                            .param("fileSizeGb", params.getParam("fileSizeGb"))
+                            .param("cachePolicy", cachePolicy)
+                            .param("cores", Runtime.getRuntime().availableProcessors()));
+            // score is the time of a whole file read in ms
+            s.addPoint(perSecond(threads, (double) fileSize / (1024 * 1024), result));
+        }
+        for (BenchmarkResult.Series s : series.values()) {
+            s.getPoints().stream().filter(p -> p.getX() == 1).findFirst().ifPresent(single ->
+                    s.getPoints().forEach(p -> p.metric("speedup", p.getValue() / single.getValue())));
+        }
+
+        writeResults(OutputFile, ParallelReadBenchmark.class, series.values());
+    }
+}
@@ -0,0 +1,153 @@
+package loadtype;
+
+import org.benchmark.BenchmarkResult;
+import org.benchmark.LatencyRecorder;
+import org.directbuffer.DirectBufferPool;
+import org.loadtype.AccessDistribution;
+import org.loadtype.RandomReadWorkload;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.pagecache.CachePolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * {@link RandomReadWorkload} over a fixed file for every access distribution, block size and alignment.
+ * The score is the time of {@code readCount} reads; the per-read p50/p99 of every invocation are reported as
+ * {@link LatencyCounters}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class RandomReadBenchmark {
+    public static final String OutputFile = "randomReadDistributions.json";
+
+    @State(Scope.Benchmark)
+    public static class WorkloadState {
+        @Param({"4"})
+        public int fileSizeGb;
+
+        @Param({"UNIFORM", "ZIPF", "HOTSPOT"})
+        public AccessDistribution distribution;
+
+        @Param({"4096", "65536", "1048576"})
+        public int blockSize;
+
+        // 0 aligns reads to the block size
+        @Param({"0", "512"})
+        public int alignment;
+
+        @Param({"20000"})
+        public int readCount;
+
+        @Param({"COLD", "WARM"})
+        public CachePolicy cachePolicy;
+
+        Path path;
+        ByteBuffer buf;
+        RandomReadWorkload workload;
+        long[] offsets;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            buf = randomData(DirectBufferPool.shared().acquire(Math.max(blockSize, 1024 * 1024)));
+            write(path, buf, fileSize());
+            workload = new RandomReadWorkload(distribution, blockSize, alignment == 0 ? blockSize : alignment, readCount);
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() throws IOException {
+            // fresh offsets, so WARM doesn't mean "the same blocks as last time"
+            offsets = workload.offsets(fileSize());
+            cachePolicy.apply(path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            DirectBufferPool.shared().release(buf);
+            Files.deleteIfExists(path);
+        }
+
+        long fileSize() {
+            return (long) fileSizeGb * 1024 * 1024 * 1024;
+        }
+    }
+
+    /**
+     * Per-read latency percentiles of an invocation, JMH averages them over the iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LatencyCounters {
+        public double p50Nanos;
+        public double p99Nanos;
+    }
+
+    @Benchmark
+    public long randomRead(WorkloadState state, LatencyCounters counters) throws IOException {
+        try(FileChannel ch = FileChannel.open(state.path, READ)){
+            RandomReadWorkload.Result result = state.workload.run(ch, state.buf, state.offsets);
+            LatencyRecorder latencies = result.getLatencies();
+            counters.p50Nanos = latencies.quantile(0.5);
+            counters.p99Nanos = latencies.quantile(0.99);
+            return result.getBytes();
+        }
+    }
+
+    /**
+     * Runs the benchmark and stores throughput in {@code ./src/main/resources/randomReadDistributions.json},
+     * one series per distribution, alignment and cache policy over the block size. Points carry the per-read
+     * p50/p99 latency in nanoseconds.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(RandomReadBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String distribution = params.getParam("distribution");
+            String alignment = params.getParam("alignment");
+            String cachePolicy = params.getParam("cachePolicy");
+            int blockSize = Integer.parseInt(params.getParam("blockSize"));
+            int readCount = Integer.parseInt(params.getParam("readCount"));
+            String name = distribution + (alignment.equals("0") ? "" : ", " + alignment + "B aligned") + ", " + cachePolicy;
+            BenchmarkResult.Series s = series.computeIfAbsent(name, k ->
+                    new BenchmarkResult.Series(name, "block size", "bytes", "MB/s")
+                            .param("distribution", distribution)
+                            .param("alignment", alignment)
+                            .param("readCount", readCount)
+                            .param("fileSizeGb", params.getParam("fileSizeGb"))
+                            .param("cachePolicy", cachePolicy));
+            // score is the time of readCount reads in ms
+            BenchmarkResult.Point point = perSecond(blockSize, (double) readCount * blockSize / (1024 * 1024), result);
+            Map<String, Result> latencies = result.getSecondaryResults();
+            Result p50 = latencies.get("p50Nanos");
+            Result p99 = latencies.get("p99Nanos");
+            if (p50 != null && p99 != null) {
+                point.metric("p50Ns", p50.getScore())
+                        .metric("p99Ns", p99.getScore());
+            }
+            s.addPoint(point);
+        }
+
+        writeResults(OutputFile, RandomReadBenchmark.class, series.values());
+    }
+}
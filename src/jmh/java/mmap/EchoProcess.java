@@ -0,0 +1,77 @@
+package mmap;
+
+import org.mmap.SharedRing;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Second JVM of {@link SharedRingBenchmark}, sends every message back:
+ * <ul>
+ *     <li>{@code ring <ping file> <pong file> <wait strategy>} - from one {@link SharedRing} to the other</li>
+ *     <li>{@code tcp} - over a loopback socket, the port is printed before "ready"</li>
+ * </ul>
+ * Prints "ready" once it serves and exits when its stdin is closed, so it doesn't outlive the benchmark.
+ */
+public class EchoProcess {
+    public static void main(String[] args) throws IOException {
+        Thread watchdog = new Thread(() -> {
+            try {
+                while (System.in.read() >= 0) {
+                    // wait for EOF
+                }
+            } catch (IOException e) {
+                // parent is gone
+            }
+            System.exit(0);
+        });
+        watchdog.setDaemon(true);
+        watchdog.start();
+
+        if (args[0].equals("ring")) {
+            ringEcho(args[1], args[2], SharedRing.WaitStrategy.valueOf(args[3]));
+        } else {
+            tcpEcho();
+        }
+    }
+
+    private static void ringEcho(String ping, String pong, SharedRing.WaitStrategy waitStrategy) throws IOException {
+        try(SharedRing in = SharedRing.open(Paths.get(ping), 10, TimeUnit.SECONDS);
+            SharedRing out = SharedRing.open(Paths.get(pong), 10, TimeUnit.SECONDS)){
+            ByteBuffer buf = ByteBuffer.allocateDirect(in.maxMessageSize());
+            System.out.println("ready");
+            while (true) {
+                buf.clear();
+                in.receive(buf, waitStrategy);
+                buf.flip();
+                out.send(buf, waitStrategy);
+            }
+        }
+    }
+
+    private static void tcpEcho() throws IOException {
+        try(ServerSocketChannel server = ServerSocketChannel.open()){
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            System.out.println(((InetSocketAddress) server.getLocalAddress()).getPort());
+            System.out.println("ready");
+            try(SocketChannel client = server.accept()){
+                client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+                while (client.read(buf) >= 0) {
+                    buf.flip();
+                    while(buf.hasRemaining()){
+                        client.write(buf);
+                    }
+                    buf.clear();
+                }
+            }
+        }
+    }
+}
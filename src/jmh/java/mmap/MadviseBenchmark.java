@@ -0,0 +1,145 @@
+package mmap;
+
+import org.benchmark.BenchmarkResult;
+import org.directbuffer.DirectBufferPool;
+import org.loadtype.AccessDistribution;
+import org.mmap.MappedFile;
+import org.mmap.MemoryAdvice;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.pagecache.CachePolicy;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+
+/**
+ * Scans of a mapped file under every {@link MemoryAdvice}: a sequential scan touches every page, a random scan
+ * {@code randomPages} uniformly picked pages. Every invocation maps the file again, applies the advice to the
+ * whole mapping and unmaps it afterwards, so the advice sees fresh page faults. An advice the kernel rejects
+ * ({@code HUGEPAGE} without file THP) fails its trials rather than measuring the default under its name. The mmap
+ * counterpart of {@code PageCacheReadAheadMatrixTest}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class MadviseBenchmark {
+    public static final String OutputFile = "mmapAdvice.json";
+
+    @State(Scope.Benchmark)
+    public static class MappedState {
+        @Param({"4"})
+        public int fileSizeGb;
+
+        @Param({"NORMAL", "SEQUENTIAL", "RANDOM", "WILLNEED", "DONTNEED", "HUGEPAGE"})
+        public MemoryAdvice advice;
+
+        @Param({"100000"})
+        public int randomPages;
+
+        @Param({"COLD", "WARM"})
+        public CachePolicy cachePolicy;
+
+        Path path;
+        MappedFile file;
+        long[] pages;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            writeRandom(path, (long) fileSizeGb * 1024 * 1024 * 1024);
+            // a hint the kernel rejects would measure the default advice under its name, fail the trial instead
+            try(MappedFile probe = new MappedFile(path, FileChannel.MapMode.READ_ONLY)){
+                probe.advise(0, probe.size(), advice);
+            } catch (IOException e) {
+                Files.deleteIfExists(path);
+                throw new IllegalStateException("madvise " + advice + " is not supported here, e.g. HUGEPAGE without"
+                        + " file THP (CONFIG_READ_ONLY_THP_FOR_FS), skipping the trial", e);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() throws IOException {
+            cachePolicy.apply(path);
+            file = new MappedFile(path, FileChannel.MapMode.READ_ONLY);
+            try {
+                file.advise(0, file.size(), advice);
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            }
+            AccessDistribution.Sampler sampler = AccessDistribution.UNIFORM.sampler(file.size() / DirectBufferPool.PageSize);
+            pages = new long[randomPages];
+            for (int i = 0; i < randomPages; i++) {
+                pages[i] = sampler.next() * DirectBufferPool.PageSize;
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDownInvocation() throws IOException {
+            file.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public long sequentialScan(MappedState state) {
+        MappedFile file = state.file;
+        long sum = 0;
+        for (long position = 0; position < file.size(); position += DirectBufferPool.PageSize) {
+            sum += file.getLong(position);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long randomScan(MappedState state) {
+        MappedFile file = state.file;
+        long sum = 0;
+        for (long position : state.pages) {
+            sum += file.getLong(position);
+        }
+        return sum;
+    }
+
+    /**
+     * Runs the benchmark and stores scan times in {@code ./src/main/resources/mmapAdvice.json}, one series per
+     * scan and cache policy over the advice.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(MadviseBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String method = method(result);
+            String cachePolicy = params.getParam("cachePolicy");
+            MemoryAdvice advice = MemoryAdvice.valueOf(params.getParam("advice"));
+            String name = method + ", " + cachePolicy;
+            BenchmarkResult.Series s = series.computeIfAbsent(name, k ->
+                    new BenchmarkResult.Series(name, "advice", "", "ms")
+                            .param("fileSizeGb", params.getParam("fileSizeGb"))
+                            .param("randomPages", params.getParam("randomPages"))
+                            .param("cachePolicy", cachePolicy));
+            s.addPoint(point(advice.ordinal(), advice.name(), result));
+        }
+
+        writeResults(OutputFile, MadviseBenchmark.class, series.values());
+    }
+}
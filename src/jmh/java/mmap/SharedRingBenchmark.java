@@ -0,0 +1,205 @@
+package mmap;
+
+import org.benchmark.BenchmarkResult;
+import org.mmap.SharedRing;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.util.Statistics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+
+/**
+ * Round trip between two JVMs: the benchmark sends a message, an {@link EchoProcess} started by the trial setup
+ * sends it back. {@code ringRoundTrip} goes through two {@link SharedRing}s (ping and pong) over mapped files,
+ * {@code tcpRoundTrip} through a loopback socket with {@code TCP_NODELAY} as the baseline. Sampled times give the
+ * latency percentiles, messages per second is one over the mean round trip.
+ * <p>
+ * The ring files are put to {@code /dev/shm} when it exists, a mapped file on disk works the same way but its dirty
+ * pages get written back in the background. {@code BUSY_SPIN} needs a core for each side, on fewer cores the two
+ * processes spin through each other's time slices.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2)
+public class SharedRingBenchmark {
+    public static final String OutputFile = "sharedRing.json";
+
+    @State(Scope.Benchmark)
+    public static class MessageState {
+        @Param({"64", "1024"})
+        public int messageSize;
+
+        ByteBuffer message;
+        ByteBuffer reply;
+
+        @Setup(Level.Trial)
+        public void setupTrial() {
+            message = ByteBuffer.allocateDirect(messageSize);
+            reply = ByteBuffer.allocateDirect(messageSize);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RingState {
+        @Param({"BUSY_SPIN", "YIELD", "PARK"})
+        public SharedRing.WaitStrategy waitStrategy;
+
+        Path ping;
+        Path pong;
+        SharedRing out;
+        SharedRing in;
+        Process echo;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            Path dir = Files.isDirectory(Paths.get("/dev/shm")) ? Paths.get("/dev/shm") : Files.createDirectories(Paths.get(baseTestPath));
+            String name = "ring-" + System.nanoTime();
+            ping = dir.resolve(name + "-ping");
+            pong = dir.resolve(name + "-pong");
+            out = SharedRing.create(ping, 2048, 1024, false);
+            in = SharedRing.create(pong, 2048, 1024, false);
+            echo = startEcho("ring", ping.toString(), pong.toString(), waitStrategy.name());
+            awaitReady(echo);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException, InterruptedException {
+            stopEcho(echo);
+            out.close();
+            in.close();
+            Files.deleteIfExists(ping);
+            Files.deleteIfExists(pong);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TcpState {
+        SocketChannel socket;
+        Process echo;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            echo = startEcho("tcp");
+            int port = Integer.parseInt(awaitReady(echo).get(0));
+            socket = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException, InterruptedException {
+            socket.close();
+            stopEcho(echo);
+        }
+    }
+
+    @Benchmark
+    public int ringRoundTrip(RingState ring, MessageState state) {
+        state.message.clear();
+        ring.out.send(state.message, ring.waitStrategy);
+        state.reply.clear();
+        return ring.in.receive(state.reply, ring.waitStrategy);
+    }
+
+    @Benchmark
+    public int tcpRoundTrip(TcpState tcp, MessageState state) throws IOException {
+        state.message.clear();
+        while(state.message.hasRemaining()){
+            tcp.socket.write(state.message);
+        }
+        state.reply.clear();
+        while(state.reply.hasRemaining()){
+            if (tcp.socket.read(state.reply) < 0){
+                throw new IOException("Echo process closed the connection");
+            }
+        }
+        return state.reply.position();
+    }
+
+    private static Process startEcho(String... args) throws IOException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"),
+                EchoProcess.class.getName()));
+        command.addAll(Arrays.asList(args));
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    // lines printed by the echo process before "ready"
+    private static List<String> awaitReady(Process echo) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(echo.getInputStream(), StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.equals("ready")) {
+                return lines;
+            }
+            lines.add(line);
+        }
+        throw new IOException("Echo process exited with " + lines);
+    }
+
+    private static void stopEcho(Process echo) throws IOException, InterruptedException {
+        // the echo process exits on EOF of its stdin
+        echo.getOutputStream().close();
+        if (!echo.waitFor(5, TimeUnit.SECONDS)) {
+            echo.destroyForcibly();
+        }
+    }
+
+    /**
+     * Runs the benchmark and stores messages per second in {@code ./src/main/resources/sharedRing.json}, one series
+     * per transport and wait strategy over the message size. Points carry p50/p99/p99.9 round trip in microseconds.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(SharedRingBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String method = method(result);
+            String waitStrategy = params.getParam("waitStrategy");
+            String name = waitStrategy == null ? method : method + ", " + waitStrategy;
+            BenchmarkResult.Series s = series.computeIfAbsent(name, k -> {
+                BenchmarkResult.Series created = new BenchmarkResult.Series(name, "message size", "bytes", "messages/s");
+                if (waitStrategy != null) {
+                    created.param("waitStrategy", waitStrategy);
+                }
+                return created;
+            });
+            // score is the mean round trip in us
+            Statistics statistics = result.getPrimaryResult().getStatistics();
+            s.addPoint(perSecond(Integer.parseInt(params.getParam("messageSize")), 1, result)
+                    .metric("p50Us", statistics.getPercentile(50))
+                    .metric("p99Us", statistics.getPercentile(99))
+                    .metric("p999Us", statistics.getPercentile(99.9)));
+        }
+
+        writeResults(OutputFile, SharedRingBenchmark.class, series.values());
+    }
+}
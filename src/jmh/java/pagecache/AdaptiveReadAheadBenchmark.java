@@ -0,0 +1,207 @@
+package pagecache;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import org.benchmark.BenchmarkResult;
+import org.directbuffer.DirectBufferPool;
+import org.nativeio.NativeIO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.pagecache.AdaptiveReadAhead;
+import org.pagecache.CachePolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * {@link AdaptiveReadAhead} against one static {@code posix_fadvise} hint for the whole file, the way
+ * {@code PageCacheReadAheadMatrixTest} applies it. Every invocation reads the cold file with one of the
+ * {@link Workload}s, the mixed ones switch between {@code phases} scan and lookup phases, so every static hint is
+ * wrong for half of them.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class AdaptiveReadAheadBenchmark {
+    public static final String OutputFile = "adaptiveReadAhead.json";
+
+    public enum Workload {
+        /**
+         * Scan phases only.
+         */
+        SCAN,
+        /**
+         * Lookup phases only.
+         */
+        LOOKUP,
+        /**
+         * Scan and lookup phases in turn.
+         */
+        MIXED,
+        /**
+         * Strided scans, every {@link #Stride}-th block, and lookup phases in turn.
+         */
+        STRIDED_MIXED;
+
+        public static final int Stride = 4;
+    }
+
+    public enum Hint {
+        NORMAL(NativeIO.POSIX_FADV_NORMAL),
+        SEQUENTIAL(NativeIO.POSIX_FADV_SEQUENTIAL),
+        RANDOM(NativeIO.POSIX_FADV_RANDOM),
+        ADAPTIVE(-1);
+
+        final int advice;
+
+        Hint(int advice) {
+            this.advice = advice;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FileState {
+        @Param({"4"})
+        public int fileSizeGb;
+
+        @Param({"SCAN", "LOOKUP", "MIXED", "STRIDED_MIXED"})
+        public Workload workload;
+
+        @Param({"NORMAL", "SEQUENTIAL", "RANDOM", "ADAPTIVE"})
+        public Hint hint;
+
+        @Param({"16384", "131072"})
+        public int blockSize;
+
+        @Param({"8"})
+        public int phases;
+
+        // bytes a scan phase covers, strided ones read a quarter of them
+        @Param({"64"})
+        public int scanMb;
+
+        @Param({"2000"})
+        public int lookups;
+
+        @Param({"2097152"})
+        public long lookahead;
+
+        Path path;
+        ByteBuffer buf;
+        long[] offsets;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            path = newFile();
+            buf = randomData(DirectBufferPool.shared().acquire(Math.max(blockSize, 1024 * 1024)));
+            write(path, buf, fileSize());
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() throws IOException {
+            // fresh phase positions every time
+            offsets = plan(workload, fileSize(), blockSize, phases, (long) scanMb * 1024 * 1024, lookups);
+            CachePolicy.COLD.apply(path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            DirectBufferPool.shared().release(buf);
+            Files.deleteIfExists(path);
+        }
+
+        long fileSize() {
+            return (long) fileSizeGb * 1024 * 1024 * 1024;
+        }
+    }
+
+    @Benchmark
+    public long read(FileState state) throws IOException {
+        ByteBuffer buf = state.buf;
+        long bytes = 0;
+        try(FileChannel ch = FileChannel.open(state.path, READ)){
+            AdaptiveReadAhead readAhead = null;
+            if (state.hint == Hint.ADAPTIVE) {
+                readAhead = new AdaptiveReadAhead(ch, state.lookahead);
+            } else {
+                NativeIO.fadvise(NativeIO.fd(ch), 0, 0, state.hint.advice);
+            }
+            for (long offset : state.offsets) {
+                buf.clear().limit(state.blockSize);
+                int read = readAhead != null ? readAhead.read(buf, offset) : ch.read(buf, offset);
+                bytes += read;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Block aligned read offsets of the workload, every phase starts at a random block.
+     */
+    static long[] plan(Workload workload, long fileSize, int blockSize, int phases, long scanBytes, int lookups) {
+        long blocks = fileSize / blockSize;
+        int scanReads = (int) (scanBytes / blockSize);
+        int stride = workload == Workload.STRIDED_MIXED ? Workload.Stride : 1;
+        long[] offsets = new long[phases * Math.max(scanReads / stride, lookups)];
+        int count = 0;
+        for (int phase = 0; phase < phases; phase++) {
+            boolean scan = workload == Workload.SCAN
+                    || (workload != Workload.LOOKUP && phase % 2 == 0);
+            if (scan) {
+                long start = PcgRSUFast.nextLong(blocks - scanReads);
+                for (int i = 0; i < scanReads; i += stride) {
+                    offsets[count++] = (start + i) * blockSize;
+                }
+            } else {
+                for (int i = 0; i < lookups; i++) {
+                    offsets[count++] = PcgRSUFast.nextLong(blocks) * blockSize;
+                }
+            }
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Runs the benchmark and stores read times in {@code ./src/main/resources/adaptiveReadAhead.json}, one series
+     * per workload and block size over the hint.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(AdaptiveReadAheadBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String workload = params.getParam("workload");
+            String blockSize = params.getParam("blockSize");
+            Hint hint = Hint.valueOf(params.getParam("hint"));
+            String name = workload + ", " + blockSize + "B blocks";
+            BenchmarkResult.Series s = series.computeIfAbsent(name, k ->
+                    new BenchmarkResult.Series(name, "hint", "", "ms")
+                            .param("workload", workload)
+                            .param("blockSize", blockSize)
+                            .param("fileSizeGb", params.getParam("fileSizeGb"))
+                            .param("phases", params.getParam("phases"))
+                            .param("scanMb", params.getParam("scanMb"))
+                            .param("lookups", params.getParam("lookups"))
+                            .param("lookahead", params.getParam("lookahead")));
+            s.addPoint(point(hint.ordinal(), hint.name(), result));
+        }
+
+        writeResults(OutputFile, AdaptiveReadAheadBenchmark.class, series.values());
+    }
+}
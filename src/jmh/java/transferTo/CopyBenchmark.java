@@ -0,0 +1,161 @@
+package transferTo;
+
+import org.benchmark.BenchmarkResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.pagecache.CachePolicy;
+import org.transferTo.StreamingCopy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Whole file copy the way {@code NaiveCopyTest} (one heap buffer of the file size), {@code TransferToCopyTest}
+ * ({@code transferTo}) and {@link StreamingCopy} do it, over file sizes from 64MB to 32GB. Every copy ends with
+ * {@code fdatasync} of the destination, so the time includes getting the data to the drive and no dirty pages are
+ * left for the next invocation. The naive copy can't go above 2GB, those runs fail and have no points.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class CopyBenchmark {
+    public static final String OutputFile = "copy.json";
+
+    @State(Scope.Benchmark)
+    public static class FileState {
+        @Param({"64", "256", "1024", "4096", "32768"})
+        public int fileSizeMb;
+
+        @Param({"COLD"})
+        public CachePolicy cachePolicy;
+
+        Path src;
+        Path dst;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            src = newFile();
+            dst = Paths.get(src + "_copy");
+            writeRandom(src, (long) fileSizeMb * 1024 * 1024);
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() throws IOException {
+            Files.deleteIfExists(dst);
+            cachePolicy.apply(src);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            Files.deleteIfExists(src);
+            Files.deleteIfExists(dst);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StreamingState {
+        @Param({"1048576", "4194304"})
+        public int bufferSize;
+
+        @Param({"2", "4"})
+        public int depth;
+
+        StreamingCopy copy;
+
+        @Setup(Level.Trial)
+        public void setupTrial() {
+            copy = new StreamingCopy(bufferSize, depth);
+        }
+    }
+
+    @Benchmark
+    public long naiveCopy(FileState state) throws IOException {
+        try(FileChannel src = FileChannel.open(state.src, READ);
+            FileChannel dst = FileChannel.open(state.dst, CREATE_NEW, WRITE)){
+            if (src.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("File of " + src.size() + " bytes doesn't fit a heap buffer");
+            }
+            ByteBuffer buf = ByteBuffer.allocate((int) src.size());
+            while(buf.hasRemaining() && src.read(buf) >= 0){
+                // read all
+            }
+            buf.flip();
+            while(buf.hasRemaining()){
+                dst.write(buf);
+            }
+            dst.force(false);
+            return dst.size();
+        }
+    }
+
+    @Benchmark
+    public long transferToCopy(FileState state) throws IOException {
+        try(FileChannel src = FileChannel.open(state.src, READ);
+            FileChannel dst = FileChannel.open(state.dst, CREATE_NEW, WRITE)){
+            long size = src.size();
+            for (long position = 0; position < size; ) {
+                position += src.transferTo(position, size - position, dst);
+            }
+            dst.force(false);
+            return dst.size();
+        }
+    }
+
+    @Benchmark
+    public long streamingCopy(FileState state, StreamingState streaming) throws IOException {
+        try(FileChannel src = FileChannel.open(state.src, READ);
+            FileChannel dst = FileChannel.open(state.dst, CREATE_NEW, WRITE)){
+            streaming.copy.copy(src, 0, src.size(), dst, 0);
+            dst.force(false);
+            return dst.size();
+        }
+    }
+
+    /**
+     * Runs the benchmark and stores throughput in {@code ./src/main/resources/copy.json}, one series per method and
+     * streaming buffer size and depth over the file size. Points carry the copy time in ms.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(CopyBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String method = method(result);
+            String bufferSize = params.getParam("bufferSize");
+            String depth = params.getParam("depth");
+            String name = bufferSize == null ? method
+                    : method + ", " + (Integer.parseInt(bufferSize) / 1024) + "KB x " + depth;
+            int fileSizeMb = Integer.parseInt(params.getParam("fileSizeMb"));
+            BenchmarkResult.Series s = series.computeIfAbsent(name, k -> {
+                BenchmarkResult.Series created = new BenchmarkResult.Series(name, "file size", "MB", "MB/s")
+                        .param("cachePolicy", params.getParam("cachePolicy"));
+                if (bufferSize != null) {
+                    created.param("bufferSize", bufferSize).param("depth", depth);
+                }
+                return created;
+            });
+            // score is the time of a whole file copy in ms
+            s.addPoint(perSecond(fileSizeMb, fileSizeMb, result)
+                    .metric("ms", result.getPrimaryResult().getScore()));
+        }
+
+        writeResults(OutputFile, CopyBenchmark.class, series.values());
+    }
+}
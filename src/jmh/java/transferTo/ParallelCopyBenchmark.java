@@ -0,0 +1,121 @@
+package transferTo;
+
+import org.benchmark.BenchmarkResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.pagecache.CachePolicy;
+import org.transferTo.ParallelCopy;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.JmhSupport.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Whole file copy with {@link ParallelCopy} over thread counts and chunk sizes, {@code transferTo} against
+ * {@code copy_file_range}. The copy is synced with {@code fdatasync} before the invocation ends. On a file system
+ * with reflinks (XFS, Btrfs) {@code copy_file_range} clones extents and the numbers say little about the drive.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+public class ParallelCopyBenchmark {
+    public static final String OutputFile = "parallelCopy.json";
+
+    @State(Scope.Benchmark)
+    public static class CopyState {
+        @Param({"4"})
+        public int fileSizeGb;
+
+        @Param({"1", "2", "4", "8", "16"})
+        public int threads;
+
+        @Param({"1048576", "16777216", "134217728"})
+        public long chunkSize;
+
+        @Param({"TRANSFER_TO", "COPY_FILE_RANGE"})
+        public ParallelCopy.Method method;
+
+        @Param({"COLD"})
+        public CachePolicy cachePolicy;
+
+        Path src;
+        Path dst;
+        ParallelCopy copy;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            src = newFile();
+            dst = Paths.get(src + "_copy");
+            writeRandom(src, (long) fileSizeGb * 1024 * 1024 * 1024);
+            copy = new ParallelCopy(threads, chunkSize, method);
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() throws IOException {
+            Files.deleteIfExists(dst);
+            cachePolicy.apply(src);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() throws IOException {
+            Files.deleteIfExists(src);
+            Files.deleteIfExists(dst);
+        }
+    }
+
+    @Benchmark
+    public long parallelCopy(CopyState state) throws IOException {
+        long bytes = state.copy.copy(state.src, state.dst).getBytes();
+        try(FileChannel ch = FileChannel.open(state.dst, WRITE)){
+            ch.force(false);
+        }
+        return bytes;
+    }
+
+    /**
+     * Runs the benchmark and stores throughput in {@code ./src/main/resources/parallelCopy.json}, one series per
+     * method and chunk size over the number of threads. Points carry the speedup over one thread.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Collection<RunResult> results = run(ParallelCopyBenchmark.class, args);
+
+        Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String method = params.getParam("method");
+            String chunkSize = params.getParam("chunkSize");
+            int threads = Integer.parseInt(params.getParam("threads"));
+            long fileSize = Long.parseLong(params.getParam("fileSizeGb")) * 1024 * 1024 * 1024;
+            String name = method + ", " + (Long.parseLong(chunkSize) / (1024 * 1024)) + "MB chunks";
+            BenchmarkResult.Series s = series.computeIfAbsent(name, k ->
+                    new BenchmarkResult.Series(name, "threads", "", "MB/s")
+                            .param("method", method)
+                            .param("chunkSize", chunkSize)
+                            .param("fileSizeGb", params.getParam("fileSizeGb"))
+                            .param("cachePolicy", params.getParam("cachePolicy"))
+                            .param("cores", Runtime.getRuntime().availableProcessors()));
+            // score is the time of a whole file copy in ms
+            s.addPoint(perSecond(threads, (double) fileSize / (1024 * 1024), result));
+        }
+        for (BenchmarkResult.Series s : series.values()) {
+            s.getPoints().stream().filter(p -> p.getX() == 1).findFirst().ifPresent(single ->
+                    s.getPoints().forEach(p -> p.metric("speedup", p.getValue() / single.getValue())));
+        }
+
+        writeResults(OutputFile, ParallelCopyBenchmark.class, series.values());
+    }
+}
@@ -0,0 +1,273 @@
+package org.appendlog;
+
+import org.directbuffer.DirectBufferPool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable append log with group commit. Any number of threads append records, a single sync thread takes
+ * everything appended since the last sync as one batch, writes it with {@link PageAlignedAppender} and makes it
+ * durable with one {@code fdatasync}. The future of every record of the batch is completed after that, with the
+ * file offset of the record.
+ * <p>
+ * A batch is taken once {@code batchWindow} has passed since its first record, or earlier when it reaches
+ * {@code maxBatchRecords} records or {@code maxBatchBytes} bytes. With a zero window a batch is whatever arrived
+ * while the previous sync was running, the window trades latency of a lone writer for bigger batches.
+ * Writers fill the next batch while the current one is being synced, they wait only when it's full.
+ * <p>
+ * Futures are completed on the sync thread, dependent actions should be asynchronous or short. After a failed
+ * write or sync every pending and following append completes exceptionally with that error.
+ */
+public class GroupCommitLog implements Closeable {
+    private final PageAlignedAppender appender;
+    private final long windowNanos;
+    private final int maxBatchRecords;
+    private final int maxBatchBytes;
+    private final Thread syncThread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // a record is in the filling batch, or it is full, or the log is closed
+    private final Condition batchReady = lock.newCondition();
+    // the sync thread took the filling batch
+    private final Condition batchTaken = lock.newCondition();
+    private Batch filling;
+    // owned by the sync thread while it commits
+    private Batch spare;
+    private long nextOffset;
+    private boolean closed;
+    private IOException failure;
+
+    private volatile long batches;
+    private volatile long records;
+
+    /**
+     * @param batchWindow     longest wait for more records after the first one of a batch, may be zero
+     * @param maxBatchRecords records after which a batch is taken without waiting for the window
+     * @param maxBatchBytes   bytes after which a batch is taken, the largest record size
+     */
+    public GroupCommitLog(Path path, long batchWindow, TimeUnit unit, int maxBatchRecords, int maxBatchBytes) throws IOException {
+        if (batchWindow < 0 || maxBatchRecords <= 0 || maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("Batch window must not be negative, batch records and bytes must be positive");
+        }
+        this.windowNanos = unit.toNanos(batchWindow);
+        this.maxBatchRecords = maxBatchRecords;
+        this.maxBatchBytes = maxBatchBytes;
+        this.appender = new PageAlignedAppender(path, maxBatchBytes + DirectBufferPool.PageSize);
+        this.nextOffset = appender.size();
+        this.filling = new Batch();
+        this.spare = new Batch();
+        this.syncThread = new Thread(this::syncLoop, "group-commit-" + path.getFileName());
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    /**
+     * Copies the remaining bytes of the record into the current batch, waits only while the batch is full.
+     *
+     * @return the file offset of the record, completed once it's durable
+     */
+    public CompletableFuture<Long> append(ByteBuffer record) {
+        int length = record.remaining();
+        if (length > maxBatchBytes) {
+            throw new IllegalArgumentException("Record of " + length + " bytes is larger than a batch");
+        }
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            while (true) {
+                if (failure != null) {
+                    future.completeExceptionally(failure);
+                    return future;
+                }
+                if (closed) {
+                    throw new IllegalStateException("Log is closed");
+                }
+                if (filling.fits(length)) {
+                    break;
+                }
+                filling.full = true;
+                batchReady.signal();
+                batchTaken.awaitUninterruptibly();
+            }
+            if (filling.count == 0) {
+                filling.firstNanos = System.nanoTime();
+                batchReady.signal();
+            }
+            filling.add(record, future, nextOffset);
+            nextOffset += length;
+            if (filling.count == maxBatchRecords) {
+                filling.full = true;
+                batchReady.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    private void syncLoop() {
+        while (true) {
+            Batch batch;
+            IOException failed;
+            lock.lock();
+            try {
+                while (filling.count == 0 && !closed) {
+                    batchReady.awaitUninterruptibly();
+                }
+                if (filling.count == 0) {
+                    return;
+                }
+                long deadline = filling.firstNanos + windowNanos;
+                long left;
+                while (!closed && !filling.full && (left = deadline - System.nanoTime()) > 0) {
+                    try {
+                        batchReady.awaitNanos(left);
+                    } catch (InterruptedException e) {
+                        // nobody interrupts the sync thread, commit what we have
+                        break;
+                    }
+                }
+                batch = filling;
+                filling = spare;
+                spare = null;
+                failed = failure;
+                batchTaken.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (failed == null) {
+                failed = commit(batch);
+            }
+            if (failed != null) {
+                batch.fail(failed);
+            }
+            batch.reset();
+            lock.lock();
+            try {
+                spare = batch;
+                if (failed != null && failure == null) {
+                    failure = failed;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private IOException commit(Batch batch) {
+        try {
+            batch.data.flip();
+            appender.append(batch.data);
+            appender.sync();
+        } catch (IOException e) {
+            return e;
+        } catch (RuntimeException e) {
+            // fails the batch and the log instead of killing the sync thread
+            return new IOException(e);
+        }
+        for (int i = 0; i < batch.count; i++) {
+            batch.futures[i].complete(batch.offsets[i]);
+        }
+        batches++;
+        records += batch.count;
+        return null;
+    }
+
+    /**
+     * Number of syncs so far.
+     */
+    public long batches() {
+        return batches;
+    }
+
+    /**
+     * Number of records made durable so far.
+     */
+    public long records() {
+        return records;
+    }
+
+    /**
+     * Commits the pending records and closes the file, appends after that throw {@link IllegalStateException}.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            batchReady.signal();
+            batchTaken.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        while (syncThread.isAlive()) {
+            try {
+                syncThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            appender.close();
+        } finally {
+            filling.release();
+            // null when the sync thread died holding a batch
+            if (spare != null) {
+                spare.release();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class Batch {
+        final ByteBuffer data = DirectBufferPool.shared().acquire(maxBatchBytes);
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<Long>[] futures = new CompletableFuture[maxBatchRecords];
+        final long[] offsets = new long[maxBatchRecords];
+        int count;
+        boolean full;
+        long firstNanos;
+
+        boolean fits(int length) {
+            return count < maxBatchRecords && data.remaining() >= length;
+        }
+
+        void add(ByteBuffer record, CompletableFuture<Long> future, long offset) {
+            data.put(record);
+            futures[count] = future;
+            offsets[count] = offset;
+            count++;
+        }
+
+        void fail(IOException e) {
+            for (int i = 0; i < count; i++) {
+                futures[i].completeExceptionally(e);
+            }
+        }
+
+        void reset() {
+            data.clear().limit(maxBatchBytes);
+            Arrays.fill(futures, 0, count, null);
+            count = 0;
+            full = false;
+        }
+
+        void release() {
+            DirectBufferPool.shared().release(data);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.appendlog;
+
+import org.directbuffer.DirectBufferPool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Write-combining appender for logs of small records. Records are copied into an off-heap buffer and reach the file
+ * only as whole pages written at page aligned positions, a write of a part of a page makes the SSD read, modify and
+ * write the whole flash page again. Thousands of records share one {@code pwrite} instead of a syscall each.
+ * <p>
+ * The partial page at the end stays in the buffer until it's filled. {@link #flushTail()} writes it too, when
+ * the records have to be in the file (before a sync or a read), the page is written again in full later on.
+ * Not thread safe.
+ */
+public class PageAlignedAppender implements Closeable {
+    private final FileChannel ch;
+    private final int pageSize;
+    private final ByteBuffer buf;
+    private final int capacity;
+    // file position of the first buffered byte, always page aligned
+    private long position;
+    // buffered bytes already written by the last flushTail()
+    private int tailInFile;
+    private long writeCalls;
+    private long writtenBytes;
+
+    /**
+     * Opens the file for appending, the partial page at its end is read back into the buffer.
+     *
+     * @param bufferSize bytes collected before a write, rounded up to whole pages
+     */
+    public PageAlignedAppender(Path path, int bufferSize) throws IOException {
+        this(path, bufferSize, DirectBufferPool.PageSize);
+    }
+
+    public PageAlignedAppender(Path path, int bufferSize, int pageSize) throws IOException {
+        if (Integer.bitCount(pageSize) != 1 || bufferSize <= 0) {
+            throw new IllegalArgumentException("Page size must be a power of two and buffer size positive");
+        }
+        this.pageSize = pageSize;
+        this.ch = FileChannel.open(path, CREATE, READ, WRITE);
+        this.capacity = (int) alignUp(bufferSize);
+        this.buf = DirectBufferPool.shared().acquire(capacity);
+        try {
+            long size = ch.size();
+            position = size & -pageSize;
+            buf.limit((int) (size - position));
+            while(buf.hasRemaining()){
+                if (ch.read(buf, position + buf.position()) <= 0){
+                    throw new IOException("File " + path + " is shorter than " + size + " bytes");
+                }
+            }
+            buf.limit(capacity);
+            tailInFile = buf.position();
+        } catch (IOException e) {
+            ch.close();
+            DirectBufferPool.shared().release(buf);
+            throw e;
+        }
+    }
+
+    public void append(byte[] record) throws IOException {
+        append(ByteBuffer.wrap(record));
+    }
+
+    /**
+     * Appends the remaining bytes of the record, a record may span pages and buffers.
+     */
+    public void append(ByteBuffer record) throws IOException {
+        while (record.hasRemaining()) {
+            if (!buf.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(record.remaining(), buf.remaining());
+            int limit = record.limit();
+            record.limit(record.position() + length);
+            buf.put(record);
+            record.limit(limit);
+        }
+    }
+
+    /**
+     * Writes the full pages of the buffer, the partial page at the end is kept.
+     */
+    public void flush() throws IOException {
+        int pages = buf.position() & -pageSize;
+        if (pages == 0) {
+            return;
+        }
+        write(pages);
+        position += pages;
+        // at most a page is left, moved to the buffer start
+        buf.limit(buf.position()).position(pages);
+        buf.compact();
+        buf.limit(capacity);
+        tailInFile = 0;
+    }
+
+    /**
+     * Writes the full pages and the partial page at the end, after that the file has every appended byte.
+     */
+    public void flushTail() throws IOException {
+        flush();
+        if (buf.position() > tailInFile) {
+            write(buf.position());
+            tailInFile = buf.position();
+        }
+    }
+
+    private void write(int length) throws IOException {
+        ByteBuffer out = buf.duplicate();
+        out.position(0).limit(length);
+        while(out.hasRemaining()){
+            ch.write(out, position + out.position());
+        }
+        writeCalls++;
+        writtenBytes += length;
+    }
+
+    /**
+     * {@link #flushTail()} followed by {@code fdatasync}.
+     */
+    public void sync() throws IOException {
+        flushTail();
+        ch.force(false);
+    }
+
+    /**
+     * Appended bytes including the buffered ones.
+     */
+    public long size() {
+        return position + buf.position();
+    }
+
+    /**
+     * Number of writes issued to the file.
+     */
+    public long writeCalls() {
+        return writeCalls;
+    }
+
+    /**
+     * Bytes written to the file, more than appended when tail pages are written more than once.
+     */
+    public long writtenBytes() {
+        return writtenBytes;
+    }
+
+    private long alignUp(long value) {
+        return (value + pageSize - 1) & -pageSize;
+    }
+
+    /**
+     * Flushes the tail and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!ch.isOpen()) {
+            return;
+        }
+        try(FileChannel c = ch){
+            flushTail();
+        } finally {
+            DirectBufferPool.shared().release(buf);
+        }
+    }
+}
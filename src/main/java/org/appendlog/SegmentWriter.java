@@ -0,0 +1,199 @@
+package org.appendlog;
+
+import org.directbuffer.DirectBufferPool;
+import org.nativeio.ErrnoException;
+import org.nativeio.NativeIO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log split into segment files of {@code segmentSize} bytes, for writers which must keep a steady
+ * rate over hours.
+ * <ul>
+ *     <li>Every segment is allocated up front with {@code fallocate(FALLOC_FL_KEEP_SIZE)}, appends don't allocate
+ *     blocks one write at a time and the segment gets few large extents. The file size still grows with the data,
+ *     so the end of the log is where the data ends.</li>
+ *     <li>Every {@code writebackChunk} bytes the writer starts writeback of the new chunk with
+ *     {@code sync_file_range(SYNC_FILE_RANGE_WRITE)}, waits for the chunk before it, which had a whole chunk of
+ *     appends to get written, and drops it from the page cache with {@code POSIX_FADV_DONTNEED}. Dirty pages stay
+ *     at about two chunks instead of piling up until the kernel flushes gigabytes at once and blocks the writer.</li>
+ * </ul>
+ * Drop-behind evicts pages readers tailing the log would hit, turn it off when they read from the cache.
+ * {@code sync_file_range} doesn't make data durable, {@link #sync()} does. A record doesn't span segments. Not
+ * thread safe.
+ */
+public class SegmentWriter implements Closeable {
+    public static final long DefaultWritebackChunk = 8 * 1024 * 1024;
+
+    private static final int EOPNOTSUPP = 95;
+
+    private final Path dir;
+    private final long segmentSize;
+    private final long writebackChunk;
+    private final boolean dropBehind;
+
+    private FileChannel ch;
+    private int fd;
+    // log offset of the current segment start and write position in the segment
+    private long segmentBase;
+    private long position;
+    // segment range written but not handed to writeback yet starts here
+    private long writebackStart;
+    // range under writeback, waited for and dropped one chunk later
+    private long pendingStart;
+    private long pendingEnd;
+    private int segments;
+    private boolean preallocate = true;
+
+    public SegmentWriter(Path dir, long segmentSize) throws IOException {
+        this(dir, segmentSize, DefaultWritebackChunk, true);
+    }
+
+    /**
+     * @param writebackChunk bytes between writeback starts, 0 leaves writeback to the kernel
+     * @param dropBehind     drop the written pages from the page cache after their writeback
+     */
+    public SegmentWriter(Path dir, long segmentSize, long writebackChunk, boolean dropBehind) throws IOException {
+        if (segmentSize <= 0 || writebackChunk < 0) {
+            throw new IllegalArgumentException("Segment size must be positive, writeback chunk not negative");
+        }
+        this.dir = Files.createDirectories(dir);
+        this.segmentSize = segmentSize;
+        this.writebackChunk = writebackChunk;
+        this.dropBehind = dropBehind;
+        openSegment();
+    }
+
+    /**
+     * File name of the segment starting at the log offset.
+     */
+    public static String segmentName(long base) {
+        return String.format("%020d.log", base);
+    }
+
+    /**
+     * Appends the remaining bytes of the record, rolls to a new segment when it doesn't fit the current one.
+     *
+     * @return log offset of the record
+     */
+    public long append(ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes, segments take " + segmentSize);
+        }
+        if (position + length > segmentSize) {
+            roll();
+        }
+        long offset = segmentBase + position;
+        while(record.hasRemaining()){
+            position += ch.write(record, position);
+        }
+        if (writebackChunk > 0 && position - writebackStart >= writebackChunk) {
+            // whole pages only, the partial last page is written again by the next append
+            startWriteback(position & -DirectBufferPool.PageSize);
+        }
+        return offset;
+    }
+
+    /**
+     * Makes the appended records durable with {@code fdatasync}, rolled segments were synced when rolled.
+     */
+    public void sync() throws IOException {
+        ch.force(false);
+    }
+
+    /**
+     * Log offset after the last record.
+     */
+    public long size() {
+        return segmentBase + position;
+    }
+
+    public int segmentCount() {
+        return segments;
+    }
+
+    /**
+     * False when the file system doesn't support {@code fallocate}, segments then grow write by write.
+     */
+    public boolean isPreallocated() {
+        return preallocate;
+    }
+
+    private void openSegment() throws IOException {
+        ch = FileChannel.open(dir.resolve(segmentName(segmentBase)), CREATE_NEW, WRITE);
+        fd = NativeIO.fd(ch);
+        position = 0;
+        writebackStart = 0;
+        pendingStart = pendingEnd = 0;
+        segments++;
+        if (preallocate) {
+            try {
+                NativeIO.fallocate(fd, NativeIO.FALLOC_FL_KEEP_SIZE, 0, segmentSize);
+            } catch (ErrnoException e) {
+                if (e.getErrno() != EOPNOTSUPP) {
+                    ch.close();
+                    throw e;
+                }
+                preallocate = false;
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        finishSegment();
+        segmentBase += position;
+        openSegment();
+    }
+
+    // writes back and drops the rest of the segment, its data is durable after that
+    private void finishSegment() throws IOException {
+        try(FileChannel c = ch){
+            if (writebackChunk > 0) {
+                startWriteback(position);
+                awaitPending();
+            }
+            c.force(false);
+        }
+    }
+
+    private void startWriteback(long end) throws IOException {
+        if (end > writebackStart) {
+            NativeIO.syncFileRange(fd, writebackStart, end - writebackStart, NativeIO.SYNC_FILE_RANGE_WRITE);
+        }
+        awaitPending();
+        pendingStart = writebackStart;
+        pendingEnd = end;
+        writebackStart = end;
+    }
+
+    private void awaitPending() throws IOException {
+        if (pendingEnd > pendingStart) {
+            NativeIO.syncFileRange(fd, pendingStart, pendingEnd - pendingStart, NativeIO.SYNC_FILE_RANGE_WAIT_BEFORE
+                    | NativeIO.SYNC_FILE_RANGE_WRITE | NativeIO.SYNC_FILE_RANGE_WAIT_AFTER);
+            if (dropBehind) {
+                // only clean pages can be dropped, the wait above made them clean
+                NativeIO.fadvise(fd, pendingStart, pendingEnd - pendingStart, NativeIO.POSIX_FADV_DONTNEED);
+            }
+            pendingStart = pendingEnd;
+        }
+    }
+
+    /**
+     * Writes back and syncs the current segment. The preallocated space past its end stays allocated.
+     */
+    @Override
+    public void close() throws IOException {
+        if (ch.isOpen()) {
+            finishSegment();
+        }
+    }
+}
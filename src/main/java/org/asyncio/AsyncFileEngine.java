@@ -0,0 +1,61 @@
+package org.asyncio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+
+/**
+ * Positional file reads and writes with up to {@link #queueDepth()} operations in flight.
+ * <p>
+ * {@code read} and {@code write} only queue an operation, {@link #submit()} hands the batch to the engine and
+ * {@link #await(int)} submits as well and runs the completion handlers on the calling thread. Queuing an operation
+ * while the queue is full waits for one completion first. Buffers must be direct and must not be touched until
+ * their handler runs, the buffer position is advanced by the number of bytes transferred.
+ * <p>
+ * Engines are not thread safe, use one per thread.
+ */
+public interface AsyncFileEngine extends Closeable {
+
+    /**
+     * io_uring when the kernel supports it, a thread pool running blocking {@link FileChannel} calls otherwise.
+     */
+    static AsyncFileEngine open(int queueDepth) throws IOException {
+        return IoUringEngine.isSupported() ? new IoUringEngine(queueDepth) : new ThreadPoolEngine(queueDepth);
+    }
+
+    /**
+     * Reads into {@code dst} from the given file position, the handler gets the number of bytes read
+     * or -1 at the end of file.
+     */
+    <A> void read(FileChannel ch, ByteBuffer dst, long position, A attachment,
+                  CompletionHandler<Integer, ? super A> handler) throws IOException;
+
+    <A> void write(FileChannel ch, ByteBuffer src, long position, A attachment,
+                   CompletionHandler<Integer, ? super A> handler) throws IOException;
+
+    /**
+     * Submits queued operations, returns the number of submitted ones.
+     */
+    int submit() throws IOException;
+
+    /**
+     * Submits queued operations and waits until at least {@code min} operations completed (less if fewer are
+     * outstanding). Runs the handlers of all completed operations, returns their number.
+     */
+    int await(int min) throws IOException;
+
+    /**
+     * Operations queued or submitted which didn't complete yet.
+     */
+    int outstanding();
+
+    int queueDepth();
+
+    /**
+     * Waits for outstanding operations and releases the engine.
+     */
+    @Override
+    void close() throws IOException;
+}
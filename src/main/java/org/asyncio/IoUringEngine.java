@@ -0,0 +1,328 @@
+package org.asyncio;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import org.nativeio.LibC;
+import org.nativeio.NativeIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+
+import static one.nio.util.JavaInternals.unsafe;
+
+/**
+ * {@link AsyncFileEngine} on a Linux io_uring instance, driven through raw syscalls with JNA.
+ * <p>
+ * Operations are written as {@code IORING_OP_READ} / {@code IORING_OP_WRITE} entries straight into the mapped
+ * submission ring, {@link #submit()} and {@link #await(int)} are a single {@code io_uring_enter} each, however many
+ * operations are queued. There is no SQ polling thread, the kernel reads the submission ring only inside
+ * {@code io_uring_enter}. Completions may be posted at any time, so the CQ tail is read with acquire semantics
+ * before the entries behind it and the CQ head is published with a release store after they have been read,
+ * the way liburing does.
+ */
+public class IoUringEngine implements AsyncFileEngine {
+    private static final long SYS_io_uring_setup = 425;
+    private static final long SYS_io_uring_enter = 426;
+    private static final long SYS_io_uring_register = 427;
+
+    private static final long IORING_OFF_SQ_RING = 0;
+    private static final long IORING_OFF_CQ_RING = 0x8000000L;
+    private static final long IORING_OFF_SQES = 0x10000000L;
+    private static final int IORING_FEAT_SINGLE_MMAP = 1;
+    private static final int IORING_ENTER_GETEVENTS = 1;
+    private static final int IORING_REGISTER_PROBE = 8;
+    private static final int IO_URING_OP_SUPPORTED = 1;
+    private static final byte IORING_OP_READ = 22;
+    private static final byte IORING_OP_WRITE = 23;
+
+    private static final int EINTR = 4;
+    private static final int ParamsSize = 120;
+    private static final int SqeSize = 64;
+    private static final int CqeSize = 16;
+
+    private static volatile Boolean supported;
+
+    private final int queueDepth;
+    private final int ringFd;
+    private final Pointer sqRing;
+    private final long sqRingSize;
+    private final Pointer cqRing;
+    private final long cqRingSize;
+    private final Pointer sqes;
+    private final long sqesSize;
+
+    // addresses of the ring indexes shared with the kernel
+    private final long sqTail;
+    private final Pointer sqArray;
+    private final int sqMask;
+    private final long cqHead;
+    private final long cqTail;
+    private final Pointer cqes;
+    private final int cqMask;
+
+    // operation slots indexed by user_data
+    private final Operation[] operations;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int tail;
+    private int queued;
+    private int submitted;
+
+    public IoUringEngine(int queueDepth) throws IOException {
+        if (queueDepth <= 0) {
+            throw new IllegalArgumentException("Queue depth must be positive: " + queueDepth);
+        }
+        this.queueDepth = queueDepth;
+        Memory params = new Memory(ParamsSize);
+        params.clear();
+        try {
+            ringFd = (int) LibC.INSTANCE.syscall(SYS_io_uring_setup, (long) queueDepth, params);
+        } catch (LastErrorException e) {
+            throw new IOException("io_uring_setup failed, errno " + e.getErrorCode(), e);
+        }
+        int sqEntries = params.getInt(0);
+        int cqEntries = params.getInt(4);
+        int features = params.getInt(20);
+        // struct io_sqring_offsets at 40, struct io_cqring_offsets at 80
+        int sqArrayOffset = params.getInt(64);
+        int cqesOffset = params.getInt(100);
+
+        long sqSize = sqArrayOffset + (long) sqEntries * 4;
+        long cqSize = cqesOffset + (long) cqEntries * CqeSize;
+        sqesSize = (long) sqEntries * SqeSize;
+        try {
+            if ((features & IORING_FEAT_SINGLE_MMAP) != 0) {
+                // both rings in one mapping
+                sqRingSize = Math.max(sqSize, cqSize);
+                cqRingSize = 0;
+                sqRing = map(sqRingSize, IORING_OFF_SQ_RING);
+                cqRing = sqRing;
+            } else {
+                sqRingSize = sqSize;
+                cqRingSize = cqSize;
+                sqRing = map(sqRingSize, IORING_OFF_SQ_RING);
+                cqRing = map(cqRingSize, IORING_OFF_CQ_RING);
+            }
+            sqes = map(sqesSize, IORING_OFF_SQES);
+        } catch (LastErrorException e) {
+            LibC.INSTANCE.close(ringFd);
+            throw new IOException("io_uring mmap failed, errno " + e.getErrorCode(), e);
+        }
+
+        sqTail = Pointer.nativeValue(sqRing) + params.getInt(44);
+        sqMask = sqRing.getInt(params.getInt(48));
+        sqArray = sqRing.share(sqArrayOffset);
+        cqHead = Pointer.nativeValue(cqRing) + params.getInt(80);
+        cqTail = Pointer.nativeValue(cqRing) + params.getInt(84);
+        cqMask = cqRing.getInt(params.getInt(88));
+        cqes = cqRing.share(cqesOffset);
+        tail = unsafe.getIntVolatile(null, sqTail);
+
+        operations = new Operation[queueDepth];
+        freeSlots = new int[queueDepth];
+        for (int i = 0; i < queueDepth; i++) {
+            operations[i] = new Operation();
+            freeSlots[i] = queueDepth - 1 - i;
+        }
+        freeCount = queueDepth;
+    }
+
+    /**
+     * Checks once that io_uring can be set up (kernel 5.1+, not disabled by {@code kernel.io_uring_disabled}
+     * or seccomp) and supports plain read and write operations (5.6+).
+     */
+    public static boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            result = probe();
+            supported = result;
+        }
+        return result;
+    }
+
+    private static boolean probe() {
+        int fd;
+        try {
+            Memory params = new Memory(ParamsSize);
+            params.clear();
+            fd = (int) LibC.INSTANCE.syscall(SYS_io_uring_setup, 1L, params);
+        } catch (LastErrorException | UnsatisfiedLinkError e) {
+            return false;
+        }
+        try {
+            // struct io_uring_probe: 16 byte header and 8 bytes per op
+            int ops = 256;
+            Memory probe = new Memory(16 + ops * 8);
+            probe.clear();
+            LibC.INSTANCE.syscall(SYS_io_uring_register, (long) fd, (long) IORING_REGISTER_PROBE, probe, (long) ops);
+            int opsLen = probe.getByte(1) & 0xff;
+            return isOpSupported(probe, opsLen, IORING_OP_READ) && isOpSupported(probe, opsLen, IORING_OP_WRITE);
+        } catch (LastErrorException e) {
+            return false;
+        } finally {
+            LibC.INSTANCE.close(fd);
+        }
+    }
+
+    private static boolean isOpSupported(Pointer probe, int opsLen, int op) {
+        return op < opsLen && (probe.getShort(16 + op * 8 + 2) & IO_URING_OP_SUPPORTED) != 0;
+    }
+
+    private Pointer map(long size, long offset) {
+        return LibC.INSTANCE.mmap(null, size, LibC.PROT_READ | LibC.PROT_WRITE,
+                LibC.MAP_SHARED | LibC.MAP_POPULATE, ringFd, offset);
+    }
+
+    @Override
+    public <A> void read(FileChannel ch, ByteBuffer dst, long position, A attachment,
+                         CompletionHandler<Integer, ? super A> handler) throws IOException {
+        prepare(IORING_OP_READ, ch, dst, position, attachment, handler);
+    }
+
+    @Override
+    public <A> void write(FileChannel ch, ByteBuffer src, long position, A attachment,
+                          CompletionHandler<Integer, ? super A> handler) throws IOException {
+        prepare(IORING_OP_WRITE, ch, src, position, attachment, handler);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A> void prepare(byte opcode, FileChannel ch, ByteBuffer buf, long position, A attachment,
+                             CompletionHandler<Integer, ? super A> handler) throws IOException {
+        if (!buf.isDirect()) {
+            throw new IllegalArgumentException("io_uring requires a direct buffer");
+        }
+        if (outstanding() == queueDepth) {
+            await(1);
+        }
+        int slot = freeSlots[--freeCount];
+        Operation op = operations[slot];
+        op.opcode = opcode;
+        op.buf = buf;
+        op.attachment = attachment;
+        op.handler = (CompletionHandler<Integer, Object>) handler;
+
+        int index = tail & sqMask;
+        long sqe = (long) index * SqeSize;
+        sqes.setMemory(sqe, SqeSize, (byte) 0);
+        sqes.setByte(sqe, opcode);
+        sqes.setInt(sqe + 4, NativeIO.fd(ch));
+        sqes.setLong(sqe + 8, position);
+        sqes.setLong(sqe + 16, Pointer.nativeValue(Native.getDirectBufferPointer(buf)) + buf.position());
+        sqes.setInt(sqe + 24, buf.remaining());
+        sqes.setLong(sqe + 32, slot);
+        sqArray.setInt((long) index * 4, index);
+        tail++;
+        queued++;
+    }
+
+    @Override
+    public int submit() throws IOException {
+        return enter(0);
+    }
+
+    @Override
+    public int await(int min) throws IOException {
+        int wait = Math.min(min, outstanding());
+        int completed = reap();
+        while (completed < wait || queued > 0) {
+            enter(wait - completed);
+            completed += reap();
+        }
+        return completed;
+    }
+
+    private int enter(int minComplete) throws IOException {
+        if (queued == 0 && minComplete <= 0) {
+            return 0;
+        }
+        // the entries written before are visible to the kernel once it sees the tail
+        unsafe.putOrderedInt(null, sqTail, tail);
+        int flags = minComplete > 0 ? IORING_ENTER_GETEVENTS : 0;
+        int count;
+        try {
+            count = (int) LibC.INSTANCE.syscall(SYS_io_uring_enter, (long) ringFd, (long) queued,
+                    (long) Math.max(minComplete, 0), (long) flags, null, 0L);
+        } catch (LastErrorException e) {
+            if (e.getErrorCode() == EINTR) {
+                return 0;
+            }
+            throw new IOException("io_uring_enter failed, errno " + e.getErrorCode(), e);
+        }
+        queued -= count;
+        submitted += count;
+        return count;
+    }
+
+    private int reap() {
+        int completed = 0;
+        int head = unsafe.getInt(cqHead);
+        // acquire: the entries up to the tail are read only after the tail
+        while (head != unsafe.getIntVolatile(null, cqTail)) {
+            long cqe = (long) (head & cqMask) * CqeSize;
+            int slot = (int) cqes.getLong(cqe);
+            int res = cqes.getInt(cqe + 8);
+            // free the slot before the handler, it may queue the next operation
+            // release: the kernel may reuse the entry only after it has been read
+            unsafe.putOrderedInt(null, cqHead, ++head);
+            freeSlots[freeCount++] = slot;
+            submitted--;
+            completed++;
+            operations[slot].complete(res);
+        }
+        return completed;
+    }
+
+    @Override
+    public int outstanding() {
+        return queued + submitted;
+    }
+
+    @Override
+    public int queueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            await(outstanding());
+        } finally {
+            LibC.INSTANCE.munmap(sqes, sqesSize);
+            if (cqRing != sqRing) {
+                LibC.INSTANCE.munmap(cqRing, cqRingSize);
+            }
+            LibC.INSTANCE.munmap(sqRing, sqRingSize);
+            LibC.INSTANCE.close(ringFd);
+        }
+    }
+
+    private static final class Operation {
+        byte opcode;
+        ByteBuffer buf;
+        Object attachment;
+        CompletionHandler<Integer, Object> handler;
+
+        void complete(int res) {
+            byte opcode = this.opcode;
+            ByteBuffer buf = this.buf;
+            Object attachment = this.attachment;
+            CompletionHandler<Integer, Object> handler = this.handler;
+            this.buf = null;
+            this.attachment = null;
+            this.handler = null;
+            if (res < 0) {
+                handler.failed(new IOException((opcode == IORING_OP_READ ? "read" : "write") + " failed, errno " + -res),
+                        attachment);
+            } else if (res == 0 && opcode == IORING_OP_READ && buf.hasRemaining()) {
+                handler.completed(-1, attachment);
+            } else {
+                buf.position(buf.position() + res);
+                handler.completed(res, attachment);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.asyncio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Fallback engine, the same model as {@code AsynchronousFileChannel} on JDK 8: one pool thread per
+ * outstanding operation runs a blocking positional {@link FileChannel} call. Completions are handed back
+ * to the thread calling {@link #await(int)}, so handlers run the same way as with {@link IoUringEngine}.
+ */
+public class ThreadPoolEngine implements AsyncFileEngine {
+    private final int queueDepth;
+    private final ExecutorService executor;
+    private final List<Runnable> queued = new ArrayList<>();
+    private final BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+    private int submitted;
+
+    public ThreadPoolEngine(int queueDepth) {
+        if (queueDepth <= 0) {
+            throw new IllegalArgumentException("Queue depth must be positive: " + queueDepth);
+        }
+        this.queueDepth = queueDepth;
+        this.executor = Executors.newFixedThreadPool(queueDepth, r -> {
+            Thread thread = new Thread(r, "async-file-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public <A> void read(FileChannel ch, ByteBuffer dst, long position, A attachment,
+                         CompletionHandler<Integer, ? super A> handler) throws IOException {
+        enqueue(new Completion(handler, attachment), () -> ch.read(dst, position));
+    }
+
+    @Override
+    public <A> void write(FileChannel ch, ByteBuffer src, long position, A attachment,
+                          CompletionHandler<Integer, ? super A> handler) throws IOException {
+        enqueue(new Completion(handler, attachment), () -> ch.write(src, position));
+    }
+
+    private void enqueue(Completion completion, IOCall call) throws IOException {
+        if (outstanding() == queueDepth) {
+            await(1);
+        }
+        queued.add(() -> {
+            try {
+                completion.result = call.run();
+            } catch (Throwable e) {
+                completion.error = e;
+            }
+            completions.add(completion);
+        });
+    }
+
+    @Override
+    public int submit() {
+        int count = queued.size();
+        for (Runnable task : queued) {
+            executor.execute(task);
+        }
+        queued.clear();
+        submitted += count;
+        return count;
+    }
+
+    @Override
+    public int await(int min) throws IOException {
+        submit();
+        int completed = 0;
+        while (submitted > 0) {
+            Completion completion;
+            if (completed < min) {
+                try {
+                    completion = completions.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            } else {
+                completion = completions.poll();
+                if (completion == null) {
+                    break;
+                }
+            }
+            submitted--;
+            completed++;
+            completion.deliver();
+        }
+        return completed;
+    }
+
+    @Override
+    public int outstanding() {
+        return queued.size() + submitted;
+    }
+
+    @Override
+    public int queueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            await(outstanding());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface IOCall {
+        int run() throws IOException;
+    }
+
+    private static final class Completion {
+        final CompletionHandler<Integer, Object> handler;
+        final Object attachment;
+        volatile int result;
+        volatile Throwable error;
+
+        @SuppressWarnings("unchecked")
+        <A> Completion(CompletionHandler<Integer, ? super A> handler, A attachment) {
+            this.handler = (CompletionHandler<Integer, Object>) handler;
+            this.attachment = attachment;
+        }
+
+        void deliver() {
+            if (error != null) {
+                handler.failed(error, attachment);
+            } else {
+                handler.completed(result, attachment);
+            }
+        }
+    }
+}
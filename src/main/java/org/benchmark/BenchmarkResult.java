@@ -0,0 +1,195 @@
+package org.benchmark;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Self-describing benchmark output: one or more series of points plus the environment they were measured on.
+ * Written by {@link ResultWriter}, loaded by {@link ResultReader}.
+ */
+public class BenchmarkResult {
+    public static final int SchemaVersion = 1;
+
+    private int schemaVersion = SchemaVersion;
+    private String benchmark;
+    private Environment environment;
+    private List<Series> series = new ArrayList<>();
+
+    private BenchmarkResult() {
+    }
+
+    /**
+     * @param benchmark name of the benchmark, usually the test or benchmark class name
+     * @param dataPath  file or directory the benchmark works with, used to detect file system and device
+     */
+    public BenchmarkResult(String benchmark, Path dataPath) {
+        this.benchmark = benchmark;
+        this.environment = Environment.capture(dataPath);
+    }
+
+    public BenchmarkResult addSeries(Series series) {
+        this.series.add(series);
+        return this;
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    public List<Series> getSeries() {
+        return series;
+    }
+
+    public Series getSeries(String name) {
+        for (Series s : series) {
+            if (s.getName().equals(name)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("No series '" + name + "' in " + benchmark);
+    }
+
+    public static class Series {
+        private String name;
+        private String xName;
+        private String xUnit;
+        private String unit;
+        private Map<String, String> params = new LinkedHashMap<>();
+        private List<Point> points = new ArrayList<>();
+
+        private Series() {
+        }
+
+        /**
+         * @param name  series title as shown on the chart
+         * @param xName name of the parameter swept on the x axis, e.g. "file size"
+         * @param xUnit unit of the x values, e.g. "GB"
+         * @param unit  unit of the measured values, e.g. "ms"
+         */
+        public Series(String name, String xName, String xUnit, String unit) {
+            this.name = name;
+            this.xName = xName;
+            this.xUnit = xUnit;
+            this.unit = unit;
+        }
+
+        public Series param(String key, Object value) {
+            params.put(key, String.valueOf(value));
+            return this;
+        }
+
+        public Series addPoint(double x, double value) {
+            return addPoint(new Point(x, null, value, 0, 1));
+        }
+
+        public Series addPoint(Point point) {
+            points.add(point);
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getXName() {
+            return xName;
+        }
+
+        public String getXUnit() {
+            return xUnit;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public Map<String, String> getParams() {
+            return params;
+        }
+
+        public String getParam(String key) {
+            return params.get(key);
+        }
+
+        public List<Point> getPoints() {
+            return points;
+        }
+    }
+
+    public static class Point {
+        private double x;
+        private String label;
+        private double value;
+        private double error;
+        private long iterations;
+        private Map<String, Double> metrics;
+
+        private Point() {
+        }
+
+        /**
+         * @param x          value of the swept parameter
+         * @param label      optional label for the x value, e.g. "p99.9"
+         * @param value      measured value (mean or score)
+         * @param error      half-width of the confidence interval, 0 for a single run
+         * @param iterations number of measurements behind the value
+         */
+        public Point(double x, String label, double value, double error, long iterations) {
+            this.x = x;
+            this.label = label;
+            this.value = value;
+            this.error = error;
+            this.iterations = iterations;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public String getLabel() {
+            if (label != null) {
+                return label;
+            }
+            return x == Math.rint(x) ? String.valueOf((long) x) : String.valueOf(x);
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public double getError() {
+            return error;
+        }
+
+        public long getIterations() {
+            return iterations;
+        }
+
+        /**
+         * Adds a side measurement taken with the point, e.g. page cache hit ratio before the run.
+         */
+        public Point metric(String name, double value) {
+            if (metrics == null) {
+                metrics = new LinkedHashMap<>();
+            }
+            metrics.put(name, value);
+            return this;
+        }
+
+        public Map<String, Double> getMetrics() {
+            return metrics != null ? metrics : Collections.<String, Double>emptyMap();
+        }
+    }
+}
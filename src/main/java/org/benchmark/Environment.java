@@ -0,0 +1,101 @@
+package org.benchmark;
+
+import org.nativeio.BlockDevice;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Machine, file system and JVM a benchmark ran on. Fields which can't be detected are left {@code null}.
+ */
+public class Environment {
+    private String os;
+    private String kernel;
+    private String arch;
+    private int cpus;
+    private String fileSystem;
+    private String device;
+    private String deviceModel;
+    private String jvm;
+    private List<String> jvmFlags = new ArrayList<>();
+    private String timestamp;
+
+    private Environment() {
+    }
+
+    public static Environment capture(Path dataPath) {
+        Environment env = new Environment();
+        env.os = System.getProperty("os.name");
+        env.kernel = System.getProperty("os.version");
+        env.arch = System.getProperty("os.arch");
+        env.cpus = Runtime.getRuntime().availableProcessors();
+        env.jvm = System.getProperty("java.vm.name") + " " + System.getProperty("java.version");
+        env.jvmFlags = new ArrayList<>(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        env.timestamp = Instant.now().toString();
+        try {
+            FileStore store = Files.getFileStore(existingParent(dataPath));
+            env.fileSystem = store.type();
+            env.device = store.name();
+            BlockDevice device = BlockDevice.ofDevice(store.name());
+            env.deviceModel = device != null ? device.model() : null;
+        } catch (IOException e) {
+            // unknown file system, leave the fields empty
+        }
+        return env;
+    }
+
+    private static Path existingParent(Path path) {
+        Path current = path.toAbsolutePath();
+        while (current != null && !Files.exists(current)) {
+            current = current.getParent();
+        }
+        return current != null ? current : Paths.get(".").toAbsolutePath();
+    }
+
+    public String getOs() {
+        return os;
+    }
+
+    public String getKernel() {
+        return kernel;
+    }
+
+    public String getArch() {
+        return arch;
+    }
+
+    public int getCpus() {
+        return cpus;
+    }
+
+    public String getFileSystem() {
+        return fileSystem;
+    }
+
+    public String getDevice() {
+        return device;
+    }
+
+    public String getDeviceModel() {
+        return deviceModel;
+    }
+
+    public String getJvm() {
+        return jvm;
+    }
+
+    public List<String> getJvmFlags() {
+        return jvmFlags;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+}
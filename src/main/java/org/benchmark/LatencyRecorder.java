@@ -0,0 +1,159 @@
+package org.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Log-linear latency histogram in the spirit of HdrHistogram.
+ * <p>
+ * Values below 128 are counted exactly, every following power of two is split into 128 linear sub-buckets,
+ * so any recorded value is reported with a relative error below 1%. The bucket array is allocated once,
+ * {@link #record(long)} does not allocate and does not sort.
+ * <p>
+ * The recorder is not thread-safe: use one instance per thread and {@link #merge(LatencyRecorder)} them
+ * once the run is finished.
+ */
+public class LatencyRecorder {
+    private static final int subBucketBits = 7;
+    private static final int subBucketCount = 1 << subBucketBits;
+    private static final int bucketCount = subBucketCount + (Long.SIZE - 1 - subBucketBits) * subBucketCount;
+
+    private final long[] counts = new long[bucketCount];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < bucketCount; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public long min() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Returns the value at the given quantile, {@code 0.5} is the median and {@code 0.999} is p99.9.
+     * The answer is the highest value equivalent to the bucket holding the requested rank, capped by the
+     * recorded maximum.
+     */
+    public long quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be within [0, 1]: " + quantile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        if (quantile == 0) {
+            return min;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, highestEquivalentValue(i)));
+            }
+        }
+        return max;
+    }
+
+    public long[] quantiles(double... quantiles) {
+        long[] output = new long[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            output[i] = quantile(quantiles[i]);
+        }
+        return output;
+    }
+
+    /**
+     * Exports the whole distribution as {@code {quantile, value}} pairs, one per non-empty bucket,
+     * ordered by value. The last pair is always {@code {1.0, max}}.
+     */
+    public List<double[]> distribution() {
+        List<double[]> output = new ArrayList<>();
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            seen += counts[i];
+            long value = Math.max(min, Math.min(max, highestEquivalentValue(i)));
+            output.add(new double[]{(double) seen / totalCount, value});
+        }
+        return output;
+    }
+
+    static int indexOf(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - subBucketBits;
+        int subBucket = (int) (value >>> shift) & (subBucketCount - 1);
+        return subBucketCount + shift * subBucketCount + subBucket;
+    }
+
+    static long lowestEquivalentValue(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = (index - subBucketCount) / subBucketCount;
+        long subBucket = (index - subBucketCount) % subBucketCount;
+        return (1L << (shift + subBucketBits)) | (subBucket << shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = (index - subBucketCount) / subBucketCount;
+        return lowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,41 @@
+package org.benchmark;
+
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ResultReader {
+    private static final String baseMainPath = "./src/main/resources/";
+
+    private ResultReader() {
+    }
+
+    /**
+     * Reads {@code ./src/main/resources/<fileName>} written by {@link ResultWriter}.
+     */
+    public static BenchmarkResult read(String fileName) throws IOException {
+        return read(Paths.get(baseMainPath + fileName));
+    }
+
+    public static BenchmarkResult read(Path path) throws IOException {
+        BenchmarkResult result;
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            result = ResultWriter.gson.fromJson(reader, BenchmarkResult.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Malformed result file " + path, e);
+        }
+        if (result == null) {
+            throw new IOException("Empty result file " + path);
+        }
+        if (result.getSchemaVersion() > BenchmarkResult.SchemaVersion) {
+            throw new IOException("Unsupported schema version " + result.getSchemaVersion() + " in " + path
+                    + ", expected at most " + BenchmarkResult.SchemaVersion);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,37 @@
+package org.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ResultWriter {
+    private static final String baseMainPath = "./src/main/resources/";
+
+    static final Gson gson = new GsonBuilder()
+            .setPrettyPrinting()
+            .serializeSpecialFloatingPointValues()
+            .create();
+
+    private ResultWriter() {
+    }
+
+    /**
+     * Writes the result to {@code ./src/main/resources/<fileName>}, replacing the previous run.
+     */
+    public static void write(String fileName, BenchmarkResult result) throws IOException {
+        write(Paths.get(baseMainPath + fileName), result);
+    }
+
+    public static void write(Path path, BenchmarkResult result) throws IOException {
+        Files.deleteIfExists(path);
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            gson.toJson(result, writer);
+        }
+    }
+}
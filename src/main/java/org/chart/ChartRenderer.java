@@ -0,0 +1,122 @@
+package org.chart;
+
+import org.benchmark.ResultReader;
+import org.directbuffer.DirectBuffer;
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+import org.jfree.svg.SVGGraphics2D;
+import org.jfree.svg.SVGUtils;
+import org.loadtype.LoadType;
+import org.pagecache.PageCache;
+import org.pagecache.ReadAheadHeatmap;
+import org.transferTo.TransferTo;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch rendering of every chart to SVG and PNG, for hosts without a display.
+ * <p>
+ * Usage: {@code ChartRenderer [outputDir] [width] [height]}, defaults are {@code ./plots/generated}, 1600 and 900.
+ * Renders the {@link LoadType}, {@link PageCache}, {@link ReadAheadHeatmap}, {@link DirectBuffer} and
+ * {@link TransferTo} charts plus a generic {@link ResultChart} for every other result file in
+ * {@code ./src/main/resources}.
+ */
+public class ChartRenderer {
+    private static final String baseMainPath = "./src/main/resources/";
+
+    // result files already covered by the dedicated chart classes
+    private static final Set<String> chartedFiles = new HashSet<>(Arrays.asList(
+            "seqReading.json", "appendOnlyWrite.json", "randomRead.json", "randomWrite.json", "mixedReadWrite.json",
+            "loadType.json",
+            "alignedLatency.json", "notAlignedLatency.json", ReadAheadHeatmap.OutputFile,
+            "directBufferReading.json", "heapBufferReading.json",
+            "naiveCopy.json", "transferToCopy.json", "streamingCopy.json"));
+
+    private final Path outputDir;
+    private final int width;
+    private final int height;
+
+    public ChartRenderer(Path outputDir, int width, int height) {
+        this.outputDir = outputDir;
+        this.width = width;
+        this.height = height;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Path outputDir = Paths.get(args.length > 0 ? args[0] : "./plots/generated");
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 1600;
+        int height = args.length > 2 ? Integer.parseInt(args[2]) : 900;
+
+        ChartRenderer renderer = new ChartRenderer(outputDir, width, height);
+        int failures = renderer.renderAll();
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Renders all charts, a chart which can't be built is reported and skipped.
+     * Returns the number of charts that failed.
+     */
+    public int renderAll() throws IOException {
+        Files.createDirectories(outputDir);
+        int failures = 0;
+        failures += render("loadType", LoadType.Title, LoadType::getjFreeChart);
+        failures += render("pageCache", PageCache.Title, PageCache::getjFreeChart);
+        failures += render("readAheadMatrix", ReadAheadHeatmap.Title, ReadAheadHeatmap::getjFreeChart);
+        failures += render("directBuffer", DirectBuffer.Title, DirectBuffer::getjFreeChart);
+        failures += render("transferTo", TransferTo.Title, TransferTo::getjFreeChart);
+
+        for (Path file : resultFiles()) {
+            String fileName = file.getFileName().toString();
+            String name = fileName.substring(0, fileName.length() - ".json".length());
+            failures += render(name, null, () -> ResultChart.create(ResultReader.read(file)));
+        }
+        return failures;
+    }
+
+    private List<Path> resultFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(baseMainPath))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json"))
+                    .filter(file -> !chartedFiles.contains(file.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private int render(String name, String title, ChartSource source) {
+        try {
+            JFreeChart chart = source.create();
+            if (title != null) {
+                chart.setTitle(title);
+            }
+            writeSvg(chart, outputDir.resolve(name + ".svg").toFile());
+            ChartUtils.saveChartAsPNG(outputDir.resolve(name + ".png").toFile(), chart, width, height);
+            System.out.println("Rendered " + name);
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to render " + name + ": " + e);
+            return 1;
+        }
+    }
+
+    private void writeSvg(JFreeChart chart, File file) throws IOException {
+        SVGGraphics2D g2 = new SVGGraphics2D(width, height);
+        chart.draw(g2, new Rectangle(0, 0, width, height));
+        SVGUtils.writeToSVG(file, g2.getSVGElement());
+    }
+
+    interface ChartSource {
+        JFreeChart create() throws IOException;
+    }
+}
@@ -0,0 +1,83 @@
+package org.chart;
+
+import org.benchmark.BenchmarkResult;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.LogarithmicAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYErrorRenderer;
+import org.jfree.data.xy.YIntervalSeries;
+import org.jfree.data.xy.YIntervalSeriesCollection;
+
+import java.util.Map;
+
+/**
+ * Generic chart for any {@link BenchmarkResult}: one line per series with error bars,
+ * log scale on an axis when its values span more than two orders of magnitude.
+ */
+public class ResultChart {
+    private static final double logScaleRatio = 100;
+
+    private ResultChart() {
+    }
+
+    public static JFreeChart create(BenchmarkResult result) {
+        YIntervalSeriesCollection dataset = new YIntervalSeriesCollection();
+        for (BenchmarkResult.Series resultSeries : result.getSeries()) {
+            YIntervalSeries series = new YIntervalSeries(seriesKey(resultSeries));
+            for (BenchmarkResult.Point point : resultSeries.getPoints()) {
+                series.add(point.getX(), point.getValue(),
+                        point.getValue() - point.getError(), point.getValue() + point.getError());
+            }
+            dataset.addSeries(series);
+        }
+
+        BenchmarkResult.Series first = result.getSeries().get(0);
+        ValueAxis domain = axis(first.getXName() + " in " + first.getXUnit(), dataset, true);
+        ValueAxis range = axis("value in " + first.getUnit(), dataset, false);
+
+        XYErrorRenderer renderer = new XYErrorRenderer();
+        renderer.setDefaultLinesVisible(true);
+        XYPlot xyplot = new XYPlot(dataset, domain, range, renderer);
+
+        JFreeChart chart = new JFreeChart(result.getBenchmark(), xyplot);
+        return chart;
+    }
+
+    private static String seriesKey(BenchmarkResult.Series series) {
+        if (series.getParams().isEmpty()) {
+            return series.getName();
+        }
+        StringBuilder key = new StringBuilder(series.getName()).append(" (");
+        boolean first = true;
+        for (Map.Entry<String, String> param : series.getParams().entrySet()) {
+            if (!first) {
+                key.append(", ");
+            }
+            key.append(param.getKey()).append('=').append(param.getValue());
+            first = false;
+        }
+        return key.append(')').toString();
+    }
+
+    private static ValueAxis axis(String label, YIntervalSeriesCollection dataset, boolean domain) {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (int s = 0; s < dataset.getSeriesCount(); s++) {
+            for (int i = 0; i < dataset.getItemCount(s); i++) {
+                double value = domain ? dataset.getXValue(s, i) : dataset.getYValue(s, i);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        if (min > 0 && max / min > logScaleRatio) {
+            LogarithmicAxis axis = new LogarithmicAxis(label);
+            axis.setAllowNegativesFlag(false);
+            return axis;
+        }
+        NumberAxis axis = new NumberAxis(label);
+        axis.setAutoRangeIncludesZero(!domain);
+        return axis;
+    }
+}
@@ -0,0 +1,275 @@
+package org.directbuffer;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import org.directio.AlignedBufferPool;
+import org.nativeio.LibC;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Off-heap buffer pool with power of two size classes from one page up to {@link #MaxPooledSize}.
+ * <p>
+ * Buffers are sliced out of page aligned slabs and recycled, so steady state acquire/release cycles don't touch
+ * {@code allocateDirect} and don't grow the JDK temporary buffer cache.
+ * Every thread keeps a magazine (a small stack of buffers) per size class, acquire and release only touch
+ * it. Full and empty magazines are exchanged through a lock-free depot shared by all threads, so buffers
+ * released on another thread go back into circulation.
+ * <p>
+ * Buffers must be returned with {@link #release(ByteBuffer)}. With leak detection on (constructor flag or
+ * {@code -Dbuffer.pool.leakDetection=true} for {@link #shared()}) every acquire records its call site, a buffer
+ * which became unreachable without release is reported to {@code System.err} and its memory goes back to the pool.
+ * Double release and release of foreign buffers are detected only in this mode. Tracking costs a stack trace per
+ * acquire, it is meant for tests and debugging.
+ */
+public class DirectBufferPool {
+    public static final String LeakDetectionProperty = "buffer.pool.leakDetection";
+    public static final int PageSize = LibC.INSTANCE.getpagesize();
+    public static final int MaxPooledSize = 4 * 1024 * 1024;
+
+    private static final int SlabSize = 2 * 1024 * 1024;
+    // bytes cached per thread and size class, bounded to 2..64 buffers
+    private static final int MagazineBytes = 256 * 1024;
+
+    private final SizeClass[] classes;
+    private final ThreadLocal<Magazine[]> magazines;
+    private final boolean leakDetection;
+
+    // slab address -> slab, to find the memory of a leaked buffer. Only kept with leak detection: otherwise the
+    // buffers cached by a thread that died are collected with its magazines and free their slab through GC
+    private final ConcurrentSkipListMap<Long, ByteBuffer> slabs = new ConcurrentSkipListMap<>();
+    private final Map<Long, LeakTracker> trackers = new ConcurrentHashMap<>();
+    private final ReferenceQueue<ByteBuffer> collected = new ReferenceQueue<>();
+
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final LongAdder inUse = new LongAdder();
+    private final AtomicLong leaks = new AtomicLong();
+
+    public DirectBufferPool(boolean leakDetection) {
+        this.leakDetection = leakDetection;
+        int count = Integer.numberOfTrailingZeros(MaxPooledSize / PageSize) + 1;
+        this.classes = new SizeClass[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = new SizeClass(PageSize << i);
+        }
+        this.magazines = ThreadLocal.withInitial(() -> new Magazine[count]);
+    }
+
+    public static DirectBufferPool shared() {
+        return Shared.Instance;
+    }
+
+    private static class Shared {
+        static final DirectBufferPool Instance = new DirectBufferPool(Boolean.getBoolean(LeakDetectionProperty));
+    }
+
+    /**
+     * Returns a cleared direct buffer with the limit set to {@code size}. The capacity is the size class,
+     * the next power of two of at least one page. Sizes above {@link #MaxPooledSize} get a page aligned
+     * buffer which isn't pooled and is freed by GC.
+     */
+    public ByteBuffer acquire(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + size);
+        }
+        if (size > MaxPooledSize) {
+            return AlignedBufferPool.allocateAligned(size, PageSize);
+        }
+        if (leakDetection) {
+            reclaimLeaks();
+        }
+        int index = classIndex(size);
+        Magazine[] local = magazines.get();
+        Magazine magazine = local[index];
+        if (magazine == null || magazine.count == 0) {
+            magazine = classes[index].exchangeEmpty(magazine);
+            local[index] = magazine;
+        }
+        ByteBuffer buf = magazine.pop();
+        buf.clear().limit(size);
+        if (leakDetection) {
+            LeakTracker tracker = new LeakTracker(buf, collected, address(buf), classes[index]);
+            trackers.put(tracker.address, tracker);
+        }
+        inUse.increment();
+        return buf;
+    }
+
+    public void release(ByteBuffer buf) {
+        if (!buf.isDirect()) {
+            throw new IllegalArgumentException("Not a direct buffer");
+        }
+        int capacity = buf.capacity();
+        if (capacity > MaxPooledSize) {
+            return;
+        }
+        int index = classIndex(capacity);
+        if (classes[index].size != capacity) {
+            throw new IllegalArgumentException("Buffer of " + capacity + " bytes doesn't belong to the pool");
+        }
+        if (leakDetection) {
+            LeakTracker tracker = trackers.remove(address(buf));
+            if (tracker == null) {
+                throw new IllegalStateException("Buffer is released twice or doesn't belong to the pool");
+            }
+            tracker.clear();
+        }
+        inUse.decrement();
+        push(index, buf);
+    }
+
+    private void push(int index, ByteBuffer buf) {
+        Magazine[] local = magazines.get();
+        Magazine magazine = local[index];
+        if (magazine == null || magazine.count == magazine.rounds.length) {
+            magazine = classes[index].exchangeFull(magazine);
+            local[index] = magazine;
+        }
+        magazine.push(buf);
+    }
+
+    private void reclaimLeaks() {
+        Reference<? extends ByteBuffer> ref;
+        while ((ref = collected.poll()) != null) {
+            LeakTracker tracker = (LeakTracker) ref;
+            if (!trackers.remove(tracker.address, tracker)) {
+                continue;
+            }
+            leaks.incrementAndGet();
+            inUse.decrement();
+            System.err.println("Direct buffer of " + tracker.sizeClass.size + " bytes was not released, reclaiming it");
+            tracker.allocation.printStackTrace();
+            // nobody can reach the old buffer object anymore, so its memory can be handed out again
+            Map.Entry<Long, ByteBuffer> slab = slabs.floorEntry(tracker.address);
+            int offset = (int) (tracker.address - slab.getKey());
+            ByteBuffer memory = slab.getValue().duplicate();
+            memory.limit(offset + tracker.sizeClass.size).position(offset);
+            push(classIndex(tracker.sizeClass.size), memory.slice());
+        }
+    }
+
+    private static int classIndex(int size) {
+        if (size <= PageSize) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - Integer.numberOfTrailingZeros(PageSize);
+    }
+
+    private static long address(ByteBuffer buf) {
+        return Pointer.nativeValue(Native.getDirectBufferPointer(buf));
+    }
+
+    /**
+     * Bytes taken from the OS for slabs so far.
+     */
+    public long reservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * Pooled buffers acquired and not released yet.
+     */
+    public long inUse() {
+        return inUse.sum();
+    }
+
+    public long leaks() {
+        return leaks.get();
+    }
+
+    private final class SizeClass {
+        final int size;
+        final int rounds;
+        // lock-free depot
+        final ConcurrentLinkedQueue<Magazine> full = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<Magazine> empty = new ConcurrentLinkedQueue<>();
+
+        SizeClass(int size) {
+            this.size = size;
+            this.rounds = Math.max(2, Math.min(64, MagazineBytes / size));
+        }
+
+        Magazine exchangeEmpty(Magazine drained) {
+            if (drained != null) {
+                empty.offer(drained);
+            }
+            Magazine magazine = full.poll();
+            return magazine != null ? magazine : carveSlab();
+        }
+
+        Magazine exchangeFull(Magazine filled) {
+            if (filled != null) {
+                full.offer(filled);
+            }
+            Magazine magazine = empty.poll();
+            return magazine != null ? magazine : new Magazine(rounds);
+        }
+
+        // slices a new slab into magazines, the first one goes to the caller and the rest to the depot
+        private Magazine carveSlab() {
+            int slabSize = Math.max(SlabSize, size);
+            ByteBuffer slab = AlignedBufferPool.allocateAligned(slabSize, PageSize);
+            if (leakDetection) {
+                slabs.put(address(slab), slab);
+            }
+            reservedBytes.addAndGet(slabSize);
+            Magazine first = new Magazine(rounds);
+            Magazine current = first;
+            for (int offset = 0; offset + size <= slabSize; offset += size) {
+                if (current.count == rounds) {
+                    // published only once filled
+                    if (current != first) {
+                        full.offer(current);
+                    }
+                    current = new Magazine(rounds);
+                }
+                slab.limit(offset + size).position(offset);
+                current.push(slab.slice());
+            }
+            if (current != first) {
+                full.offer(current);
+            }
+            return first;
+        }
+    }
+
+    private static final class Magazine {
+        final ByteBuffer[] rounds;
+        int count;
+
+        Magazine(int rounds) {
+            this.rounds = new ByteBuffer[rounds];
+        }
+
+        void push(ByteBuffer buf) {
+            rounds[count++] = buf;
+        }
+
+        ByteBuffer pop() {
+            ByteBuffer buf = rounds[--count];
+            rounds[count] = null;
+            return buf;
+        }
+    }
+
+    private static final class LeakTracker extends PhantomReference<ByteBuffer> {
+        final long address;
+        final SizeClass sizeClass;
+        final Throwable allocation = new Throwable("Acquired here");
+
+        LeakTracker(ByteBuffer buf, ReferenceQueue<ByteBuffer> queue, long address, SizeClass sizeClass) {
+            super(buf, queue);
+            this.address = address;
+            this.sizeClass = sizeClass;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.directio;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed set of direct buffers carved out of one slab, each aligned in memory to the given alignment and sized
+ * as a multiple of it, so they can be used with {@link DirectIOFileChannel} at any block aligned file position.
+ * <p>
+ * The slab is a regular {@link ByteBuffer#allocateDirect(int)} buffer, over-allocated by one alignment unit and
+ * sliced from the first aligned address, so the memory is released with the pool by GC.
+ */
+public class AlignedBufferPool {
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> free;
+    // [start, end) of the slab, to tell the pool's buffers from foreign ones
+    private final long start;
+    private final long end;
+    // buffers handed out and not released yet, by slab index, guarded by itself
+    private final BitSet checkedOut;
+
+    public AlignedBufferPool(int bufferSize, int count, int alignment) {
+        if (Integer.bitCount(alignment) != 1) {
+            throw new IllegalArgumentException("Alignment must be a power of two: " + alignment);
+        }
+        if (bufferSize % alignment != 0) {
+            throw new IllegalArgumentException("Buffer size " + bufferSize + " is not a multiple of " + alignment);
+        }
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(count);
+        ByteBuffer slab = allocateAligned(Math.multiplyExact(bufferSize, count), alignment);
+        this.start = address(slab);
+        this.end = start + slab.capacity();
+        this.checkedOut = new BitSet(count);
+        for (int i = 0; i < count; i++) {
+            slab.limit((i + 1) * bufferSize).position(i * bufferSize);
+            free.add(slab.slice());
+        }
+    }
+
+    /**
+     * Allocates a direct buffer of {@code size} bytes starting at an address aligned to {@code alignment}.
+     */
+    public static ByteBuffer allocateAligned(int size, int alignment) {
+        ByteBuffer raw = ByteBuffer.allocateDirect(Math.addExact(size, alignment));
+        long address = address(raw);
+        int offset = (int) ((alignment - address % alignment) % alignment);
+        raw.position(offset).limit(offset + size);
+        return raw.slice();
+    }
+
+    private static long address(ByteBuffer buf) {
+        return Pointer.nativeValue(Native.getDirectBufferPointer(buf));
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Takes a cleared buffer, waits while all of them are in use.
+     */
+    public ByteBuffer acquire() throws InterruptedException {
+        ByteBuffer buf = free.take();
+        synchronized (checkedOut) {
+            checkedOut.set(index(buf));
+        }
+        buf.clear();
+        return buf;
+    }
+
+    /**
+     * Returns a buffer taken by {@link #acquire()}.
+     *
+     * @throws IllegalArgumentException when the buffer isn't one of the pool's or was released already, a second
+     *                                  release would hand the same buffer out twice
+     */
+    public void release(ByteBuffer buf) {
+        if (!owns(buf)) {
+            throw new IllegalArgumentException("Buffer doesn't belong to the pool");
+        }
+        int index = index(buf);
+        synchronized (checkedOut) {
+            if (!checkedOut.get(index)) {
+                throw new IllegalArgumentException("Buffer " + index + " is already released");
+            }
+            checkedOut.clear(index);
+        }
+        free.add(buf);
+    }
+
+    private int index(ByteBuffer buf) {
+        return (int) ((address(buf) - start) / bufferSize);
+    }
+
+    // one of the slices handed out: a direct buffer of the right size starting at a buffer boundary of the slab
+    private boolean owns(ByteBuffer buf) {
+        if (!buf.isDirect() || buf.capacity() != bufferSize) {
+            return false;
+        }
+        long address = address(buf);
+        return address >= start && address < end && (address - start) % bufferSize == 0;
+    }
+}
@@ -0,0 +1,205 @@
+package org.directio;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import org.nativeio.BlockDevice;
+import org.nativeio.LibC;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * File channel opened with {@code O_DIRECT}: reads and writes go straight between the buffer and the device,
+ * bypassing the page cache. Java 8 has no {@code ExtendedOpenOption.DIRECT}, so the file is opened and accessed
+ * through libc.
+ * <p>
+ * The kernel rejects with {@code EINVAL} any transfer whose buffer address, length or file position isn't a
+ * multiple of the logical block size, so the channel checks this up front. Buffers from
+ * {@link AlignedBufferPool} or {@link #allocate(int)} satisfy the memory side.
+ */
+public class DirectIOFileChannel implements Closeable {
+    public static final int DefaultBlockSize = 4096;
+
+    private static final Set<OpenOption> Supported = new HashSet<>(Arrays.asList(
+            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DSYNC,
+            StandardOpenOption.SYNC, StandardOpenOption.SPARSE));
+
+    private final Path path;
+    private final int fd;
+    private final int blockSize;
+    private volatile boolean open = true;
+
+    private DirectIOFileChannel(Path path, int fd, int blockSize) {
+        this.path = path;
+        this.fd = fd;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Opens the file with {@code O_DIRECT}. Supported options are {@code READ}, {@code WRITE}, {@code CREATE},
+     * {@code CREATE_NEW}, {@code TRUNCATE_EXISTING}, {@code DSYNC}, {@code SYNC} and the {@code SPARSE} hint.
+     *
+     * @throws UnsupportedOperationException for any other option, e.g. {@code APPEND}: writes are positional and
+     *                                       {@code O_APPEND} would silently ignore their position
+     */
+    public static DirectIOFileChannel open(Path path, OpenOption... options) throws IOException {
+        List<OpenOption> opts = Arrays.asList(options);
+        for (OpenOption option : opts) {
+            if (!Supported.contains(option)) {
+                throw new UnsupportedOperationException(option + " not supported with O_DIRECT");
+            }
+        }
+        boolean write = opts.contains(StandardOpenOption.WRITE);
+        int flags = LibC.O_DIRECT;
+        if (write) {
+            flags |= opts.contains(StandardOpenOption.READ) ? LibC.O_RDWR : LibC.O_WRONLY;
+        } else {
+            flags |= LibC.O_RDONLY;
+        }
+        if (opts.contains(StandardOpenOption.CREATE_NEW)) {
+            flags |= LibC.O_CREAT | LibC.O_EXCL;
+        } else if (opts.contains(StandardOpenOption.CREATE)) {
+            flags |= LibC.O_CREAT;
+        }
+        if (opts.contains(StandardOpenOption.TRUNCATE_EXISTING)) {
+            flags |= LibC.O_TRUNC;
+        }
+        if (opts.contains(StandardOpenOption.SYNC)) {
+            flags |= LibC.O_SYNC;
+        } else if (opts.contains(StandardOpenOption.DSYNC)) {
+            flags |= LibC.O_DSYNC;
+        }
+        // resolved before opening, nothing can fail between open and the channel owning the descriptor
+        int blockSize = logicalBlockSize(path);
+        int fd;
+        try {
+            fd = LibC.INSTANCE.open(path.toString(), flags, 0644);
+        } catch (LastErrorException e) {
+            // EINVAL: the file system doesn't support O_DIRECT, e.g. tmpfs
+            throw new IOException("open " + path + " with O_DIRECT failed, errno " + e.getErrorCode(), e);
+        }
+        return new DirectIOFileChannel(path, fd, blockSize);
+    }
+
+    /**
+     * Logical block size of the device behind the file, {@link #DefaultBlockSize} when it can't be detected.
+     * Page size alignment is always accepted by the kernel, so the larger of the two is used.
+     */
+    public static int logicalBlockSize(Path path) throws IOException {
+        BlockDevice device = BlockDevice.of(path);
+        int size = device != null ? device.logicalBlockSize() : -1;
+        return size > 0 ? Math.max(size, DefaultBlockSize) : DefaultBlockSize;
+    }
+
+    /**
+     * Allocates a direct buffer whose address is aligned to {@link #DefaultBlockSize}.
+     */
+    public static ByteBuffer allocate(int size) {
+        return AlignedBufferPool.allocateAligned(size, DefaultBlockSize);
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long size() throws IOException {
+        return Files.size(path);
+    }
+
+    /**
+     * Reads {@code dst.remaining()} bytes from the given position, returns the number of bytes read or -1 at the
+     * end of file. The last read of a file whose size isn't block aligned returns less than requested.
+     */
+    public int read(ByteBuffer dst, long position) throws IOException {
+        ensureOpen();
+        Pointer address = checkAligned(dst, position);
+        long bytes;
+        try {
+            bytes = LibC.INSTANCE.pread(fd, address, dst.remaining(), position);
+        } catch (LastErrorException e) {
+            throw new IOException("pread " + path + " failed, errno " + e.getErrorCode(), e);
+        }
+        if (bytes == 0) {
+            return -1;
+        }
+        dst.position(dst.position() + (int) bytes);
+        return (int) bytes;
+    }
+
+    public int write(ByteBuffer src, long position) throws IOException {
+        ensureOpen();
+        Pointer address = checkAligned(src, position);
+        long bytes;
+        try {
+            bytes = LibC.INSTANCE.pwrite(fd, address, src.remaining(), position);
+        } catch (LastErrorException e) {
+            throw new IOException("pwrite " + path + " failed, errno " + e.getErrorCode(), e);
+        }
+        src.position(src.position() + (int) bytes);
+        return (int) bytes;
+    }
+
+    /**
+     * O_DIRECT bypasses the page cache but not the device write cache, data still needs {@code fdatasync}.
+     */
+    public void force() throws IOException {
+        ensureOpen();
+        try {
+            LibC.INSTANCE.fdatasync(fd);
+        } catch (LastErrorException e) {
+            throw new IOException("fdatasync " + path + " failed, errno " + e.getErrorCode(), e);
+        }
+    }
+
+    private Pointer checkAligned(ByteBuffer buf, long position) {
+        if (!buf.isDirect()) {
+            throw new IllegalArgumentException("O_DIRECT requires a direct buffer");
+        }
+        Pointer address = Native.getDirectBufferPointer(buf).share(buf.position());
+        if (Pointer.nativeValue(address) % blockSize != 0) {
+            throw new IllegalArgumentException("Buffer address is not aligned to " + blockSize);
+        }
+        if (buf.remaining() % blockSize != 0) {
+            throw new IllegalArgumentException("Transfer size " + buf.remaining() + " is not a multiple of " + blockSize);
+        }
+        if (position % blockSize != 0) {
+            throw new IllegalArgumentException("File position " + position + " is not aligned to " + blockSize);
+        }
+        return address;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            LibC.INSTANCE.close(fd);
+        } catch (LastErrorException e) {
+            throw new IOException("close " + path + " failed, errno " + e.getErrorCode(), e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.loadtype;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+
+/**
+ * How a random workload picks the next slot (block position) out of {@code slots}, drawn from the PCG generator.
+ */
+public enum AccessDistribution {
+    /**
+     * Every slot is equally likely.
+     */
+    UNIFORM {
+        @Override
+        public Sampler sampler(long slots) {
+            return () -> PcgRSUFast.nextLong(slots);
+        }
+    },
+    /**
+     * Zipfian popularity with {@link #ZipfTheta}, the hottest slots scattered over the file.
+     */
+    ZIPF {
+        @Override
+        public Sampler sampler(long slots) {
+            return new ZipfSampler(slots, ZipfTheta);
+        }
+    },
+    /**
+     * {@link #HotProbability} of the accesses go to the first {@link #HotFraction} of the file, the rest are uniform
+     * over the remaining slots.
+     */
+    HOTSPOT {
+        @Override
+        public Sampler sampler(long slots) {
+            return new HotspotSampler(slots, HotFraction, HotProbability);
+        }
+    };
+
+    public static final double ZipfTheta = 0.99;
+    public static final double HotFraction = 0.2;
+    public static final double HotProbability = 0.8;
+
+    public abstract Sampler sampler(long slots);
+
+    public interface Sampler {
+        /**
+         * Next slot in {@code [0, slots)}.
+         */
+        long next();
+    }
+
+    /**
+     * Zipfian generator from Gray et al., "Quickly generating billion-record synthetic databases" (the one YCSB uses).
+     * The setup sums {@code slots} terms once, then every sample is O(1). Ranks are spread over the file with a
+     * multiplicative permutation, otherwise the hot set would be a few contiguous blocks at the file start.
+     */
+    public static class ZipfSampler implements Sampler {
+        private final long slots;
+        private final double theta;
+        private final double zetaN;
+        private final double alpha;
+        private final double eta;
+        private final long multiplier;
+
+        public ZipfSampler(long slots, double theta) {
+            if (slots <= 0 || theta <= 0 || theta == 1) {
+                throw new IllegalArgumentException("Zipf needs slots > 0 and theta > 0, theta != 1");
+            }
+            this.slots = slots;
+            this.theta = theta;
+            this.zetaN = zeta(slots, theta);
+            this.alpha = 1 / (1 - theta);
+            this.eta = (1 - Math.pow(2.0 / slots, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+            this.multiplier = coprimeMultiplier(slots);
+        }
+
+        private static double zeta(long n, double theta) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+
+        // rank * multiplier mod slots is a bijection when both are coprime
+        private static long coprimeMultiplier(long slots) {
+            if (slots > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many slots for the rank permutation: " + slots);
+            }
+            long multiplier = (long) (slots * 0.6180339887) | 1;
+            while (gcd(multiplier, slots) != 1) {
+                multiplier += 2;
+            }
+            return multiplier % slots;
+        }
+
+        private static long gcd(long a, long b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+
+        public long rank() {
+            double u = PcgRSUFast.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, theta)) {
+                return Math.min(1, slots - 1);
+            }
+            return Math.min(slots - 1, (long) (slots * Math.pow(eta * u - eta + 1, alpha)));
+        }
+
+        @Override
+        public long next() {
+            return rank() * multiplier % slots;
+        }
+    }
+
+    public static class HotspotSampler implements Sampler {
+        private final long slots;
+        private final long hotSlots;
+        private final double hotProbability;
+
+        public HotspotSampler(long slots, double hotFraction, double hotProbability) {
+            if (slots <= 0 || hotFraction <= 0 || hotFraction > 1 || hotProbability < 0 || hotProbability > 1) {
+                throw new IllegalArgumentException("Hotspot needs slots > 0, hotFraction in (0, 1], hotProbability in [0, 1]");
+            }
+            this.slots = slots;
+            this.hotSlots = Math.max(1, (long) (slots * hotFraction));
+            this.hotProbability = hotProbability;
+        }
+
+        @Override
+        public long next() {
+            if (hotSlots == slots || PcgRSUFast.nextDouble() < hotProbability) {
+                return PcgRSUFast.nextLong(hotSlots);
+            }
+            return hotSlots + PcgRSUFast.nextLong(slots - hotSlots);
+        }
+    }
+}
@@ -2,11 +2,13 @@ package org.loadtype;
 
 import java.awt.*;
 import java.io.IOException;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import javax.swing.JFrame;
+
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultReader;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.*;
@@ -21,6 +23,12 @@ public class LoadType {
 
     public static final String Title = "Time of file processing based on access/load time";
 
+    // JMH output of loadtype.LoadTypeBenchmark, preferred over the files written by the tests
+    private static final String jmhOutputFile = "loadType.json";
+    private static final String jmhBlockSize = System.getProperty("loadtype.blockSize", "1048576");
+    private static final String jmhThreads = System.getProperty("loadtype.threads", "1");
+    private static final String jmhCachePolicy = System.getProperty("loadtype.cachePolicy", "COLD");
+
     public static void main(String[] args) {
         try {
             EventQueue.invokeLater(() -> {
@@ -52,7 +60,7 @@ public class LoadType {
         frame.setVisible(true);
     }
 
-    private static JFreeChart getjFreeChart() throws IOException {
+    public static JFreeChart getjFreeChart() throws IOException {
         XYSeriesCollection dataset = getXySeriesCollection();
 
         NumberAxis domain = new NumberAxis("file size in GB");
@@ -69,51 +77,45 @@ public class LoadType {
         return chart;
     }
 
-    private static double[] getSeriesFromFile(String fileName) throws IOException {
-        String content = Files.readAllLines(Paths.get(baseMainPath + fileName), Charset.defaultCharset()).get(0);
-        String[] values = content.split(" ");
-        double[] output = new double[4];
-        output[0] = Double.parseDouble(values[0]) / 1000;
-        output[1] = Double.parseDouble(values[1]) / 1000;
-        output[2] = Double.parseDouble(values[2]) / 1000;
-        output[3] = Double.parseDouble(values[3]) / 1000;
-        return output;
+    private static XYSeries toXySeries(BenchmarkResult.Series resultSeries) {
+        XYSeries series = new XYSeries(resultSeries.getName());
+        for (BenchmarkResult.Point point : resultSeries.getPoints()) {
+            // millis to seconds
+            series.add(point.getX(), point.getValue() / 1000);
+        }
+        return series;
+    }
+
+    private static XYSeries getSeriesFromFile(String fileName) throws IOException {
+        return toXySeries(ResultReader.read(fileName).getSeries().get(0));
+    }
+
+    private static XYSeriesCollection getXySeriesCollectionFromJmh() throws IOException {
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        for (BenchmarkResult.Series series : ResultReader.read(jmhOutputFile).getSeries()) {
+            String cachePolicy = series.getParam("cachePolicy");
+            if (jmhBlockSize.equals(series.getParam("blockSize")) && jmhThreads.equals(series.getParam("threads"))
+                    && (cachePolicy == null || jmhCachePolicy.equals(cachePolicy))) {
+                dataset.addSeries(toXySeries(series));
+            }
+        }
+        return dataset;
     }
 
     private static XYSeriesCollection getXySeriesCollection() throws IOException {
-        double[] seriesOutput = getSeriesFromFile("seqReading.txt");
-        XYSeries series = new XYSeries("Sequential reading");
-        series.add(0, seriesOutput[0]);
-        series.add(2, seriesOutput[1]);
-        series.add(4, seriesOutput[2]);
-        series.add(8, seriesOutput[3]);
-
-        double[] series2Output = getSeriesFromFile("appendOnlyWrite.txt");
-        XYSeries series2 = new XYSeries("Append-only write");
-        series2.add(0, series2Output[0]);
-        series2.add(2, series2Output[1]);
-        series2.add(4, series2Output[2]);
-        series2.add(8, series2Output[3]);
-
-        double[] series3Output = getSeriesFromFile("randomRead.txt");
-        XYSeries series3 = new XYSeries("Random read");
-        series3.add(0, series3Output[0]);
-        series3.add(2, series3Output[1]);
-        series3.add(4, series3Output[2]);
-        series3.add(8, series3Output[3]);
-
-        double[] series4Output = getSeriesFromFile("randomWrite.txt");
-        XYSeries series4 = new XYSeries("Random write");
-        series4.add(0, series4Output[0]);
-        series4.add(2, series4Output[1]);
-        series4.add(4, series4Output[2]);
-        series4.add(8, series4Output[3]);
+        if (Files.exists(Paths.get(baseMainPath + jmhOutputFile))) {
+            return getXySeriesCollectionFromJmh();
+        }
 
         XYSeriesCollection dataset = new XYSeriesCollection();
-        dataset.addSeries(series);
-        dataset.addSeries(series2);
-        dataset.addSeries(series3);
-        dataset.addSeries(series4);
+        dataset.addSeries(getSeriesFromFile("seqReading.json"));
+        dataset.addSeries(getSeriesFromFile("appendOnlyWrite.json"));
+        dataset.addSeries(getSeriesFromFile("randomRead.json"));
+        dataset.addSeries(getSeriesFromFile("randomWrite.json"));
+        // newer than the other four, missing in older result sets
+        if (Files.exists(Paths.get(baseMainPath + "mixedReadWrite.json"))) {
+            dataset.addSeries(getSeriesFromFile("mixedReadWrite.json"));
+        }
         return dataset;
     }
-}
\ No newline at end of file
+}
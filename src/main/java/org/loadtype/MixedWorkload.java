@@ -0,0 +1,272 @@
+package org.loadtype;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import org.benchmark.LatencyRecorder;
+import org.directbuffer.DirectBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Mixed random read/write load on one file, the way a database treats its data file: {@code threads} workers
+ * share one channel and do block aligned positional reads and in-place writes, {@code readRatio} of the operations
+ * are reads. Reads and writes are timed separately, write latency includes the sync required by the
+ * {@link SyncPolicy}.
+ * <p>
+ * Offsets and operation types are generated before the run, see {@link #plan(long)}.
+ */
+public class MixedWorkload {
+    public enum SyncPolicy {
+        /**
+         * Leave dirty pages to the kernel writeback.
+         */
+        NONE,
+        /**
+         * {@code fdatasync} after every write.
+         */
+        EVERY_WRITE,
+        /**
+         * {@code fdatasync} after every {@link #SyncBatch} writes of a worker.
+         */
+        BATCH
+    }
+
+    public static final int SyncBatch = 64;
+
+    private final double readRatio;
+    private final int blockSize;
+    private final AccessDistribution distribution;
+    private final int threads;
+    private final SyncPolicy syncPolicy;
+    private final long operations;
+
+    /**
+     * @param readRatio  share of reads, 0..1
+     * @param operations total number of reads and writes over all threads
+     */
+    public MixedWorkload(double readRatio, int blockSize, AccessDistribution distribution, int threads,
+                         SyncPolicy syncPolicy, long operations) {
+        if (readRatio < 0 || readRatio > 1) {
+            throw new IllegalArgumentException("Read ratio must be in [0, 1]: " + readRatio);
+        }
+        if (blockSize <= 0 || threads <= 0 || operations < threads) {
+            throw new IllegalArgumentException("Block size and threads must be positive, at least one operation per thread");
+        }
+        this.readRatio = readRatio;
+        this.blockSize = blockSize;
+        this.distribution = distribution;
+        this.threads = threads;
+        this.syncPolicy = syncPolicy;
+        this.operations = operations;
+    }
+
+    /**
+     * Operations of every worker for a file of the given size.
+     */
+    public Plan plan(long fileSize) {
+        long slots = fileSize / blockSize;
+        if (slots == 0) {
+            throw new IllegalArgumentException("File of " + fileSize + " bytes is smaller than a block");
+        }
+        AccessDistribution.Sampler sampler = distribution.sampler(slots);
+        long[][] offsets = new long[threads][];
+        boolean[][] reads = new boolean[threads][];
+        for (int t = 0; t < threads; t++) {
+            int count = (int) (operations / threads + (t < operations % threads ? 1 : 0));
+            offsets[t] = new long[count];
+            reads[t] = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                offsets[t][i] = sampler.next() * blockSize;
+                reads[t][i] = PcgRSUFast.nextDouble() < readRatio;
+            }
+        }
+        return new Plan(offsets, reads);
+    }
+
+    public Result run(Path path) throws IOException {
+        return run(path, plan(Files.size(path)));
+    }
+
+    public Result run(Path path, Plan plan) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // taken and returned here, the pool caches buffers per thread and the workers are gone after the run
+        ByteBuffer[] buffers = new ByteBuffer[threads];
+        for (int t = 0; t < threads; t++) {
+            buffers[t] = DirectBufferPool.shared().acquire(blockSize);
+        }
+        try(FileChannel ch = FileChannel.open(path, READ, WRITE)){
+            // workers wait for each other, so the elapsed time covers the overlapping part only
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Result>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                final int worker = t;
+                final ByteBuffer buf = buffers[t];
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return runWorker(ch, buf, plan.offsets[worker], plan.reads[worker]);
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            Result total = new Result();
+            for (Future<Result> future : futures) {
+                total.merge(future.get());
+            }
+            total.elapsedNanos = System.nanoTime() - startNanos;
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            ParallelReader.awaitWorkers(executor);
+            for (ByteBuffer buf : buffers) {
+                DirectBufferPool.shared().release(buf);
+            }
+        }
+    }
+
+    private Result runWorker(FileChannel ch, ByteBuffer buf, long[] offsets, boolean[] reads) throws IOException {
+        Result result = new Result();
+        int unsynced = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            long start = System.nanoTime();
+            buf.clear().limit(blockSize);
+            if (reads[i]) {
+                while(buf.hasRemaining()){
+                    if (ch.read(buf, offsets[i] + buf.position()) <= 0){
+                        break;
+                    }
+                }
+                result.reads++;
+                result.readBytes += buf.position();
+                result.readLatencies.recordSince(start);
+            } else {
+                while(buf.hasRemaining()){
+                    ch.write(buf, offsets[i] + buf.position());
+                }
+                unsynced++;
+                if (syncPolicy == SyncPolicy.EVERY_WRITE || (syncPolicy == SyncPolicy.BATCH && unsynced == SyncBatch)) {
+                    ch.force(false);
+                    unsynced = 0;
+                }
+                result.writes++;
+                result.writeBytes += blockSize;
+                result.writeLatencies.recordSince(start);
+            }
+        }
+        if (syncPolicy != SyncPolicy.NONE && unsynced > 0) {
+            ch.force(false);
+        }
+        return result;
+    }
+
+    public double getReadRatio() {
+        return readRatio;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public AccessDistribution getDistribution() {
+        return distribution;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    public static class Plan {
+        private final long[][] offsets;
+        private final boolean[][] reads;
+
+        Plan(long[][] offsets, boolean[][] reads) {
+            this.offsets = offsets;
+            this.reads = reads;
+        }
+    }
+
+    public static class Result {
+        private long reads;
+        private long writes;
+        private long readBytes;
+        private long writeBytes;
+        private long elapsedNanos;
+        private final LatencyRecorder readLatencies = new LatencyRecorder();
+        private final LatencyRecorder writeLatencies = new LatencyRecorder();
+
+        Result() {
+        }
+
+        void merge(Result other) {
+            reads += other.reads;
+            writes += other.writes;
+            readBytes += other.readBytes;
+            writeBytes += other.writeBytes;
+            readLatencies.merge(other.readLatencies);
+            writeLatencies.merge(other.writeLatencies);
+        }
+
+        public long getReads() {
+            return reads;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        public long getReadBytes() {
+            return readBytes;
+        }
+
+        public long getWriteBytes() {
+            return writeBytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Read latency histogram in nanoseconds.
+         */
+        public LatencyRecorder getReadLatencies() {
+            return readLatencies;
+        }
+
+        /**
+         * Write latency histogram in nanoseconds, including syncs.
+         */
+        public LatencyRecorder getWriteLatencies() {
+            return writeLatencies;
+        }
+
+        public double readThroughputMbs() {
+            return readBytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+        }
+
+        public double writeThroughputMbs() {
+            return writeBytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.loadtype;
+
+import org.directbuffer.DirectBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads a whole file with {@code threads} workers to keep several requests in flight, an SSD serves them through
+ * its internal channels in parallel. The file is split into contiguous shards, one per worker, on
+ * {@code chunkSize} boundaries. Every worker has its own channel and buffer and reads its shard with positional
+ * reads ({@code pread}), so there is neither a shared position lock nor any other shared state.
+ */
+public class ParallelReader {
+    private final int threads;
+    private final int chunkSize;
+
+    public ParallelReader(int threads, int chunkSize) {
+        if (threads <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Threads and chunk size must be positive");
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Shard boundaries for a file of the given size: shard {@code i} is {@code [bounds[i], bounds[i + 1])}.
+     * Shards differ by at most one chunk, trailing shards are empty if the file has fewer chunks than threads.
+     */
+    public long[] shards(long fileSize) {
+        long chunks = (fileSize + chunkSize - 1) / chunkSize;
+        long[] bounds = new long[threads + 1];
+        for (int t = 1; t <= threads; t++) {
+            long chunk = chunks / threads * t + Math.min(t, chunks % threads);
+            bounds[t] = Math.min(chunk * chunkSize, fileSize);
+        }
+        return bounds;
+    }
+
+    public Result read(Path path) throws IOException {
+        long[] bounds = shards(Files.size(path));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // taken and returned here, the pool caches buffers per thread and the workers are gone after the run
+        ByteBuffer[] buffers = new ByteBuffer[threads];
+        for (int t = 0; t < threads; t++) {
+            buffers[t] = DirectBufferPool.shared().acquire(chunkSize);
+        }
+        try {
+            // workers open their channels first and wait for each other, the elapsed time is reading only
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                final long from = bounds[t];
+                final long to = bounds[t + 1];
+                final ByteBuffer buf = buffers[t];
+                futures.add(executor.submit(() -> {
+                    FileChannel opened;
+                    try {
+                        opened = FileChannel.open(path, READ);
+                    } finally {
+                        ready.countDown();
+                    }
+                    try(FileChannel ch = opened){
+                        start.await();
+                        return readShard(ch, buf, from, to);
+                    }
+                }));
+            }
+            ready.await();
+            long startNanos = System.nanoTime();
+            start.countDown();
+            long[] shardBytes = new long[threads];
+            long bytes = 0;
+            for (int t = 0; t < threads; t++) {
+                shardBytes[t] = futures.get(t).get();
+                bytes += shardBytes[t];
+            }
+            return new Result(threads, bytes, System.nanoTime() - startNanos, shardBytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            // on failure the other workers may still be reading, interrupting a read closes its channel
+            executor.shutdownNow();
+            awaitWorkers(executor);
+            for (ByteBuffer buf : buffers) {
+                DirectBufferPool.shared().release(buf);
+            }
+        }
+    }
+
+    // the workers must be done with the buffers before they go back to the pool
+    static void awaitWorkers(ExecutorService executor) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long readShard(FileChannel ch, ByteBuffer buf, long from, long to) throws IOException {
+        long position = from;
+        while (position < to) {
+            buf.clear().limit((int) Math.min(chunkSize, to - position));
+            int read = ch.read(buf, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+        }
+        return position - from;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public static class Result {
+        private final int threads;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final long[] shardBytes;
+
+        Result(int threads, long bytes, long elapsedNanos, long[] shardBytes) {
+            this.threads = threads;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.shardBytes = shardBytes;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Bytes read by every worker.
+         */
+        public long[] getShardBytes() {
+            return shardBytes;
+        }
+
+        public double throughputMbs() {
+            return bytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+        }
+    }
+}
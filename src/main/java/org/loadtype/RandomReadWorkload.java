@@ -0,0 +1,130 @@
+package org.loadtype;
+
+import org.benchmark.LatencyRecorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Random-offset read workload: {@code readCount} positional reads of {@code blockSize} bytes, each starting at a
+ * multiple of {@code alignment} picked by the {@link AccessDistribution}. Offsets are generated before the run, so
+ * the generator isn't part of the measured time. Not thread safe, use one workload per thread.
+ */
+public class RandomReadWorkload {
+    private final AccessDistribution distribution;
+    private final int blockSize;
+    private final int alignment;
+    private final int readCount;
+    // the Zipf setup is O(slots), keep it for the next call with the same file size
+    private AccessDistribution.Sampler sampler;
+    private long samplerSlots;
+
+    public RandomReadWorkload(AccessDistribution distribution, int blockSize, int alignment, int readCount) {
+        if (blockSize <= 0 || alignment <= 0 || readCount <= 0) {
+            throw new IllegalArgumentException("Block size, alignment and read count must be positive");
+        }
+        this.distribution = distribution;
+        this.blockSize = blockSize;
+        this.alignment = alignment;
+        this.readCount = readCount;
+    }
+
+    /**
+     * Read offsets for a file of the given size, every read fits into the file.
+     */
+    public long[] offsets(long fileSize) {
+        if (fileSize < blockSize) {
+            throw new IllegalArgumentException("File of " + fileSize + " bytes is smaller than a block");
+        }
+        long slots = (fileSize - blockSize) / alignment + 1;
+        if (sampler == null || samplerSlots != slots) {
+            sampler = distribution.sampler(slots);
+            samplerSlots = slots;
+        }
+        long[] offsets = new long[readCount];
+        for (int i = 0; i < readCount; i++) {
+            offsets[i] = sampler.next() * alignment;
+        }
+        return offsets;
+    }
+
+    /**
+     * Runs the workload against the channel with {@code buf} as the read buffer, at least {@code blockSize} bytes.
+     */
+    public Result run(FileChannel ch, ByteBuffer buf) throws IOException {
+        return run(ch, buf, offsets(ch.size()));
+    }
+
+    public Result run(FileChannel ch, ByteBuffer buf, long[] offsets) throws IOException {
+        LatencyRecorder latencies = new LatencyRecorder();
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (long offset : offsets) {
+            long readStart = System.nanoTime();
+            buf.clear().limit(blockSize);
+            while(buf.hasRemaining()){
+                int read = ch.read(buf, offset + buf.position());
+                if (read <= 0){
+                    break;
+                }
+            }
+            bytes += buf.position();
+            latencies.recordSince(readStart);
+        }
+        return new Result(offsets.length, bytes, System.nanoTime() - start, latencies);
+    }
+
+    public AccessDistribution getDistribution() {
+        return distribution;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getAlignment() {
+        return alignment;
+    }
+
+    public int getReadCount() {
+        return readCount;
+    }
+
+    public static class Result {
+        private final int reads;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final LatencyRecorder latencies;
+
+        Result(int reads, long bytes, long elapsedNanos, LatencyRecorder latencies) {
+            this.reads = reads;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        public int getReads() {
+            return reads;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Per-read latency in nanoseconds.
+         */
+        public LatencyRecorder getLatencies() {
+            return latencies;
+        }
+
+        public double throughputMbs() {
+            return bytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+        }
+    }
+}
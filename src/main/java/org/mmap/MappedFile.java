@@ -0,0 +1,349 @@
+package org.mmap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Memory mapped file of any size. A single {@link MappedByteBuffer} is int-indexed and limited to 2GB, here the
+ * file is covered by consecutive mappings of {@code segmentSize} bytes (the last one may be shorter) and
+ * addressed with long positions.
+ * <p>
+ * Primitives are big-endian like in {@link ByteBuffer}. A value crossing a segment boundary is read and written
+ * byte by byte, everything else is a single absolute get/put on the segment. Bulk transfers are split at the
+ * boundaries.
+ * <p>
+ * Gets and puts may run concurrently, {@link #grow(long)}, {@link #close()} must not run concurrently with
+ * anything else: segments are unmapped right away (see {@link Unmapper}) and an access to an unmapped segment
+ * crashes the JVM.
+ */
+public class MappedFile implements Closeable {
+    public static final int DefaultSegmentSize = 1 << 30;
+
+    private final FileChannel ch;
+    private final FileChannel.MapMode mode;
+    private final int segmentSize;
+    private final int segmentShift;
+    private final long segmentMask;
+    private MappedByteBuffer[] segments;
+    private long size;
+
+    /**
+     * Maps the whole file with {@link #DefaultSegmentSize} segments.
+     */
+    public MappedFile(Path path, FileChannel.MapMode mode) throws IOException {
+        this(path, mode, -1, DefaultSegmentSize);
+    }
+
+    /**
+     * @param size        bytes to map, the file grows to it in {@code READ_WRITE} mode. -1 maps the whole file
+     * @param segmentSize power of two bytes per mapping
+     */
+    public MappedFile(Path path, FileChannel.MapMode mode, long size, int segmentSize) throws IOException {
+        if (Integer.bitCount(segmentSize) != 1) {
+            throw new IllegalArgumentException("Segment size must be a power of two: " + segmentSize);
+        }
+        this.mode = mode;
+        this.segmentSize = segmentSize;
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1;
+        this.ch = mode == FileChannel.MapMode.READ_ONLY
+                ? FileChannel.open(path, READ)
+                : FileChannel.open(path, CREATE, READ, WRITE);
+        this.segments = new MappedByteBuffer[0];
+        try {
+            long fileSize = ch.size();
+            long mapped = size < 0 ? fileSize : size;
+            if (mapped > fileSize && mode != FileChannel.MapMode.READ_WRITE) {
+                throw new IOException("File " + path + " has " + fileSize + " bytes, can't map " + mapped);
+            }
+            remap(mapped);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Extends the file and the mapping to {@code newSize} bytes, only in {@code READ_WRITE} mode. The new bytes
+     * are zero. The partial last segment is replaced, so buffers handed out before (see {@link #segment(int)})
+     * must not be used afterwards.
+     */
+    public void grow(long newSize) throws IOException {
+        if (mode != FileChannel.MapMode.READ_WRITE) {
+            throw new IllegalStateException("Can grow in READ_WRITE mode only");
+        }
+        if (newSize > size) {
+            remap(newSize);
+        }
+    }
+
+    private void remap(long newSize) throws IOException {
+        int count = (int) ((newSize + segmentSize - 1) >>> segmentShift);
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, count);
+        // full segments stay, the partial last one is mapped again with its new length
+        int first = segments.length;
+        if (first > 0 && segments[first - 1].capacity() < segmentSize) {
+            first--;
+        }
+        int i = first;
+        try {
+            for (; i < count; i++) {
+                long position = (long) i << segmentShift;
+                // mapping beyond the end of file extends it in READ_WRITE mode
+                grown[i] = ch.map(mode, position, Math.min(segmentSize, newSize - position));
+            }
+        } catch (IOException | RuntimeException e) {
+            // the segments mapped so far are not referenced by segments, nothing else would unmap them
+            for (int j = first; j < i; j++) {
+                Unmapper.unmap(grown[j]);
+            }
+            throw e;
+        }
+        if (first < segments.length) {
+            Unmapper.unmap(segments[first]);
+        }
+        segments = grown;
+        size = newSize;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Mapping {@code index}, covering positions from {@code index * segmentSize}.
+     */
+    public MappedByteBuffer segment(int index) {
+        return segments[index];
+    }
+
+    public byte getByte(long position) {
+        check(position, 1);
+        return segments[(int) (position >>> segmentShift)].get((int) (position & segmentMask));
+    }
+
+    public void putByte(long position, byte value) {
+        check(position, 1);
+        segments[(int) (position >>> segmentShift)].put((int) (position & segmentMask), value);
+    }
+
+    public short getShort(long position) {
+        if (fits(position, 2)) {
+            return segments[(int) (position >>> segmentShift)].getShort((int) (position & segmentMask));
+        }
+        return (short) getStraddling(position, 2);
+    }
+
+    public void putShort(long position, short value) {
+        if (fits(position, 2)) {
+            segments[(int) (position >>> segmentShift)].putShort((int) (position & segmentMask), value);
+        } else {
+            putStraddling(position, 2, value);
+        }
+    }
+
+    public int getInt(long position) {
+        if (fits(position, 4)) {
+            return segments[(int) (position >>> segmentShift)].getInt((int) (position & segmentMask));
+        }
+        return (int) getStraddling(position, 4);
+    }
+
+    public void putInt(long position, int value) {
+        if (fits(position, 4)) {
+            segments[(int) (position >>> segmentShift)].putInt((int) (position & segmentMask), value);
+        } else {
+            putStraddling(position, 4, value);
+        }
+    }
+
+    public long getLong(long position) {
+        if (fits(position, 8)) {
+            return segments[(int) (position >>> segmentShift)].getLong((int) (position & segmentMask));
+        }
+        return getStraddling(position, 8);
+    }
+
+    public void putLong(long position, long value) {
+        if (fits(position, 8)) {
+            segments[(int) (position >>> segmentShift)].putLong((int) (position & segmentMask), value);
+        } else {
+            putStraddling(position, 8, value);
+        }
+    }
+
+    public float getFloat(long position) {
+        return Float.intBitsToFloat(getInt(position));
+    }
+
+    public void putFloat(long position, float value) {
+        putInt(position, Float.floatToRawIntBits(value));
+    }
+
+    public double getDouble(long position) {
+        return Double.longBitsToDouble(getLong(position));
+    }
+
+    public void putDouble(long position, double value) {
+        putLong(position, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Copies {@code length} bytes from the file at {@code position} into {@code dst}.
+     */
+    public void get(long position, byte[] dst, int offset, int length) {
+        check(position, length);
+        while (length > 0) {
+            ByteBuffer segment = slice(position);
+            int chunk = Math.min(length, segment.remaining());
+            segment.get(dst, offset, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    public void put(long position, byte[] src, int offset, int length) {
+        check(position, length);
+        while (length > 0) {
+            ByteBuffer segment = slice(position);
+            int chunk = Math.min(length, segment.remaining());
+            segment.put(src, offset, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Fills the remaining bytes of {@code dst} from the file at {@code position}.
+     */
+    public void get(long position, ByteBuffer dst) {
+        check(position, dst.remaining());
+        while (dst.hasRemaining()) {
+            ByteBuffer segment = slice(position);
+            int chunk = Math.min(dst.remaining(), segment.remaining());
+            segment.limit(segment.position() + chunk);
+            dst.put(segment);
+            position += chunk;
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of {@code src} to the file at {@code position}.
+     */
+    public void put(long position, ByteBuffer src) {
+        check(position, src.remaining());
+        int limit = src.limit();
+        try {
+            while (src.hasRemaining()) {
+                ByteBuffer segment = slice(position);
+                int chunk = Math.min(src.remaining(), segment.remaining());
+                src.limit(src.position() + chunk);
+                segment.put(src);
+                src.limit(limit);
+                position += chunk;
+            }
+        } finally {
+            src.limit(limit);
+        }
+    }
+
+    // view of the segment from the position to its end, independent of other threads
+    private ByteBuffer slice(long position) {
+        ByteBuffer segment = segments[(int) (position >>> segmentShift)].duplicate();
+        segment.position((int) (position & segmentMask));
+        return segment;
+    }
+
+    private long getStraddling(long position, int bytes) {
+        check(position, bytes);
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (getByte(position + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private void putStraddling(long position, int bytes, long value) {
+        check(position, bytes);
+        for (int i = bytes - 1; i >= 0; i--) {
+            putByte(position + i, (byte) value);
+            value >>>= 8;
+        }
+    }
+
+    // in bounds and inside one segment
+    private boolean fits(long position, int bytes) {
+        check(position, bytes);
+        return (position & segmentMask) <= segmentSize - bytes;
+    }
+
+    private void check(long position, int bytes) {
+        if (position < 0 || bytes < 0 || position > size - bytes) {
+            throw new IndexOutOfBoundsException("Position " + position + ", " + bytes + " bytes, size " + size);
+        }
+    }
+
+    /**
+     * Applies {@code madvise} to {@code length} bytes from {@code position}, split over the segments.
+     */
+    public void advise(long position, long length, MemoryAdvice advice) throws IOException {
+        if (position < 0 || length < 0 || position > size - length) {
+            throw new IndexOutOfBoundsException("Position " + position + ", " + length + " bytes, size " + size);
+        }
+        long end = position + length;
+        while (position < end) {
+            int index = (int) (position >>> segmentShift);
+            long offset = position & segmentMask;
+            long chunk = Math.min(end - position, segments[index].capacity() - offset);
+            advice.apply(segments[index], offset, chunk);
+            position += chunk;
+        }
+    }
+
+    /**
+     * Writes dirty pages of every segment back to the file.
+     */
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Unmaps all segments and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        MappedByteBuffer[] mapped = segments;
+        segments = new MappedByteBuffer[0];
+        size = 0;
+        try(FileChannel c = ch){
+            for (MappedByteBuffer segment : mapped) {
+                Unmapper.unmap(segment);
+            }
+        }
+    }
+
+    public FileChannel.MapMode mode() {
+        return mode;
+    }
+}
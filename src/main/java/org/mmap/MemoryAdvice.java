@@ -0,0 +1,73 @@
+package org.mmap;
+
+import org.nativeio.LibC;
+import org.nativeio.NativeIO;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+
+/**
+ * {@code madvise} hints for mapped memory, the mmap counterpart of {@code posix_fadvise}: they drive read-ahead
+ * on page faults and eviction of the mapped pages.
+ */
+public enum MemoryAdvice {
+    /**
+     * Default read-ahead around the faulting page.
+     */
+    NORMAL(NativeIO.MADV_NORMAL),
+    /**
+     * No read-ahead, every fault reads one page.
+     */
+    RANDOM(NativeIO.MADV_RANDOM),
+    /**
+     * Aggressive read-ahead, pages behind the access may be freed early.
+     */
+    SEQUENTIAL(NativeIO.MADV_SEQUENTIAL),
+    /**
+     * Start reading the range into the page cache now, the call doesn't wait for it.
+     */
+    WILLNEED(NativeIO.MADV_WILLNEED),
+    /**
+     * Drop the range from this mapping, the next access faults it in again. Dirty pages of a shared mapping
+     * stay in the page cache.
+     */
+    DONTNEED(NativeIO.MADV_DONTNEED),
+    /**
+     * Back the range with transparent huge pages. File mappings get them only with file THP support
+     * ({@code CONFIG_READ_ONLY_THP_FOR_FS} or tmpfs), otherwise the call fails with EINVAL.
+     */
+    HUGEPAGE(NativeIO.MADV_HUGEPAGE);
+
+    private static final long PageSize = LibC.INSTANCE.getpagesize();
+
+    private final int value;
+
+    MemoryAdvice(int value) {
+        this.value = value;
+    }
+
+    public int value() {
+        return value;
+    }
+
+    /**
+     * Applies the advice to the whole buffer.
+     */
+    public void apply(MappedByteBuffer buffer) throws IOException {
+        apply(buffer, 0, buffer.capacity());
+    }
+
+    /**
+     * Applies the advice to {@code length} bytes from {@code offset} of the buffer. The range is widened to whole
+     * pages, a mapping starts at a page boundary anyway.
+     */
+    public void apply(MappedByteBuffer buffer, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " of " + buffer.capacity() + " bytes");
+        }
+        long address = NativeIO.address(buffer) + offset;
+        long start = address & -PageSize;
+        long end = address + length;
+        NativeIO.madvise(start, end - start, value);
+    }
+}
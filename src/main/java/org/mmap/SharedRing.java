@@ -0,0 +1,290 @@
+package org.mmap;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import one.nio.util.JavaInternals;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static one.nio.util.JavaInternals.unsafe;
+
+/**
+ * Bounded message queue between processes over a {@code MAP_SHARED} file mapping, every process maps the same file
+ * and the page cache pages are the shared memory. One consumer; one producer, or several with
+ * {@code multiProducer} (producers claim slots with a CAS on the tail).
+ * <p>
+ * Layout: a header page with the ring parameters and the tail and head sequences, each on its own 128 bytes so
+ * producer and consumer don't share a cache line (or the adjacent line the CPU prefetches with it), followed by
+ * {@code slotCount} slots of {@code slotSize} bytes. A slot is a sequence word, the message length and the payload.
+ * The producer writes the payload and length with plain stores and publishes the slot with an ordered store of its
+ * sequence, the consumer frees it with an ordered store of the head, no fences on the fast path.
+ */
+public class SharedRing implements Closeable {
+    private static final long Magic = 0x53_52_49_4E_47_30_30_31L;
+    private static final int HeaderSize = 4096;
+    private static final int MagicOffset = 0;
+    private static final int SlotSizeOffset = 8;
+    private static final int SlotCountOffset = 12;
+    private static final int MultiProducerOffset = 16;
+    private static final int TailOffset = 128;
+    private static final int HeadOffset = 256;
+    // slot: sequence + 1 once published, length, padding to keep the payload 8 byte aligned
+    private static final int SlotHeader = 16;
+
+    private final FileChannel ch;
+    private final MappedByteBuffer mapping;
+    private final long base;
+    private final long tailAddress;
+    private final long headAddress;
+    private final int slotSize;
+    private final int slotMask;
+    private final boolean multiProducer;
+
+    // producer side, single producer only
+    private long tail;
+    private long cachedHead;
+    // consumer side
+    private long head;
+
+    private SharedRing(FileChannel ch, MappedByteBuffer mapping, int slotSize, int slotCount, boolean multiProducer) {
+        this.ch = ch;
+        this.mapping = mapping;
+        this.base = Pointer.nativeValue(Native.getDirectBufferPointer(mapping));
+        this.tailAddress = base + TailOffset;
+        this.headAddress = base + HeadOffset;
+        this.slotSize = slotSize;
+        this.slotMask = slotCount - 1;
+        this.multiProducer = multiProducer;
+        this.tail = unsafe.getLongVolatile(null, tailAddress);
+        this.head = unsafe.getLongVolatile(null, headAddress);
+        this.cachedHead = head;
+    }
+
+    /**
+     * Creates an empty ring in the file, replacing its content.
+     *
+     * @param slotSize  power of two bytes per slot, a message takes up to {@code slotSize - 16} bytes
+     * @param slotCount power of two number of slots
+     */
+    public static SharedRing create(Path path, int slotSize, int slotCount, boolean multiProducer) throws IOException {
+        if (Integer.bitCount(slotSize) != 1 || slotSize <= SlotHeader || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Slot size and count must be powers of two, slot size above " + SlotHeader);
+        }
+        long size = HeaderSize + (long) slotSize * slotCount;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ring of " + size + " bytes doesn't fit a mapping");
+        }
+        FileChannel ch = FileChannel.open(path, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+        try {
+            MappedByteBuffer mapping = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            mapping.putInt(SlotSizeOffset, slotSize);
+            mapping.putInt(SlotCountOffset, slotCount);
+            mapping.putInt(MultiProducerOffset, multiProducer ? 1 : 0);
+            SharedRing ring = new SharedRing(ch, mapping, slotSize, slotCount, multiProducer);
+            // parameters are visible before the magic
+            unsafe.putLongVolatile(null, ring.base + MagicOffset, Magic);
+            return ring;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a ring created by another process, waits up to {@code timeout} for it to be initialized.
+     */
+    public static SharedRing open(Path path, long timeout, TimeUnit unit) throws IOException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            try(FileChannel probe = FileChannel.open(path, READ)){
+                if (probe.size() >= HeaderSize) {
+                    MappedByteBuffer header = probe.map(FileChannel.MapMode.READ_ONLY, 0, HeaderSize);
+                    long address = Pointer.nativeValue(Native.getDirectBufferPointer(header));
+                    boolean ready = unsafe.getLongVolatile(null, address + MagicOffset) == Magic;
+                    int slotSize = header.getInt(SlotSizeOffset);
+                    int slotCount = header.getInt(SlotCountOffset);
+                    boolean multiProducer = header.getInt(MultiProducerOffset) != 0;
+                    Unmapper.unmap(header);
+                    if (ready) {
+                        FileChannel ch = FileChannel.open(path, READ, WRITE);
+                        try {
+                            MappedByteBuffer mapping = ch.map(FileChannel.MapMode.READ_WRITE, 0, HeaderSize + (long) slotSize * slotCount);
+                            return new SharedRing(ch, mapping, slotSize, slotCount, multiProducer);
+                        } catch (IOException | RuntimeException e) {
+                            ch.close();
+                            throw e;
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // not created yet
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IOException("Ring " + path + " wasn't initialized in " + timeout + " " + unit);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Largest message in bytes.
+     */
+    public int maxMessageSize() {
+        return slotSize - SlotHeader;
+    }
+
+    /**
+     * Publishes the remaining bytes of {@code message}, returns false if the ring is full.
+     */
+    public boolean offer(ByteBuffer message) {
+        int length = message.remaining();
+        if (length > maxMessageSize()) {
+            throw new IllegalArgumentException("Message of " + length + " bytes, slots take " + maxMessageSize());
+        }
+        long sequence;
+        if (multiProducer) {
+            do {
+                sequence = unsafe.getLongVolatile(null, tailAddress);
+                if (sequence - unsafe.getLongVolatile(null, headAddress) > slotMask) {
+                    return false;
+                }
+            } while (!unsafe.compareAndSwapLong(null, tailAddress, sequence, sequence + 1));
+        } else {
+            sequence = tail;
+            if (sequence - cachedHead > slotMask) {
+                cachedHead = unsafe.getLongVolatile(null, headAddress);
+                if (sequence - cachedHead > slotMask) {
+                    return false;
+                }
+            }
+            tail = sequence + 1;
+            unsafe.putOrderedLong(null, tailAddress, tail);
+        }
+        long slot = slotAddress(sequence);
+        copyFrom(message, slot + SlotHeader, length);
+        unsafe.putInt(slot + 8, length);
+        unsafe.putOrderedLong(null, slot, sequence + 1);
+        message.position(message.limit());
+        return true;
+    }
+
+    /**
+     * Publishes the message, waiting with {@code waitStrategy} while the ring is full.
+     */
+    public void send(ByteBuffer message, WaitStrategy waitStrategy) {
+        for (int attempt = 0; !offer(message); attempt++) {
+            waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * Copies the next message into {@code dst}, returns its length or -1 if the ring is empty.
+     */
+    public int poll(ByteBuffer dst) {
+        long slot = slotAddress(head);
+        if (unsafe.getLongVolatile(null, slot) != head + 1) {
+            return -1;
+        }
+        int length = unsafe.getInt(slot + 8);
+        if (length > dst.remaining()) {
+            throw new IllegalArgumentException("Message of " + length + " bytes, " + dst.remaining() + " bytes left in the buffer");
+        }
+        copyTo(slot + SlotHeader, dst, length);
+        head++;
+        unsafe.putOrderedLong(null, headAddress, head);
+        return length;
+    }
+
+    /**
+     * Copies the next message into {@code dst}, waiting with {@code waitStrategy} while the ring is empty.
+     */
+    public int receive(ByteBuffer dst, WaitStrategy waitStrategy) {
+        int length;
+        for (int attempt = 0; (length = poll(dst)) < 0; attempt++) {
+            waitStrategy.idle(attempt);
+        }
+        return length;
+    }
+
+    private long slotAddress(long sequence) {
+        return base + HeaderSize + (sequence & slotMask) * slotSize;
+    }
+
+    private static void copyFrom(ByteBuffer src, long address, int length) {
+        if (src.isDirect()) {
+            unsafe.copyMemory(Pointer.nativeValue(Native.getDirectBufferPointer(src)) + src.position(), address, length);
+        } else {
+            unsafe.copyMemory(src.array(), JavaInternals.byteArrayOffset + src.arrayOffset() + src.position(), null, address, length);
+        }
+    }
+
+    private static void copyTo(long address, ByteBuffer dst, int length) {
+        if (dst.isDirect()) {
+            unsafe.copyMemory(address, Pointer.nativeValue(Native.getDirectBufferPointer(dst)) + dst.position(), length);
+        } else {
+            unsafe.copyMemory(null, address, dst.array(), JavaInternals.byteArrayOffset + dst.arrayOffset() + dst.position(), length);
+        }
+        dst.position(dst.position() + length);
+    }
+
+    /**
+     * Unmaps the ring, the other side keeps its own mapping.
+     */
+    @Override
+    public void close() throws IOException {
+        try(FileChannel c = ch){
+            Unmapper.unmap(mapping);
+        }
+    }
+
+    /**
+     * What a side does while the ring is empty or full.
+     */
+    public enum WaitStrategy {
+        /**
+         * Keeps polling, lowest latency for a core per waiting side.
+         */
+        BUSY_SPIN {
+            @Override
+            public void idle(int attempt) {
+            }
+        },
+        /**
+         * Gives the rest of the time slice to other threads, for sides sharing a core.
+         */
+        YIELD {
+            @Override
+            public void idle(int attempt) {
+                Thread.yield();
+            }
+        },
+        /**
+         * Spins for a while, then parks for short intervals and gives the core away.
+         */
+        PARK {
+            @Override
+            public void idle(int attempt) {
+                if (attempt > SpinAttempts) {
+                    LockSupport.parkNanos(ParkNanos);
+                }
+            }
+        };
+
+        private static final int SpinAttempts = 1000;
+        private static final long ParkNanos = TimeUnit.MICROSECONDS.toNanos(50);
+
+        public abstract void idle(int attempt);
+    }
+}
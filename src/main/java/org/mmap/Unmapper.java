@@ -0,0 +1,68 @@
+package org.mmap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Releases a mapping right away instead of waiting for GC to collect the buffer. On JDK 9+ this is
+ * {@code Unsafe.invokeCleaner}, on JDK 8 the buffer's {@code Cleaner}. The buffer must not be touched afterwards,
+ * an access to unmapped memory crashes the JVM.
+ */
+public final class Unmapper {
+    private static final MethodHandle Unmap = lookup();
+
+    private Unmapper() {
+    }
+
+    private static MethodHandle lookup() {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            // JDK 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            MethodHandle invokeCleaner = lookup.findVirtual(unsafeClass, "invokeCleaner",
+                    MethodType.methodType(void.class, ByteBuffer.class));
+            return invokeCleaner.bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException e) {
+            // JDK 8
+        }
+        try {
+            Class<?> directBuffer = Class.forName("sun.nio.ch.DirectBuffer");
+            Method cleaner = directBuffer.getMethod("cleaner");
+            Method clean = cleaner.getReturnType().getMethod("clean");
+            MethodHandle getCleaner = lookup.unreflect(cleaner)
+                    .asType(MethodType.methodType(cleaner.getReturnType(), ByteBuffer.class));
+            return MethodHandles.filterReturnValue(getCleaner, lookup.unreflect(clean));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether mappings can be released deterministically, otherwise {@link #unmap(ByteBuffer)} does nothing.
+     */
+    public static boolean isSupported() {
+        return Unmap != null;
+    }
+
+    /**
+     * Unmaps a mapped buffer which is not a slice or duplicate, those share the mapping and can't release it.
+     */
+    public static void unmap(ByteBuffer buffer) {
+        if (Unmap == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            Unmap.invokeExact(buffer);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.nativeio;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Block device behind a file, resolved through {@code /sys/class/block}. Linux only, on other systems or for
+ * virtual file systems (tmpfs, overlay) {@link #of(Path)} returns {@code null}.
+ */
+public class BlockDevice {
+    private final String name;
+    private final Path sysfs;
+
+    private BlockDevice(String name, Path sysfs) {
+        this.name = name;
+        this.sysfs = sysfs;
+    }
+
+    public static BlockDevice of(Path path) throws IOException {
+        FileStore store = Files.getFileStore(existingParent(path));
+        return ofDevice(store.name());
+    }
+
+    // /dev/nvme0n1p2 -> /sys/class/block/nvme0n1p2 -> parent disk /sys/block/nvme0n1
+    public static BlockDevice ofDevice(String device) throws IOException {
+        if (!device.startsWith("/dev/")) {
+            return null;
+        }
+        Path block = Paths.get("/sys/class/block", device.substring("/dev/".length()));
+        if (!Files.exists(block)) {
+            return null;
+        }
+        block = block.toRealPath();
+        if (Files.exists(block.resolve("partition"))) {
+            block = block.getParent();
+        }
+        return new BlockDevice(block.getFileName().toString(), block);
+    }
+
+    private static Path existingParent(Path path) {
+        Path current = path.toAbsolutePath();
+        while (current != null && !Files.exists(current)) {
+            current = current.getParent();
+        }
+        return current != null ? current : Paths.get(".").toAbsolutePath();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String model() throws IOException {
+        return read("device/model");
+    }
+
+    public int logicalBlockSize() throws IOException {
+        String value = read("queue/logical_block_size");
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    private String read(String attribute) throws IOException {
+        Path file = sysfs.resolve(attribute);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+    }
+}
@@ -0,0 +1,19 @@
+package org.nativeio;
+
+import java.io.IOException;
+
+/**
+ * Failed {@link NativeIO} call, carries the errno so callers can tell "not supported here" from real errors.
+ */
+public class ErrnoException extends IOException {
+    private final int errno;
+
+    public ErrnoException(String call, int errno, Throwable cause) {
+        super(call + " failed, errno " + errno, cause);
+        this.errno = errno;
+    }
+
+    public int getErrno() {
+        return errno;
+    }
+}
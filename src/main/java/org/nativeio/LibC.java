@@ -0,0 +1,53 @@
+package org.nativeio;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+
+/**
+ * Bindings to the libc calls which are not reachable from Java NIO, page cache and file layout calls on
+ * descriptors are in {@link NativeIO}.
+ * Every call throws {@link LastErrorException} with errno on failure.
+ */
+public interface LibC extends Library {
+    LibC INSTANCE = Native.load("c", LibC.class);
+
+    int O_RDONLY = 0;
+    int O_WRONLY = 01;
+    int O_RDWR = 02;
+    int O_CREAT = 0100;
+    int O_EXCL = 0200;
+    int O_TRUNC = 01000;
+    int O_DSYNC = 010000;
+    int O_SYNC = 04010000;
+    // O_DIRECT differs between architectures
+    int O_DIRECT = Platform.isARM() ? 0200000 : Platform.isPPC() ? 0400000 : 040000;
+
+    int PROT_READ = 0x1;
+    int PROT_WRITE = 0x2;
+    int MAP_SHARED = 0x01;
+    int MAP_POPULATE = 0x8000;
+
+    int getpagesize();
+
+    int open(String path, int flags) throws LastErrorException;
+
+    int open(String path, int flags, int mode) throws LastErrorException;
+
+    int close(int fd) throws LastErrorException;
+
+    long pread(int fd, Pointer buf, long count, long offset) throws LastErrorException;
+
+    long pwrite(int fd, Pointer buf, long count, long offset) throws LastErrorException;
+
+    int fdatasync(int fd) throws LastErrorException;
+
+    Pointer mmap(Pointer addr, long length, int prot, int flags, int fd, long offset) throws LastErrorException;
+
+    int munmap(Pointer addr, long length) throws LastErrorException;
+
+    // arguments are passed as long, syscall(2) reads them as machine words
+    long syscall(long number, Object... args) throws LastErrorException;
+}
@@ -0,0 +1,245 @@
+package org.nativeio;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import one.nio.util.JavaInternals;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Page cache and file layout calls on raw file descriptors: {@code posix_fadvise}, {@code fallocate},
+ * {@code sync_file_range}, {@code readahead}, {@code copy_file_range}, {@code mincore}, {@code madvise} and
+ * {@code lseek} with {@code SEEK_DATA}/{@code SEEK_HOLE}.
+ * <p>
+ * The functions are bound with JNA direct mapping and take plain ints and longs, so a call doesn't allocate
+ * unless it fails. The descriptor of a {@link FileChannel} and the address of a direct buffer are read through
+ * {@link MethodHandle}s resolved once, instead of a reflective lookup per call. Failures are thrown as
+ * {@link ErrnoException}.
+ */
+public final class NativeIO {
+    public static final int POSIX_FADV_NORMAL = 0;
+    public static final int POSIX_FADV_RANDOM = 1;
+    public static final int POSIX_FADV_SEQUENTIAL = 2;
+    public static final int POSIX_FADV_WILLNEED = 3;
+    public static final int POSIX_FADV_DONTNEED = 4;
+    public static final int POSIX_FADV_NOREUSE = 5;
+
+    public static final int FALLOC_FL_KEEP_SIZE = 0x01;
+    public static final int FALLOC_FL_PUNCH_HOLE = 0x02;
+    public static final int FALLOC_FL_ZERO_RANGE = 0x10;
+
+    public static final int SYNC_FILE_RANGE_WAIT_BEFORE = 1;
+    public static final int SYNC_FILE_RANGE_WRITE = 2;
+    public static final int SYNC_FILE_RANGE_WAIT_AFTER = 4;
+
+    public static final int MADV_NORMAL = 0;
+    public static final int MADV_RANDOM = 1;
+    public static final int MADV_SEQUENTIAL = 2;
+    public static final int MADV_WILLNEED = 3;
+    public static final int MADV_DONTNEED = 4;
+    public static final int MADV_HUGEPAGE = 14;
+
+    public static final int SEEK_DATA = 3;
+    public static final int SEEK_HOLE = 4;
+
+    private static final int ENXIO = 6;
+    private static final int ENOSYS = 38;
+
+    private static final MethodHandle channelFd;
+    private static final MethodHandle bufferAddress;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            // FileChannelImpl.fd.fd, the class is looked up by name to keep the build free of proprietary API warnings
+            Class<?> channelImpl = Class.forName("sun.nio.ch.FileChannelImpl");
+            MethodHandle descriptor = lookup.unreflectGetter(JavaInternals.getField(channelImpl, "fd"));
+            MethodHandle fd = lookup.unreflectGetter(JavaInternals.getField(FileDescriptor.class, "fd"));
+            channelFd = MethodHandles.filterReturnValue(descriptor, fd)
+                    .asType(MethodType.methodType(int.class, FileChannel.class));
+            bufferAddress = lookup.unreflectGetter(JavaInternals.getField(Buffer.class, "address"))
+                    .asType(MethodType.methodType(long.class, ByteBuffer.class));
+        } catch (IllegalAccessException | ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private NativeIO() {
+    }
+
+    /**
+     * File descriptor of an open channel, valid until the channel is closed.
+     */
+    public static int fd(FileChannel ch) {
+        try {
+            return (int) channelFd.invokeExact(ch);
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Not a file channel of the default provider: " + ch.getClass(), e);
+        }
+    }
+
+    /**
+     * Address of the first byte of a direct buffer, position and limit aren't taken into account.
+     */
+    public static long address(ByteBuffer buf) {
+        if (!buf.isDirect()) {
+            throw new IllegalArgumentException("Not a direct buffer");
+        }
+        try {
+            return (long) bufferAddress.invokeExact(buf);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * {@code posix_fadvise(2)}, a length of 0 means up to the end of the file.
+     */
+    public static void fadvise(int fd, long offset, long length, int advice) throws IOException {
+        // returns the error instead of setting errno
+        int result = Direct.posix_fadvise(fd, offset, length, advice);
+        if (result != 0) {
+            throw new ErrnoException("posix_fadvise(" + advice + ")", result, null);
+        }
+    }
+
+    /**
+     * {@code fallocate(2)}, mode 0 allocates the range and grows the file when it ends beyond it.
+     */
+    public static void fallocate(int fd, int mode, long offset, long length) throws IOException {
+        try {
+            Direct.fallocate(fd, mode, offset, length);
+        } catch (LastErrorException e) {
+            // EOPNOTSUPP: the file system can't allocate without writing, e.g. ext3
+            throw new ErrnoException("fallocate(" + mode + ")", e.getErrorCode(), e);
+        }
+    }
+
+    /**
+     * {@code sync_file_range(2)}, a length of 0 means up to the end of the file. Doesn't write metadata and
+     * isn't a durability guarantee, it controls when dirty pages are written back.
+     */
+    public static void syncFileRange(int fd, long offset, long length, int flags) throws IOException {
+        try {
+            Direct.sync_file_range(fd, offset, length, flags);
+        } catch (LastErrorException e) {
+            throw new ErrnoException("sync_file_range(" + flags + ")", e.getErrorCode(), e);
+        }
+    }
+
+    /**
+     * {@code readahead(2)}, queues reads of the range into the page cache and returns without waiting for them. The
+     * kernel reads at most the read-ahead window ({@code read_ahead_kb}) or the device's largest request per call.
+     */
+    public static void readahead(int fd, long offset, long length) throws IOException {
+        try {
+            Direct.readahead(fd, offset, length);
+        } catch (LastErrorException e) {
+            throw new ErrnoException("readahead", e.getErrorCode(), e);
+        }
+    }
+
+    /**
+     * {@code copy_file_range(2)} of up to {@code length} bytes from the file position of {@code fdIn} to the file
+     * position of {@code fdOut}, both positions are advanced. Returns the bytes copied, 0 at the end of the source.
+     * A libc without the call (glibc before 2.27) fails with errno {@code ENOSYS}.
+     */
+    public static long copyFileRange(int fdIn, int fdOut, long length) throws IOException {
+        try {
+            return CopyFileRange.copy_file_range(fdIn, 0, fdOut, 0, length, 0);
+        } catch (LastErrorException e) {
+            throw new ErrnoException("copy_file_range", e.getErrorCode(), e);
+        } catch (LinkageError e) {
+            throw new ErrnoException("copy_file_range", ENOSYS, e);
+        }
+    }
+
+    /**
+     * {@code mincore(2)} for the pages of {@code [address, address + length)}, {@code address} must be page
+     * aligned. Byte {@code i} of {@code vec} has its lowest bit set when page {@code i} is resident.
+     */
+    public static void mincore(long address, long length, ByteBuffer vec) throws IOException {
+        try {
+            Direct.mincore(address, length, address(vec) + vec.position());
+        } catch (LastErrorException e) {
+            throw new ErrnoException("mincore", e.getErrorCode(), e);
+        }
+    }
+
+    /**
+     * {@code madvise(2)} for {@code [address, address + length)}, {@code address} must be page aligned.
+     */
+    public static void madvise(long address, long length, int advice) throws IOException {
+        try {
+            Direct.madvise(address, length, advice);
+        } catch (LastErrorException e) {
+            throw new ErrnoException("madvise(" + advice + ")", e.getErrorCode(), e);
+        }
+    }
+
+    /**
+     * Start of the first data region at or after {@code offset}, or -1 when only a hole follows. Ranges allocated
+     * with {@link #fallocate} but never written count as holes on most file systems.
+     */
+    public static long seekData(int fd, long offset) throws IOException {
+        return seek(fd, offset, SEEK_DATA);
+    }
+
+    /**
+     * Start of the first hole at or after {@code offset}, the end of the file counts as a hole. -1 when
+     * {@code offset} is beyond the end.
+     */
+    public static long seekHole(int fd, long offset) throws IOException {
+        return seek(fd, offset, SEEK_HOLE);
+    }
+
+    private static long seek(int fd, long offset, int whence) throws IOException {
+        try {
+            return Direct.lseek(fd, offset, whence);
+        } catch (LastErrorException e) {
+            if (e.getErrorCode() == ENXIO) {
+                return -1;
+            }
+            throw new ErrnoException("lseek(" + whence + ")", e.getErrorCode(), e);
+        }
+    }
+
+    // direct mapping: JNA binds the natives at class load, calls skip the proxy and argument conversion
+    private static final class Direct {
+        static {
+            Native.register(Direct.class, Platform.C_LIBRARY_NAME);
+        }
+
+        static native int posix_fadvise(int fd, long offset, long len, int advice);
+
+        static native int fallocate(int fd, int mode, long offset, long len) throws LastErrorException;
+
+        static native int sync_file_range(int fd, long offset, long nbytes, int flags) throws LastErrorException;
+
+        static native long readahead(int fd, long offset, long count) throws LastErrorException;
+
+        static native int mincore(long addr, long length, long vec) throws LastErrorException;
+
+        static native int madvise(long addr, long length, int advice) throws LastErrorException;
+
+        static native long lseek(int fd, long offset, int whence) throws LastErrorException;
+    }
+
+    // registered on its own, a libc without it mustn't take the other calls down with it
+    private static final class CopyFileRange {
+        static {
+            Native.register(CopyFileRange.class, Platform.C_LIBRARY_NAME);
+        }
+
+        // the offsets are loff_t pointers, NULL copies from and to the file positions
+        static native long copy_file_range(int fdIn, long offIn, int fdOut, long offOut, long len, int flags) throws LastErrorException;
+    }
+}
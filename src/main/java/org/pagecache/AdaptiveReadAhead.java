@@ -0,0 +1,227 @@
+package org.pagecache;
+
+import org.nativeio.NativeIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-ahead for one open file which follows the access pattern instead of a single {@code posix_fadvise} hint
+ * for the whole file. Every read is recorded, the last {@link #History} reads classify the stream as
+ * {@link Pattern#SEQUENTIAL}, {@link Pattern#STRIDED} or {@link Pattern#RANDOM}, and on a change the controller
+ * switches the hint of the file:
+ * <ul>
+ *     <li>sequential: {@code POSIX_FADV_SEQUENTIAL}, which doubles the kernel read-ahead window, plus
+ *     {@code POSIX_FADV_WILLNEED} for the next {@code lookahead} bytes, issued half a window at a time;</li>
+ *     <li>strided: {@code POSIX_FADV_RANDOM}, the kernel would read the gaps, plus {@code POSIX_FADV_WILLNEED} for
+ *     the next blocks of the stride that fit into {@code lookahead};</li>
+ *     <li>random: {@code POSIX_FADV_RANDOM} and no prefetching, only the requested pages are read.</li>
+ * </ul>
+ * {@code WILLNEED} starts the reads and returns, the prefetch overlaps with the reads of the caller. At most
+ * {@code lookahead} bytes are prefetched beyond the last read, which bounds what a phase change wastes. The hints
+ * apply to the open file, not the inode, so controllers of other channels on the same file don't interfere.
+ * Not thread safe, use one controller per channel and thread.
+ */
+public class AdaptiveReadAhead {
+    public static final int History = 8;
+    /**
+     * Reads needed before the first classification.
+     */
+    public static final int MinReads = 4;
+    public static final long DefaultLookahead = 2 * 1024 * 1024;
+
+    // equal deltas in a row which make a stride
+    private static final int strideRun = MinReads - 1;
+    // prefetch requests per strided read at most
+    private static final int maxStrideBlocks = 32;
+
+    public enum Pattern {
+        /**
+         * Fewer than {@link AdaptiveReadAhead#MinReads} reads seen, the kernel default applies.
+         */
+        UNKNOWN,
+        /**
+         * The last 3 reads or at least 3/4 of the recent ones start where the previous read ended, up to a page
+         * later. A scan is picked up after 3 reads and a lookup phase ends it after 2.
+         */
+        SEQUENTIAL,
+        /**
+         * The last reads are a constant distance apart, forwards or backwards.
+         */
+        STRIDED,
+        RANDOM
+    }
+
+    private final FileChannel ch;
+    private final int fd;
+    private final long lookahead;
+
+    // ring of the last reads
+    private final long[] positions = new long[History];
+    private final int[] lengths = new int[History];
+    private long reads;
+
+    private Pattern pattern = Pattern.UNKNOWN;
+    // end of the sequential prefetch, next strided block not prefetched yet
+    private long prefetchEnd;
+    private long strideNext;
+
+    private long switches;
+    private long hints;
+    private long prefetchedBytes;
+
+    public AdaptiveReadAhead(FileChannel ch) {
+        this(ch, DefaultLookahead);
+    }
+
+    /**
+     * @param lookahead bytes prefetched beyond the last read at most
+     */
+    public AdaptiveReadAhead(FileChannel ch, long lookahead) {
+        if (lookahead <= 0) {
+            throw new IllegalArgumentException("Lookahead must be positive");
+        }
+        this.ch = ch;
+        this.fd = NativeIO.fd(ch);
+        this.lookahead = lookahead;
+    }
+
+    /**
+     * Records the read and reads into {@code dst} from {@code position}, same as
+     * {@link FileChannel#read(ByteBuffer, long)}.
+     */
+    public int read(ByteBuffer dst, long position) throws IOException {
+        observe(position, dst.remaining());
+        return ch.read(dst, position);
+    }
+
+    /**
+     * Records a read of {@code length} bytes at {@code position} and adjusts the hints, for callers which read
+     * the file another way, e.g. through a mapping of it.
+     */
+    public void observe(long position, int length) throws IOException {
+        int slot = (int) (reads % History);
+        positions[slot] = position;
+        lengths[slot] = length;
+        reads++;
+        Pattern next = classify();
+        if (next != pattern) {
+            switchTo(next, position, length);
+        }
+        if (pattern == Pattern.SEQUENTIAL) {
+            prefetchSequential(position + length);
+        } else if (pattern == Pattern.STRIDED) {
+            prefetchStrided(position, length, stride(0));
+        }
+    }
+
+    private Pattern classify() {
+        if (reads < MinReads) {
+            return pattern;
+        }
+        int deltas = (int) Math.min(reads, History) - 1;
+        int sequential = 0;
+        boolean recent = true;
+        for (int i = 0; i < deltas; i++) {
+            if (sequential(i)) {
+                sequential++;
+            } else if (i < strideRun) {
+                recent = false;
+            }
+        }
+        if (recent || sequential * 4 >= deltas * 3) {
+            return Pattern.SEQUENTIAL;
+        }
+        long stride = stride(0);
+        for (int i = 1; i < strideRun; i++) {
+            if (stride(i) != stride) {
+                return Pattern.RANDOM;
+            }
+        }
+        return stride == 0 ? Pattern.RANDOM : Pattern.STRIDED;
+    }
+
+    private void switchTo(Pattern next, long position, int length) throws IOException {
+        hint(0, 0, next == Pattern.SEQUENTIAL ? NativeIO.POSIX_FADV_SEQUENTIAL : NativeIO.POSIX_FADV_RANDOM);
+        pattern = next;
+        prefetchEnd = position + length;
+        strideNext = position;
+        switches++;
+    }
+
+    private void prefetchSequential(long end) throws IOException {
+        // top up when less than half the window is left
+        if (prefetchEnd - end < lookahead / 2) {
+            long from = Math.max(prefetchEnd, end);
+            prefetchEnd = end + lookahead;
+            hint(from, prefetchEnd - from, NativeIO.POSIX_FADV_WILLNEED);
+            prefetchedBytes += prefetchEnd - from;
+        }
+    }
+
+    private void prefetchStrided(long position, int length, long stride) throws IOException {
+        long blocks = Math.max(1, Math.min(maxStrideBlocks, lookahead / Math.max(length, 1)));
+        if ((strideNext - position) / stride < 1) {
+            strideNext = position + stride;
+        }
+        while ((strideNext - position) / stride <= blocks && strideNext >= 0) {
+            hint(strideNext, length, NativeIO.POSIX_FADV_WILLNEED);
+            prefetchedBytes += length;
+            strideNext += stride;
+        }
+    }
+
+    private void hint(long offset, long length, int advice) throws IOException {
+        NativeIO.fadvise(fd, offset, length, advice);
+        hints++;
+    }
+
+    // i-th most recent read, 0 is the last one
+    private long position(int i) {
+        return positions[(int) ((reads - 1 - i) % History)];
+    }
+
+    private int length(int i) {
+        return lengths[(int) ((reads - 1 - i) % History)];
+    }
+
+    // read i starts where the one before ended or up to a page later
+    private boolean sequential(int i) {
+        long gap = position(i) - position(i + 1) - length(i + 1);
+        return gap >= 0 && gap <= PageCacheInspector.PageSize;
+    }
+
+    private long stride(int i) {
+        return position(i) - position(i + 1);
+    }
+
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    public long getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * Times the pattern changed, including the first classification.
+     */
+    public long getSwitches() {
+        return switches;
+    }
+
+    /**
+     * {@code posix_fadvise} calls made.
+     */
+    public long getHints() {
+        return hints;
+    }
+
+    /**
+     * Bytes requested with {@code POSIX_FADV_WILLNEED}, some of them may have been in the page cache already.
+     */
+    public long getPrefetchedBytes() {
+        return prefetchedBytes;
+    }
+}
@@ -0,0 +1,98 @@
+package org.pagecache;
+
+import org.nativeio.NativeIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Page cache state a benchmark starts from. Apply it to the test file right before the measured part and record
+ * the returned residency with the result.
+ * <p>
+ * The policy for a run is taken from {@code -Dcache.policy=cold|warm|as_is}, {@link #COLD} by default.
+ */
+public enum CachePolicy {
+    /**
+     * Flush dirty pages with {@code fdatasync} and evict the file with {@code POSIX_FADV_DONTNEED}.
+     */
+    COLD {
+        @Override
+        void prepare(Path path) throws IOException {
+            try(FileChannel ch = FileChannel.open(path, READ)){
+                // dirty pages can't be dropped, write them back first
+                ch.force(false);
+                NativeIO.fadvise(NativeIO.fd(ch), 0, ch.size(), NativeIO.POSIX_FADV_DONTNEED);
+            }
+        }
+
+        @Override
+        boolean satisfied(PageCacheInspector.Residency residency) {
+            return residency.hitRatio() <= tolerance;
+        }
+    },
+    /**
+     * Read the whole file once so every page is in the page cache.
+     */
+    WARM {
+        @Override
+        void prepare(Path path) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1024 * 1024);
+            try(FileChannel ch = FileChannel.open(path, READ)){
+                while(ch.read(buf) > 0){
+                    buf.clear();
+                }
+            }
+        }
+
+        @Override
+        boolean satisfied(PageCacheInspector.Residency residency) {
+            // an empty file has no page to miss, hitRatio() is 0 for it
+            return residency.getTotalPages() == 0 || residency.hitRatio() >= 1 - tolerance;
+        }
+    },
+    /**
+     * Leave the page cache as it is, only report the state.
+     */
+    AS_IS {
+        @Override
+        void prepare(Path path) {
+        }
+
+        @Override
+        boolean satisfied(PageCacheInspector.Residency residency) {
+            return true;
+        }
+    };
+
+    public static final String Property = "cache.policy";
+
+    // share of pages allowed to be in the wrong state, e.g. pages mapped by another process can't be evicted
+    private static final double tolerance = 0.01;
+
+    abstract void prepare(Path path) throws IOException;
+
+    abstract boolean satisfied(PageCacheInspector.Residency residency);
+
+    /**
+     * Brings the file to the policy state and checks the result with {@link PageCacheInspector}.
+     *
+     * @throws IllegalStateException when the page cache didn't reach the state, e.g. on tmpfs where pages
+     *                               can't be evicted; the numbers measured after that would be misleading
+     */
+    public PageCacheInspector.Residency apply(Path path) throws IOException {
+        prepare(path);
+        PageCacheInspector.Residency residency = PageCacheInspector.inspect(path);
+        if (!satisfied(residency)) {
+            throw new IllegalStateException("Page cache is not " + this + " after preparing, " + residency);
+        }
+        return residency;
+    }
+
+    public static CachePolicy configured() {
+        return valueOf(System.getProperty(Property, COLD.name()).toUpperCase());
+    }
+}
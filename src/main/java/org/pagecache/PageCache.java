@@ -1,26 +1,20 @@
 package org.pagecache;
 
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultReader;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.*;
 import org.jfree.chart.plot.XYPlot;
-import org.jfree.chart.renderer.xy.XYItemRenderer;
 import org.jfree.chart.renderer.xy.XYSplineRenderer;
-import org.jfree.data.xy.XYDataItem;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 public class PageCache {
-    private static final String baseMainPath = "./src/main/resources/";
-
     public static final String Title = "Latency distribution by percentile";
 
     public static void main(String[] args) {
@@ -54,12 +48,23 @@ public class PageCache {
         frame.setVisible(true);
     }
 
-    private static JFreeChart getjFreeChart() throws IOException {
-        XYSeriesCollection dataset = getXySeriesCollection();
+    public static JFreeChart getjFreeChart() throws IOException {
+        BenchmarkResult aligned = ResultReader.read("alignedLatency.json");
+        BenchmarkResult notAligned = ResultReader.read("notAlignedLatency.json");
+        if (aligned.getSeries().size() > 1 && notAligned.getSeries().size() > 1) {
+            return getDistributionChart(aligned.getSeries().get(1), notAligned.getSeries().get(1));
+        }
+
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        dataset.addSeries(getPercentileSeries(aligned.getSeries().get(0)));
+        dataset.addSeries(getPercentileSeries(notAligned.getSeries().get(0)));
 
+        // *p*         | 0     | 0.5   | 0.9   | 0.95  | 0.99   | 0.999   | 0.9999
         SymbolAxis domain = new SymbolAxis("percentiles",
-                new String[]{"0", "0.5", "0.9", "0.95", "0.99", "0.999", "0.9999"});
-        PeriodAxis range = new PeriodAxis("time in millis");
+                aligned.getSeries().get(0).getPoints().stream()
+                        .map(BenchmarkResult.Point::getLabel)
+                        .toArray(String[]::new));
+        LogarithmicAxis range = new LogarithmicAxis("time in nanos");
 
         XYSplineRenderer r = new XYSplineRenderer(16);
         XYPlot xyplot = new XYPlot(dataset, domain, range, r);
@@ -68,46 +73,38 @@ public class PageCache {
         return chart;
     }
 
-    private static double[] getSeriesFromFile(String fileName) throws IOException {
-        String content = Files.readAllLines(Paths.get(baseMainPath + fileName), Charset.defaultCharset()).get(0);
-        String[] values = content.split(" ");
-        double[] output = new double[7];
-        output[0] = Double.parseDouble(values[0]);
-        output[1] = Double.parseDouble(values[1]);
-        output[2] = Double.parseDouble(values[2]);
-        output[3] = Double.parseDouble(values[3]);
-        output[4] = Double.parseDouble(values[4]);
-        output[5] = Double.parseDouble(values[5]);
-        output[6] = Double.parseDouble(values[6]);
-        return output;
-    }
+    private static JFreeChart getDistributionChart(BenchmarkResult.Series aligned,
+                                                   BenchmarkResult.Series notAligned) {
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        dataset.addSeries(getDistributionSeries(aligned));
+        dataset.addSeries(getDistributionSeries(notAligned));
 
-    private static XYSeriesCollection getXySeriesCollection() throws IOException {
-        // *p*         | 0     | 0.5   | 0.9   | 0.95  | 0.99   | 0.999   | 0.9999
+        // 1 = p90, 2 = p99, 3 = p99.9 ...
+        NumberAxis domain = new NumberAxis("percentile (number of nines)");
+        domain.setTickUnit(new NumberTickUnit(1));
+        LogarithmicAxis range = new LogarithmicAxis("time in nanos");
 
-        double[] seriesOutput = getSeriesFromFile("alignedLatencyPercentile.txt");
-        XYSeries series = new XYSeries("aligned");
-        series.add(0, seriesOutput[0]);
-        series.add(1, seriesOutput[1]);
-        series.add(2, seriesOutput[2]);
-        series.add(3, seriesOutput[3]);
-        series.add(4, seriesOutput[4]);
-        series.add(5, seriesOutput[5]);
-        series.add(6, seriesOutput[6]);
+        XYPlot xyplot = new XYPlot(dataset, domain, range, new XYSplineRenderer(16));
+        return new JFreeChart(xyplot);
+    }
 
-        double[] series2Output = getSeriesFromFile("notAlignedLatencyPercentile.txt");
-        XYSeries series2 = new XYSeries("non-aligned");
-        series2.add(0, series2Output[0]);
-        series2.add(1, series2Output[1]);
-        series2.add(2, series2Output[2]);
-        series2.add(3, series2Output[3]);
-        series2.add(4, series2Output[4]);
-        series2.add(5, series2Output[5]);
-        series2.add(6, series2Output[6]);
+    private static XYSeries getPercentileSeries(BenchmarkResult.Series resultSeries) {
+        XYSeries series = new XYSeries(resultSeries.getName());
+        // x axis is a symbol axis, points are placed by index
+        for (int i = 0; i < resultSeries.getPoints().size(); i++) {
+            series.add(i, resultSeries.getPoints().get(i).getValue());
+        }
+        return series;
+    }
 
-        XYSeriesCollection dataset = new XYSeriesCollection();
-        dataset.addSeries(series);
-        dataset.addSeries(series2);
-        return dataset;
+    private static XYSeries getDistributionSeries(BenchmarkResult.Series resultSeries) {
+        XYSeries series = new XYSeries(resultSeries.getName());
+        // the last bucket holds the max, its quantile is 1.0 so it is put one nine after the previous point
+        double nines = 0;
+        for (BenchmarkResult.Point point : resultSeries.getPoints()) {
+            nines = point.getX() >= 1 ? nines + 1 : -Math.log10(1 - point.getX());
+            series.addOrUpdate(nines, point.getValue());
+        }
+        return series;
     }
 }
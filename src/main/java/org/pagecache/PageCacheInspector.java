@@ -0,0 +1,115 @@
+package org.pagecache;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Pointer;
+import org.nativeio.LibC;
+import org.nativeio.NativeIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tells how much of a file is in the page cache: maps the file region and asks the kernel with {@code mincore(2)}
+ * which pages are resident. Mapping alone doesn't fault pages in, so the inspection doesn't change the answer.
+ */
+public class PageCacheInspector {
+    public static final int PageSize = LibC.INSTANCE.getpagesize();
+
+    // map at most 256MB at once to bound the address space and the mincore vector
+    private static final long windowSize = 256L * 1024 * 1024;
+
+    private PageCacheInspector() {
+    }
+
+    public static Residency inspect(Path path) throws IOException {
+        return inspect(path, 0, Files.size(path));
+    }
+
+    public static Residency inspect(Path path, long offset, long length) throws IOException {
+        long fileSize = Files.size(path);
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Negative range: offset " + offset + ", length " + length);
+        }
+        long end = Math.min(fileSize, offset + length);
+        // mmap offset must be page aligned
+        long from = offset - offset % PageSize;
+        if (end <= from) {
+            return new Residency(path, offset, 0, 0);
+        }
+
+        LibC libc = LibC.INSTANCE;
+        int fd;
+        try {
+            fd = libc.open(path.toString(), LibC.O_RDONLY);
+        } catch (LastErrorException e) {
+            throw new IOException("open " + path + " failed, errno " + e.getErrorCode(), e);
+        }
+        try {
+            long totalPages = 0;
+            long residentPages = 0;
+            ByteBuffer vec = ByteBuffer.allocateDirect((int) (Math.min(windowSize, end - from) / PageSize) + 1);
+            for (long position = from; position < end; position += windowSize) {
+                long size = Math.min(windowSize, end - position);
+                int pages = (int) ((size + PageSize - 1) / PageSize);
+                Pointer addr = libc.mmap(null, size, LibC.PROT_READ, LibC.MAP_SHARED, fd, position);
+                try {
+                    NativeIO.mincore(Pointer.nativeValue(addr), size, vec);
+                } finally {
+                    libc.munmap(addr, size);
+                }
+                for (int i = 0; i < pages; i++) {
+                    // the lowest bit is set when the page is resident
+                    residentPages += vec.get(i) & 1;
+                }
+                totalPages += pages;
+            }
+            return new Residency(path, from, totalPages, residentPages);
+        } catch (LastErrorException e) {
+            throw new IOException("mmap " + path + " failed, errno " + e.getErrorCode(), e);
+        } finally {
+            libc.close(fd);
+        }
+    }
+
+    public static class Residency {
+        private final Path path;
+        private final long offset;
+        private final long totalPages;
+        private final long residentPages;
+
+        Residency(Path path, long offset, long totalPages, long residentPages) {
+            this.path = path;
+            this.offset = offset;
+            this.totalPages = totalPages;
+            this.residentPages = residentPages;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getTotalPages() {
+            return totalPages;
+        }
+
+        public long getResidentPages() {
+            return residentPages;
+        }
+
+        public double hitRatio() {
+            return totalPages == 0 ? 0 : (double) residentPages / totalPages;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d of %d pages resident (%.1f%%)",
+                    path, residentPages, totalPages, hitRatio() * 100);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package org.pagecache;
+
+import org.directbuffer.DirectBufferPool;
+import org.nativeio.ErrnoException;
+import org.nativeio.NativeIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Sequential reader of a file with a background thread which keeps {@code depth} chunks of {@code chunkSize}
+ * bytes ahead of the consumer, for scans faster than the kernel read-ahead window (128KB by default, 256KB with
+ * {@code POSIX_FADV_SEQUENTIAL}) lets a drive go.
+ * <ul>
+ *     <li>{@link Mode#READAHEAD}: the thread queues reads of the chunks ahead of the consumer into the page cache
+ *     with {@code readahead(2)}, which returns without waiting for them, the consumer reads them from there with
+ *     plain reads.</li>
+ *     <li>{@link Mode#BUFFERED}: the thread reads the chunks into {@code depth} pooled direct buffers and hands them
+ *     over through a queue, the way {@link org.transferTo.StreamingCopy} does, and keeps the drive busy with
+ *     {@code POSIX_FADV_WILLNEED} for the {@code depth} chunks from the one it reads on. Chunks already handed over
+ *     don't depend on the pages staying cached, at the cost of a copy into the consumer buffer.</li>
+ * </ul>
+ * The kernel cuts a single {@code readahead(2)} or {@code WILLNEED} call to its read-ahead window (or the device's
+ * largest request), so both modes issue them in 128KB pieces. Neither call waits for the reads, the lookahead is
+ * bounded by {@code depth} alone: when the consumer stalls the thread stops at {@code depth} chunks ahead and waits
+ * for it, instead of filling the page cache with pages which may be evicted again before they are read.
+ * Not thread safe, one consumer per reader.
+ */
+public class PrefetchingReader implements ReadableByteChannel {
+    public enum Mode {
+        READAHEAD,
+        BUFFERED
+    }
+
+    // the smallest read-ahead window the kernel cuts a prefetch request to, see prefetch
+    private static final int HintSize = 128 * 1024;
+
+    // queued after the last chunk, and to the buffered prefetcher to stop it early
+    private static final ByteBuffer EndOfStream = ByteBuffer.allocateDirect(0);
+
+    private final FileChannel ch;
+    private final boolean ownsChannel;
+    private final int chunkSize;
+    private final int depth;
+    private final Mode mode;
+    private final long size;
+    private final ExecutorService executor;
+    private final Future<?> prefetcher;
+
+    // consumer position, read by the prefetcher
+    private volatile long position;
+    private volatile boolean closed;
+    private final Object progress = new Object();
+
+    // BUFFERED: buffers go around between the two queues, current is the one the consumer reads from
+    private final BlockingQueue<ByteBuffer> empty;
+    private final BlockingQueue<ByteBuffer> filled;
+    private ByteBuffer current;
+
+    private volatile long prefetchedBytes;
+    private volatile long prefetcherWaitNanos;
+    private long consumerWaitNanos;
+
+    public PrefetchingReader(Path path, int chunkSize, int depth, Mode mode) throws IOException {
+        this(FileChannel.open(path, READ), true, 0, chunkSize, depth, mode);
+    }
+
+    /**
+     * Reads {@code ch} from {@code position} to its current end. The channel is read with positional reads only
+     * and isn't closed with the reader.
+     */
+    public PrefetchingReader(FileChannel ch, long position, int chunkSize, int depth, Mode mode) throws IOException {
+        this(ch, false, position, chunkSize, depth, mode);
+    }
+
+    private PrefetchingReader(FileChannel ch, boolean ownsChannel, long position, int chunkSize, int depth, Mode mode)
+            throws IOException {
+        this.ch = ch;
+        this.ownsChannel = ownsChannel;
+        this.chunkSize = chunkSize;
+        this.depth = depth;
+        this.mode = mode;
+        this.position = position;
+        // whatever was taken before a failure goes back, the reader is never returned to close it
+        BlockingQueue<ByteBuffer> buffers = null;
+        ExecutorService started = null;
+        try {
+            if (chunkSize <= 0 || depth <= 0) {
+                throw new IllegalArgumentException("Chunk size and depth must be positive");
+            }
+            this.size = ch.size();
+            int fd = NativeIO.fd(ch);
+            if (mode == Mode.BUFFERED) {
+                // taken here and returned on close, the pool caches buffers per thread
+                buffers = new ArrayBlockingQueue<>(depth + 1);
+                for (int i = 0; i < depth; i++) {
+                    buffers.add(DirectBufferPool.shared().acquire(chunkSize));
+                }
+                empty = buffers;
+                filled = new ArrayBlockingQueue<>(depth + 1);
+            } else {
+                empty = filled = null;
+            }
+            started = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "prefetcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = started;
+            if (mode == Mode.BUFFERED) {
+                prefetcher = executor.submit(() -> {
+                    try {
+                        fill(fd, position);
+                    } finally {
+                        // both queues have room for every buffer plus the marker
+                        filled.add(EndOfStream);
+                    }
+                    return null;
+                });
+            } else {
+                prefetcher = executor.submit(() -> {
+                    readAhead(fd, position);
+                    return null;
+                });
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            if (started != null) {
+                started.shutdownNow();
+            }
+            if (buffers != null) {
+                drain(buffers);
+            }
+            if (ownsChannel) {
+                try {
+                    ch.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        int read = mode == Mode.BUFFERED ? readBuffered(dst) : readDirect(dst);
+        if (read > 0) {
+            position += read;
+            if (mode == Mode.READAHEAD) {
+                synchronized (progress) {
+                    progress.notify();
+                }
+            }
+        }
+        return read;
+    }
+
+    private int readDirect(ByteBuffer dst) throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+        return ch.read(dst, position);
+    }
+
+    private int readBuffered(ByteBuffer dst) throws IOException {
+        if (current == null || !current.hasRemaining()) {
+            if (current != null) {
+                empty.add(current);
+                current = null;
+            }
+            long waitStart = System.nanoTime();
+            ByteBuffer next;
+            try {
+                next = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            consumerWaitNanos += System.nanoTime() - waitStart;
+            if (next == EndOfStream) {
+                // keeps the marker for the next call
+                filled.add(EndOfStream);
+                failIfPrefetcherFailed();
+                return -1;
+            }
+            current = next;
+        }
+        int count = Math.min(dst.remaining(), current.remaining());
+        ByteBuffer slice = current.duplicate();
+        slice.limit(slice.position() + count);
+        dst.put(slice);
+        current.position(current.position() + count);
+        return count;
+    }
+
+    // READAHEAD: keeps [position, position + depth chunks) in the page cache
+    private void readAhead(int fd, long from) throws IOException, InterruptedException {
+        long next = from;
+        while (!closed && next < size) {
+            long consumer = position;
+            if (next < consumer) {
+                // overtaken, the data behind the consumer is of no use any more
+                next = consumer;
+            }
+            if (next - consumer >= (long) depth * chunkSize) {
+                long waitStart = System.nanoTime();
+                synchronized (progress) {
+                    if (!closed && position == consumer) {
+                        progress.wait(10);
+                    }
+                }
+                prefetcherWaitNanos += System.nanoTime() - waitStart;
+                continue;
+            }
+            long length = Math.min(chunkSize, size - next);
+            try {
+                // only queues the reads and returns, the depth check above is what bounds the loop
+                prefetch(fd, next, length, true);
+            } catch (ErrnoException e) {
+                // EINVAL on file systems without read-ahead, the consumer reads without prefetching
+                return;
+            }
+            prefetchedBytes += length;
+            next += length;
+        }
+    }
+
+    // BUFFERED: fills buffers until the end of the file or until stopped with the marker
+    private void fill(int fd, long from) throws IOException, InterruptedException {
+        long next = from;
+        long hinted = from;
+        while (next < size) {
+            long waitStart = System.nanoTime();
+            ByteBuffer buf = empty.take();
+            prefetcherWaitNanos += System.nanoTime() - waitStart;
+            if (buf == EndOfStream) {
+                break;
+            }
+            buf.clear().limit((int) Math.min(chunkSize, size - next));
+            // the read below waits for one chunk, the hint keeps requests for the following ones queued,
+            // after the first chunk that is one more chunk per chunk read
+            long hintTo = Math.min(size, next + (long) depth * chunkSize);
+            if (hinted < hintTo) {
+                prefetch(fd, hinted, hintTo - hinted, false);
+                hinted = hintTo;
+            }
+            while(buf.hasRemaining()){
+                if (ch.read(buf, next + buf.position()) < 0) {
+                    break;
+                }
+            }
+            buf.flip();
+            if (!buf.hasRemaining()) {
+                // the file was truncated
+                empty.add(buf);
+                break;
+            }
+            next += buf.remaining();
+            prefetchedBytes += buf.remaining();
+            filled.add(buf);
+        }
+    }
+
+    // the kernel cuts a single readahead(2) or WILLNEED call down to the larger of the file's read-ahead window
+    // (read_ahead_kb, 128KB by default) and the device's largest request, so longer ranges go out in pieces
+    private static void prefetch(int fd, long offset, long length, boolean readahead) throws IOException {
+        long end = offset + length;
+        for (long from = offset; from < end; from += HintSize) {
+            long piece = Math.min(HintSize, end - from);
+            if (readahead) {
+                NativeIO.readahead(fd, from, piece);
+            } else {
+                NativeIO.fadvise(fd, from, piece, NativeIO.POSIX_FADV_WILLNEED);
+            }
+        }
+    }
+
+    // the prefetcher queues the marker right before it finishes
+    private void failIfPrefetcherFailed() throws IOException {
+        try {
+            prefetcher.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Offset of the next byte the consumer reads.
+     */
+    public long position() {
+        return position;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Bytes read ahead of the consumer so far.
+     */
+    public long getPrefetchedBytes() {
+        return prefetchedBytes;
+    }
+
+    /**
+     * Time the prefetcher waited for the consumer, high when the consumer is the bottleneck or stalled.
+     */
+    public long getPrefetcherWaitNanos() {
+        return prefetcherWaitNanos;
+    }
+
+    /**
+     * Time the consumer waited for a filled buffer, high when the drive is the bottleneck. Always 0 with
+     * {@link Mode#READAHEAD}, there the wait is inside the reads.
+     */
+    public long getConsumerWaitNanos() {
+        return consumerWaitNanos;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Stops the prefetcher, returns the buffers and closes the channel if the reader opened it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (mode == Mode.BUFFERED) {
+                empty.add(EndOfStream);
+            } else {
+                synchronized (progress) {
+                    progress.notify();
+                }
+            }
+            executor.shutdown();
+            awaitPrefetcher();
+            if (mode == Mode.BUFFERED) {
+                if (current != null) {
+                    DirectBufferPool.shared().release(current);
+                    current = null;
+                }
+                drain(empty);
+                drain(filled);
+            }
+        } finally {
+            if (ownsChannel) {
+                ch.close();
+            }
+        }
+    }
+
+    private void awaitPrefetcher() {
+        boolean interrupted = false;
+        try {
+            // the prefetcher must be done with the buffers before they go back to the pool
+            while (true) {
+                try {
+                    if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void drain(BlockingQueue<ByteBuffer> queue) {
+        ByteBuffer buf;
+        while ((buf = queue.poll()) != null) {
+            if (buf != EndOfStream) {
+                DirectBufferPool.shared().release(buf);
+            }
+        }
+    }
+}
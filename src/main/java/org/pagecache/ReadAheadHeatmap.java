@@ -0,0 +1,121 @@
+package org.pagecache;
+
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultReader;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.annotations.XYTextAnnotation;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.NumberTickUnit;
+import org.jfree.chart.axis.SymbolAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.LookupPaintScale;
+import org.jfree.chart.renderer.xy.XYBlockRenderer;
+import org.jfree.chart.title.PaintScaleLegend;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.xy.DefaultXYZDataset;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Heatmap of the read-ahead matrix: one row per access pattern and block size, one column per
+ * {@code posix_fadvise} advice. A cell is colored by its time relative to the fastest advice of the row, so the
+ * green cell of a row is the hint to use for that pattern; the label is the time in ms.
+ */
+public class ReadAheadHeatmap {
+    public static final String Title = "Read-ahead: advice x access pattern x block size";
+    public static final String OutputFile = "readAheadMatrix.json";
+
+    // relative time -> color, 1 is the fastest advice of the row
+    private static final double[] steps = {1, 1.1, 1.25, 1.5, 2, 4};
+    private static final Color[] colors = {
+            new Color(0x1a9850), new Color(0x91cf60), new Color(0xd9ef8b),
+            new Color(0xfee08b), new Color(0xfc8d59), new Color(0xd73027)};
+
+    public static void main(String[] args) {
+        try {
+            EventQueue.invokeLater(() -> {
+                try {
+                    display();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        catch (Exception ex){
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static void display() throws IOException {
+        JFreeChart chart = getjFreeChart();
+        ChartPanel chartPanel = new ChartPanel(chart){
+            @Override
+            public Dimension getPreferredSize() {
+                return new Dimension(2048, 2304);
+            }
+        };
+        JFrame frame = new JFrame(Title);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.add(chartPanel);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    public static JFreeChart getjFreeChart() throws IOException {
+        List<BenchmarkResult.Series> rows = ResultReader.read(OutputFile).getSeries();
+        List<BenchmarkResult.Point> firstRow = rows.get(0).getPoints();
+
+        int cells = rows.size() * firstRow.size();
+        double[][] data = new double[3][cells];
+        XYPlot xyplot = new XYPlot();
+        int cell = 0;
+        for (int row = 0; row < rows.size(); row++) {
+            List<BenchmarkResult.Point> points = rows.get(row).getPoints();
+            double best = points.stream().mapToDouble(BenchmarkResult.Point::getValue).min().orElse(1);
+            for (int column = 0; column < points.size(); column++) {
+                double value = points.get(column).getValue();
+                data[0][cell] = column;
+                data[1][cell] = row;
+                // a 0 ms cell is as fast as it gets
+                data[2][cell] = best > 0 ? value / best : 1;
+                xyplot.addAnnotation(new XYTextAnnotation(String.valueOf(Math.round(value)), column, row));
+                cell++;
+            }
+        }
+        DefaultXYZDataset dataset = new DefaultXYZDataset();
+        dataset.addSeries("relative time", data);
+
+        SymbolAxis domain = new SymbolAxis("advice",
+                firstRow.stream().map(BenchmarkResult.Point::getLabel).toArray(String[]::new));
+        SymbolAxis range = new SymbolAxis("access pattern, block size",
+                rows.stream().map(BenchmarkResult.Series::getName).toArray(String[]::new));
+        range.setInverted(true);
+
+        // slower than the last step gets the last color too
+        LookupPaintScale scale = new LookupPaintScale(steps[0], steps[steps.length - 1], colors[colors.length - 1]);
+        for (int i = 0; i < steps.length; i++) {
+            scale.add(steps[i], colors[i]);
+        }
+        XYBlockRenderer r = new XYBlockRenderer();
+        r.setPaintScale(scale);
+
+        xyplot.setDataset(dataset);
+        xyplot.setDomainAxis(domain);
+        xyplot.setRangeAxis(range);
+        xyplot.setRenderer(r);
+
+        JFreeChart chart = new JFreeChart(xyplot);
+        chart.removeLegend();
+        NumberAxis scaleAxis = new NumberAxis("time relative to the fastest advice");
+        scaleAxis.setTickUnit(new NumberTickUnit(0.5));
+        PaintScaleLegend legend = new PaintScaleLegend(scale, scaleAxis);
+        legend.setPosition(RectangleEdge.RIGHT);
+        chart.addSubtitle(legend);
+        return chart;
+    }
+}
@@ -0,0 +1,260 @@
+package org.transferTo;
+
+import org.directbuffer.DirectBufferPool;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Serves ranges of one file over loopback TCP, the way a broker sends segment files to replicas. A request is the
+ * position and byte count as two longs, the reply is the length actually served (clamped to the file) and the
+ * bytes. Every connection has its own thread, {@link Mode} decides how the bytes get from the file to the socket.
+ * <p>
+ * The server counts the CPU time of its connection threads (user and system, from {@link ThreadMXBean}), this is
+ * the cost which differs between the modes; the client side is the same for all of them.
+ */
+public class FileServer implements Closeable {
+    public enum Mode {
+        /**
+         * {@code FileChannel.transferTo} to the socket, {@code sendfile} moves the pages without a copy to user space.
+         */
+        TRANSFER_TO,
+        /**
+         * Positional read into a pooled direct buffer, then write: two copies between kernel and user space.
+         */
+        DIRECT_BUFFER,
+        /**
+         * Read into a heap buffer, then write: the JDK adds a copy through a temporary direct buffer on each side.
+         */
+        HEAP_BUFFER
+    }
+
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private final FileChannel file;
+    private final Mode mode;
+    private final int bufferSize;
+    private final ServerSocketChannel server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "file-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+
+    public FileServer(Path path, Mode mode, int bufferSize) throws IOException {
+        this.file = FileChannel.open(path, READ);
+        this.mode = mode;
+        this.bufferSize = bufferSize;
+        try {
+            this.server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        executor.execute(this::accept);
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getBytesServed() {
+        return bytesServed.sum();
+    }
+
+    /**
+     * CPU time spent serving requests, summed over connection threads.
+     */
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                SocketChannel socket = server.accept();
+                connections.add(socket);
+                executor.execute(() -> serve(socket));
+            }
+        } catch (IOException e) {
+            // closed
+        }
+    }
+
+    private void serve(SocketChannel socket) {
+        ByteBuffer request = ByteBuffer.allocateDirect(16);
+        // taken on the connection thread and returned there, the pool caches buffers per thread
+        ByteBuffer buf = mode == Mode.DIRECT_BUFFER ? DirectBufferPool.shared().acquire(bufferSize)
+                : mode == Mode.HEAP_BUFFER ? ByteBuffer.allocate(bufferSize) : null;
+        try(SocketChannel s = socket){
+            while (readFully(s, request)) {
+                long startCpu = threadBean.getCurrentThreadCpuTime();
+                long position = request.getLong(0);
+                long count = Math.max(0, Math.min(request.getLong(8), file.size() - position));
+                request.clear().limit(8);
+                request.putLong(0, count);
+                writeFully(s, request);
+                long served = mode == Mode.TRANSFER_TO ? transferTo(s, position, count) : copy(s, buf, position, count);
+                bytesServed.add(served);
+                cpuNanos.add(threadBean.getCurrentThreadCpuTime() - startCpu);
+                request.clear();
+            }
+        } catch (IOException e) {
+            // client is gone or the server is closing
+        } finally {
+            connections.remove(socket);
+            if (mode == Mode.DIRECT_BUFFER) {
+                DirectBufferPool.shared().release(buf);
+            }
+        }
+    }
+
+    private long transferTo(SocketChannel socket, long position, long count) throws IOException {
+        long sent = 0;
+        while (sent < count) {
+            long bytes = file.transferTo(position + sent, count - sent, socket);
+            if (bytes <= 0) {
+                throw new EOFException("File ended at " + (position + sent));
+            }
+            sent += bytes;
+        }
+        return sent;
+    }
+
+    private long copy(SocketChannel socket, ByteBuffer buf, long position, long count) throws IOException {
+        long sent = 0;
+        while (sent < count) {
+            buf.clear().limit((int) Math.min(buf.capacity(), count - sent));
+            if (file.read(buf, position + sent) < 0) {
+                throw new EOFException("File ended at " + (position + sent));
+            }
+            buf.flip();
+            sent += writeFully(socket, buf);
+        }
+        return sent;
+    }
+
+    private static boolean readFully(SocketChannel socket, ByteBuffer buf) throws IOException {
+        while(buf.hasRemaining()){
+            if (socket.read(buf) < 0) {
+                if (buf.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Connection closed in the middle of a message");
+            }
+        }
+        return true;
+    }
+
+    private static int writeFully(SocketChannel socket, ByteBuffer buf) throws IOException {
+        int written = 0;
+        while(buf.hasRemaining()){
+            written += socket.write(buf);
+        }
+        return written;
+    }
+
+    /**
+     * Closes the connections and waits for their threads, the counters are final after that.
+     */
+    @Override
+    public void close() throws IOException {
+        try(FileChannel f = file; ServerSocketChannel s = server){
+            s.close();
+            for (SocketChannel connection : connections) {
+                connection.close();
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                throw new IOException("Connection threads didn't stop in 10 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Connection to a {@link FileServer}, not thread safe.
+     */
+    public static class Client implements Closeable {
+        private final SocketChannel socket;
+        private final ByteBuffer header = ByteBuffer.allocateDirect(16);
+        private final ByteBuffer discard;
+
+        public Client(int port, int bufferSize) throws IOException {
+            this.socket = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            this.discard = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        /**
+         * Fetches up to {@code count} bytes from {@code position} and drops them, returns the bytes received.
+         */
+        public long fetch(long position, long count) throws IOException {
+            return fetch(position, count, null);
+        }
+
+        /**
+         * Fetches up to {@code count} bytes from {@code position} into {@code out}, returns the bytes received.
+         */
+        public long fetch(long position, long count, WritableByteChannel out) throws IOException {
+            header.clear();
+            header.putLong(0, position).putLong(8, count);
+            writeFully(socket, header);
+            header.clear().limit(8);
+            if (!readFully(socket, header)) {
+                throw new ClosedChannelException();
+            }
+            long length = header.getLong(0);
+            long received = 0;
+            while (received < length) {
+                discard.clear().limit((int) Math.min(discard.capacity(), length - received));
+                int bytes = socket.read(discard);
+                if (bytes < 0) {
+                    throw new EOFException("Connection closed after " + received + " of " + length + " bytes");
+                }
+                received += bytes;
+                if (out != null) {
+                    discard.flip();
+                    while(discard.hasRemaining()){
+                        out.write(discard);
+                    }
+                }
+            }
+            return received;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.transferTo;
+
+import org.nativeio.ErrnoException;
+import org.nativeio.NativeIO;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Copies a file with {@code threads} workers, one {@code transferTo} stream leaves most of an NVMe drive idle.
+ * The file is cut into {@code chunkSize} ranges which the workers take in order from a shared cursor, so a slow
+ * range doesn't hold up the others. Every worker has its own source and destination channel and copies a range
+ * with a positional {@code transferTo} ({@code sendfile}) or, with {@link Method#COPY_FILE_RANGE},
+ * {@code copy_file_range(2)}. The latter lets the file system clone extents (reflink on XFS and Btrfs) or copy on
+ * the server (NFS 4.2, SMB), then no data goes through the page cache at all.
+ */
+public class ParallelCopy {
+    private static final int EXDEV = 18;
+    private static final int EINVAL = 22;
+    private static final int ENOSYS = 38;
+    private static final int EOPNOTSUPP = 95;
+
+    public enum Method {
+        TRANSFER_TO,
+        /**
+         * {@code copy_file_range}, falls back to {@code transferTo} when the kernel or file system doesn't support it
+         * (before Linux 4.5, across file systems before 5.3, some FUSE and special file systems).
+         */
+        COPY_FILE_RANGE
+    }
+
+    private final int threads;
+    private final long chunkSize;
+    private final Method method;
+
+    public ParallelCopy(int threads, long chunkSize, Method method) {
+        if (threads <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Threads and chunk size must be positive");
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.method = method;
+    }
+
+    /**
+     * Copies {@code src} to {@code dst}, replacing its content.
+     */
+    public Result copy(Path src, Path dst) throws IOException {
+        long size;
+        try(FileChannel in = FileChannel.open(src, READ);
+            FileChannel out = FileChannel.open(dst, CREATE, TRUNCATE_EXISTING, WRITE)){
+            size = in.size();
+        }
+        long chunks = (size + chunkSize - 1) / chunkSize;
+        int workers = (int) Math.max(1, Math.min(threads, chunks));
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        Run run = new Run(size);
+        try {
+            // workers open their channels first and wait for each other, the elapsed time is copying only
+            CountDownLatch ready = new CountDownLatch(workers);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> futures = new ArrayList<>(workers);
+            for (int t = 0; t < workers; t++) {
+                futures.add(executor.submit(() -> {
+                    FileChannel in = null;
+                    FileChannel out = null;
+                    try {
+                        in = FileChannel.open(src, READ);
+                        out = FileChannel.open(dst, WRITE);
+                    } catch (IOException e) {
+                        if (in != null) {
+                            in.close();
+                        }
+                        throw e;
+                    } finally {
+                        ready.countDown();
+                    }
+                    try(FileChannel source = in; FileChannel target = out){
+                        start.await();
+                        return copyRanges(run, source, target);
+                    }
+                }));
+            }
+            ready.await();
+            long startNanos = System.nanoTime();
+            start.countDown();
+            long bytes = 0;
+            for (Future<Long> future : futures) {
+                bytes += future.get();
+            }
+            return new Result(workers, bytes, System.nanoTime() - startNanos, run.copyFileRangeBytes.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            // a failed copy returns only once no worker writes to the destination any more
+            StreamingCopy.awaitTermination(executor);
+        }
+    }
+
+    private long copyRanges(Run run, FileChannel in, FileChannel out) throws IOException {
+        long copied = 0;
+        long chunk;
+        while ((chunk = run.nextChunk.getAndIncrement()) * chunkSize < run.size) {
+            long from = chunk * chunkSize;
+            long to = Math.min(from + chunkSize, run.size);
+            long position = from;
+            if (run.copyFileRange) {
+                position = copyFileRange(run, in, out, from, to);
+            }
+            position = transferTo(in, out, position, to);
+            copied += position - from;
+        }
+        return copied;
+    }
+
+    // copies [from, to) with copy_file_range, returns where it stopped: to, or earlier when it isn't supported
+    private long copyFileRange(Run run, FileChannel in, FileChannel out, long from, long to) throws IOException {
+        // copy_file_range works on the file positions, every worker has channels of its own
+        in.position(from);
+        out.position(from);
+        int fdIn = NativeIO.fd(in);
+        int fdOut = NativeIO.fd(out);
+        long position = from;
+        try {
+            while (position < to) {
+                long copied = NativeIO.copyFileRange(fdIn, fdOut, to - position);
+                if (copied == 0) {
+                    // source is shorter than it was
+                    break;
+                }
+                position += copied;
+                run.copyFileRangeBytes.addAndGet(copied);
+            }
+        } catch (ErrnoException e) {
+            int errno = e.getErrno();
+            if (errno != EXDEV && errno != EINVAL && errno != ENOSYS && errno != EOPNOTSUPP) {
+                throw e;
+            }
+            run.copyFileRange = false;
+        }
+        return position;
+    }
+
+    private static long transferTo(FileChannel in, FileChannel out, long from, long to) throws IOException {
+        long position = from;
+        out.position(from);
+        while (position < to) {
+            long transferred = in.transferTo(position, to - position, out);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+        return position;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    private final class Run {
+        final long size;
+        final AtomicLong nextChunk = new AtomicLong();
+        final AtomicLong copyFileRangeBytes = new AtomicLong();
+        // turned off by the first worker which finds copy_file_range unsupported
+        volatile boolean copyFileRange = method == Method.COPY_FILE_RANGE;
+
+        Run(long size) {
+            this.size = size;
+        }
+    }
+
+    public static class Result {
+        private final int threads;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final long copyFileRangeBytes;
+
+        Result(int threads, long bytes, long elapsedNanos, long copyFileRangeBytes) {
+            this.threads = threads;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.copyFileRangeBytes = copyFileRangeBytes;
+        }
+
+        /**
+         * Workers used, no more than there are chunks.
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Bytes copied with {@code copy_file_range}, the rest went through {@code transferTo}.
+         */
+        public long getCopyFileRangeBytes() {
+            return copyFileRangeBytes;
+        }
+
+        public double throughputMbs() {
+            return bytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.transferTo;
+
+import org.directbuffer.DirectBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Copies a file through {@code depth} pooled direct buffers of {@code bufferSize} bytes: a reader thread fills
+ * chunk N + 1 while the calling thread writes chunk N, so reads and writes overlap and the memory used is
+ * {@code depth * bufferSize} whatever the file size. Filled buffers go to the writer and empty ones back to the
+ * reader through two bounded queues, with two buffers the copy is double buffered, more give room for latency
+ * spikes of either side.
+ */
+public class StreamingCopy {
+    // queued after the last chunk, and to the reader to stop it early
+    private static final ByteBuffer EndOfStream = ByteBuffer.allocateDirect(0);
+
+    private final int bufferSize;
+    private final int depth;
+    private ProgressListener listener = (copied, total) -> {};
+
+    public StreamingCopy(int bufferSize, int depth) {
+        if (bufferSize <= 0 || depth < 2) {
+            throw new IllegalArgumentException("Buffer size must be positive and depth at least 2");
+        }
+        this.bufferSize = bufferSize;
+        this.depth = depth;
+    }
+
+    /**
+     * Called on the copying thread after every written chunk.
+     */
+    public StreamingCopy progress(ProgressListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Copies {@code src} to {@code dst}, replacing its content.
+     */
+    public Result copy(Path src, Path dst) throws IOException {
+        try(FileChannel in = FileChannel.open(src, READ);
+            FileChannel out = FileChannel.open(dst, CREATE, TRUNCATE_EXISTING, WRITE)){
+            return copy(in, 0, in.size(), out, 0);
+        }
+    }
+
+    /**
+     * Copies {@code count} bytes of {@code src} from {@code position} to {@code dst} at {@code dstPosition}, stops
+     * early at the end of {@code src}. Both channels are accessed with positional reads and writes only.
+     */
+    public Result copy(FileChannel src, long position, long count, FileChannel dst, long dstPosition) throws IOException {
+        // taken and returned here, the pool caches buffers per thread and the reader is gone after the copy
+        BlockingQueue<ByteBuffer> empty = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i < depth; i++) {
+            empty.add(DirectBufferPool.shared().acquire(bufferSize));
+        }
+        BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(depth + 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        long startNanos = System.nanoTime();
+        // taken from filled and not yet back in empty, released in finally if a write fails
+        ByteBuffer writing = null;
+        try {
+            Future<Long> reader = executor.submit(() -> {
+                try {
+                    return read(src, position, count, empty, filled);
+                } finally {
+                    // both queues have room for every buffer plus the marker
+                    filled.add(EndOfStream);
+                }
+            });
+            long written = 0;
+            long writerWaitNanos = 0;
+            while (true) {
+                long waitStart = System.nanoTime();
+                ByteBuffer buf = filled.take();
+                writerWaitNanos += System.nanoTime() - waitStart;
+                if (buf == EndOfStream) {
+                    break;
+                }
+                writing = buf;
+                while(buf.hasRemaining()){
+                    written += dst.write(buf, dstPosition + written);
+                }
+                writing = null;
+                empty.add(buf);
+                listener.onProgress(written, count);
+            }
+            long readerWaitNanos = reader.get();
+            return new Result(written, System.nanoTime() - startNanos, readerWaitNanos, writerWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            // stops a reader still running after a failed write, interrupting it would close the source channel
+            empty.add(EndOfStream);
+            executor.shutdown();
+            // the reader must be done with the buffers before they go back to the pool
+            awaitTermination(executor);
+            drain(empty);
+            drain(filled);
+            if (writing != null) {
+                DirectBufferPool.shared().release(writing);
+            }
+        }
+    }
+
+    // fills buffers until count bytes are read or the file ends, returns the time spent waiting for empty buffers
+    private long read(FileChannel src, long position, long count, BlockingQueue<ByteBuffer> empty, BlockingQueue<ByteBuffer> filled)
+            throws IOException, InterruptedException {
+        long read = 0;
+        long waitNanos = 0;
+        while (read < count) {
+            long waitStart = System.nanoTime();
+            ByteBuffer buf = empty.take();
+            waitNanos += System.nanoTime() - waitStart;
+            if (buf == EndOfStream) {
+                break;
+            }
+            buf.clear().limit((int) Math.min(bufferSize, count - read));
+            while(buf.hasRemaining()){
+                int bytes = src.read(buf, position + read + buf.position());
+                if (bytes < 0) {
+                    break;
+                }
+            }
+            buf.flip();
+            read += buf.remaining();
+            if (!buf.hasRemaining()) {
+                empty.add(buf);
+                break;
+            }
+            filled.add(buf);
+        }
+        return waitNanos;
+    }
+
+    static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void drain(BlockingQueue<ByteBuffer> queue) {
+        ByteBuffer buf;
+        while ((buf = queue.poll()) != null) {
+            if (buf != EndOfStream) {
+                DirectBufferPool.shared().release(buf);
+            }
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public interface ProgressListener {
+        /**
+         * @param copied bytes written so far
+         * @param total  bytes requested, the copy stops earlier if the source is shorter
+         */
+        void onProgress(long copied, long total);
+    }
+
+    public static class Result {
+        private final long bytes;
+        private final long elapsedNanos;
+        private final long readerWaitNanos;
+        private final long writerWaitNanos;
+
+        Result(long bytes, long elapsedNanos, long readerWaitNanos, long writerWaitNanos) {
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.readerWaitNanos = readerWaitNanos;
+            this.writerWaitNanos = writerWaitNanos;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Time the reader waited for an empty buffer, high when writes are the bottleneck.
+         */
+        public long getReaderWaitNanos() {
+            return readerWaitNanos;
+        }
+
+        /**
+         * Time the writer waited for a filled buffer, high when reads are the bottleneck.
+         */
+        public long getWriterWaitNanos() {
+            return writerWaitNanos;
+        }
+
+        public double throughputMbs() {
+            return bytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+        }
+    }
+}
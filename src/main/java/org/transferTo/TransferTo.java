@@ -1,5 +1,7 @@
 package org.transferTo;
 
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultReader;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.NumberAxis;
@@ -13,15 +15,13 @@ import org.jfree.data.xy.XYSeriesCollection;
 import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
 public class TransferTo {
+    public static final String Title = "Naive copy vs transferTo vs streaming copy";
     private static final String baseMainPath = "./src/main/resources/";
 
-    public static final String Title = "Naive copy vs transferTo";
-
     public static void main(String[] args) {
         try {
             EventQueue.invokeLater(() -> {
@@ -53,7 +53,7 @@ public class TransferTo {
         frame.setVisible(true);
     }
 
-    private static JFreeChart getjFreeChart() throws IOException {
+    public static JFreeChart getjFreeChart() throws IOException {
         XYSeriesCollection dataset = getXySeriesCollection();
 
         SymbolAxis domain = new SymbolAxis("file size in MB",
@@ -67,35 +67,24 @@ public class TransferTo {
         return chart;
     }
 
-    private static double[] getSeriesFromFile(String fileName) throws IOException {
-        String content = Files.readAllLines(Paths.get(baseMainPath + fileName), Charset.defaultCharset()).get(0);
-        String[] values = content.split(" ");
-        double[] output = new double[7];
-        output[0] = Double.parseDouble(values[0]);
-        output[1] = Double.parseDouble(values[1]);
-        output[2] = Double.parseDouble(values[2]);
-        output[3] = Double.parseDouble(values[3]);
-        return output;
+    private static XYSeries getSeriesFromFile(String fileName) throws IOException {
+        BenchmarkResult.Series resultSeries = ResultReader.read(fileName).getSeries().get(0);
+        XYSeries series = new XYSeries(resultSeries.getName());
+        // x axis is a symbol axis, points are placed by index
+        for (int i = 0; i < resultSeries.getPoints().size(); i++) {
+            series.add(i, resultSeries.getPoints().get(i).getValue());
+        }
+        return series;
     }
 
     private static XYSeriesCollection getXySeriesCollection() throws IOException {
-        double[] seriesOutput = getSeriesFromFile("naiveCopy.txt");
-        XYSeries series = new XYSeries("naive copy");
-        series.add(0, seriesOutput[0]);
-        series.add(1, seriesOutput[1]);
-        series.add(2, seriesOutput[2]);
-        series.add(3, seriesOutput[3]);
-
-        double[] series2Output = getSeriesFromFile("transferToCopy.txt");
-        XYSeries series2 = new XYSeries("use transferTo");
-        series2.add(0, series2Output[0]);
-        series2.add(1, series2Output[1]);
-        series2.add(2, series2Output[2]);
-        series2.add(3, series2Output[3]);
-
         XYSeriesCollection dataset = new XYSeriesCollection();
-        dataset.addSeries(series);
-        dataset.addSeries(series2);
+        dataset.addSeries(getSeriesFromFile("naiveCopy.json"));
+        dataset.addSeries(getSeriesFromFile("transferToCopy.json"));
+        // newer than the other two, missing in older result sets
+        if (Files.exists(Paths.get(baseMainPath + "streamingCopy.json"))) {
+            dataset.addSeries(getSeriesFromFile("streamingCopy.json"));
+        }
         return dataset;
     }
 }
@@ -0,0 +1,91 @@
+package appendlog;
+
+import org.appendlog.GroupCommitLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.TestFiles.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupCommitLogTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testConcurrentAppendsAreDurableAndBatched() throws Exception {
+        Path path = path(fileName);
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try(GroupCommitLog log = new GroupCommitLog(path, 500, TimeUnit.MICROSECONDS, 256, 64 * 1024)){
+            List<Future<List<Long>>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final byte id = (byte) t;
+                writers.add(executor.submit(() -> {
+                    List<Long> offsets = new ArrayList<>();
+                    ByteBuffer record = ByteBuffer.allocate(100);
+                    for (int i = 0; i < perThread; i++) {
+                        Arrays.fill(record.array(), id);
+                        record.clear();
+                        offsets.add(log.append(record).get());
+                    }
+                    return offsets;
+                }));
+            }
+            byte[] content = null;
+            for (int t = 0; t < threads; t++) {
+                for (long offset : writers.get(t).get()) {
+                    // the future is completed after the sync, so the record is in the file
+                    if (content == null || content.length < offset + 100) {
+                        content = Files.readAllBytes(path);
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        assertEquals(t, content[(int) offset + i]);
+                    }
+                }
+            }
+            assertEquals(threads * perThread, log.records());
+            assertTrue(log.batches() < log.records(), "batches: " + log.batches());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * perThread * 100, Files.size(path));
+    }
+
+    @Test
+    public void testCloseCommitsPendingRecords() throws IOException {
+        Path path = path(fileName);
+        CompletableFuture<Long> last;
+        try(GroupCommitLog log = new GroupCommitLog(path, 10, TimeUnit.SECONDS, 1024, 4096)){
+            log.append(ByteBuffer.wrap(new byte[10]));
+            last = log.append(ByteBuffer.wrap(new byte[10]));
+        }
+        assertEquals(10L, (long) last.join());
+        assertEquals(20, Files.size(path));
+    }
+
+    @Test
+    public void testRecordLargerThanBatch() throws IOException {
+        Path path = path(fileName);
+        try(GroupCommitLog log = new GroupCommitLog(path, 0, TimeUnit.MICROSECONDS, 16, 4096)){
+            assertThrows(IllegalArgumentException.class, () -> log.append(ByteBuffer.allocate(4097)));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package appendlog;
+
+import org.appendlog.PageAlignedAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static benchmark.TestFiles.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageAlignedAppenderTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    private static byte[] record(int i, int size) {
+        byte[] record = new byte[size];
+        Arrays.fill(record, (byte) i);
+        return record;
+    }
+
+    @Test
+    public void testWritesFullPagesOnly() throws IOException {
+        Path path = path(fileName);
+        try(PageAlignedAppender appender = new PageAlignedAppender(path, 16384, 4096)){
+            for (int i = 0; i < 1000; i++) {
+                appender.append(record(i, 100));
+            }
+            // 100000 bytes: 6 full buffers written, the rest is buffered
+            assertEquals(6, appender.writeCalls());
+            assertEquals(6 * 16384, Files.size(path));
+            assertEquals(100000, appender.size());
+        }
+        assertEquals(100000, Files.size(path));
+    }
+
+    @Test
+    public void testContentAndReopen() throws IOException {
+        Path path = path(fileName);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try(PageAlignedAppender appender = new PageAlignedAppender(path, 4096, 4096)){
+            for (int i = 0; i < 50; i++) {
+                byte[] record = record(i, 1 + i * 37);
+                appender.append(record);
+                expected.write(record);
+                if (i % 7 == 0) {
+                    appender.flushTail();
+                    assertEquals(expected.size(), Files.size(path));
+                }
+            }
+        }
+        // continues the partial page at the end
+        try(PageAlignedAppender appender = new PageAlignedAppender(path, 4096, 4096)){
+            assertEquals(expected.size(), appender.size());
+            for (int i = 50; i < 60; i++) {
+                byte[] record = record(i, 1000);
+                appender.append(record);
+                expected.write(record);
+            }
+        }
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(path));
+    }
+
+    @Test
+    public void testTailFlushIsNotRepeated() throws IOException {
+        Path path = path(fileName);
+        try(PageAlignedAppender appender = new PageAlignedAppender(path, 8192, 4096)){
+            appender.append(record(1, 100));
+            appender.flushTail();
+            appender.flushTail();
+            assertEquals(1, appender.writeCalls());
+        }
+    }
+}
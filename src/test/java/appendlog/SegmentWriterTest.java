@@ -0,0 +1,178 @@
+package appendlog;
+
+import org.appendlog.SegmentWriter;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
+import org.junit.jupiter.api.*;
+import org.nativeio.NativeIO;
+import org.pagecache.PageCacheInspector;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SegmentWriterTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    // timeline: 4GB in 1MB appends, one point per 128MB
+    private static final int timelineGbs = 4;
+    private static final int windowMbs = 128;
+
+    private static ByteBuffer buf;
+
+    private static final BenchmarkResult.Series appendSeries = new BenchmarkResult.Series("Append-only write", "written", "GB", "MB/s")
+            .param("blockSize", 1024 * 1024);
+    private static final BenchmarkResult.Series segmentSeries = new BenchmarkResult.Series("Preallocated segments", "written", "GB", "MB/s")
+            .param("blockSize", 1024 * 1024)
+            .param("segmentSize", 1024L * 1024 * 1024)
+            .param("writebackChunk", SegmentWriter.DefaultWritebackChunk);
+
+    @BeforeAll
+    public static void setupRandomData(){
+        buf = randomData();
+    }
+
+    @AfterEach
+    public void purgeResourceDirectory() throws IOException {
+        try(Stream<Path> files = Files.walk(Paths.get(baseTestPath))){
+            files.sorted(Comparator.reverseOrder())
+                    .filter(p -> !p.equals(Paths.get(baseTestPath)))
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    @Test
+    @Order(0)
+    public void testRollsSegments() throws IOException {
+        Path dir = path(fileName);
+        byte[] record = new byte[3000];
+        Arrays.fill(record, (byte) 7);
+        try(SegmentWriter writer = new SegmentWriter(dir, 10000, 4096, true)){
+            assertEquals(0, writer.append(ByteBuffer.wrap(record)));
+            assertEquals(3000, writer.append(ByteBuffer.wrap(record)));
+            assertEquals(6000, writer.append(ByteBuffer.wrap(record)));
+            // doesn't fit the 1000 bytes left, goes to the next segment
+            assertEquals(9000, writer.append(ByteBuffer.wrap(record)));
+            assertEquals(2, writer.segmentCount());
+            assertEquals(12000, writer.size());
+            assertThrows(IllegalArgumentException.class, () -> writer.append(ByteBuffer.allocate(10001)));
+        }
+        // preallocated space doesn't show in the size
+        assertEquals(9000, Files.size(dir.resolve(SegmentWriter.segmentName(0))));
+        byte[] second = Files.readAllBytes(dir.resolve(SegmentWriter.segmentName(9000)));
+        assertArrayEquals(record, second);
+    }
+
+    @Test
+    @Order(0)
+    public void testDropsWrittenPages() throws IOException {
+        Path dir = path(fileName);
+        try(SegmentWriter writer = new SegmentWriter(dir, 64 * 1024 * 1024, 1024 * 1024, true)){
+            for (int i = 0; i < 32; i++) {
+                buf.rewind();
+                writer.append(buf);
+            }
+        }
+        buf.rewind();
+        PageCacheInspector.Residency residency = PageCacheInspector.inspect(dir.resolve(SegmentWriter.segmentName(0)));
+        System.out.println("After drop-behind: " + residency);
+        // DONTNEED is best-effort, some file systems (tmpfs, some FUSE and overlay setups) keep even clean pages
+        assumeTrue(dropsCleanPages(), "POSIX_FADV_DONTNEED doesn't drop clean pages on this file system");
+        assertTrue(residency.hitRatio() < 0.5, residency.toString());
+    }
+
+    // drops a fully synced file, the same state the writer leaves every window in after its SYNC_FILE_RANGE_WAIT
+    private static boolean dropsCleanPages() throws IOException {
+        Path path = Paths.get(baseTestPath + fileName + "-probe");
+        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, WRITE)){
+            for (int i = 0; i < 4; i++) {
+                buf.rewind();
+                while(buf.hasRemaining()){
+                    ch.write(buf);
+                }
+            }
+            buf.rewind();
+            ch.force(false);
+            NativeIO.fadvise(NativeIO.fd(ch), 0, 0, NativeIO.POSIX_FADV_DONTNEED);
+        }
+        PageCacheInspector.Residency probe = PageCacheInspector.inspect(path);
+        Files.delete(path);
+        return probe.hitRatio() < 0.5;
+    }
+
+    @Test
+    @Order(1)
+    public void test_appendOnlyTimeline() throws IOException {
+        Path path = path(fileName);
+        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, APPEND)){
+            timeline(appendSeries, () -> {
+                buf.rewind();
+                while(buf.hasRemaining()){
+                    ch.write(buf);
+                }
+            });
+            long start = System.nanoTime();
+            ch.force(false);
+            appendSeries.param("syncMs", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void test_segmentTimeline() throws IOException {
+        Path dir = path(fileName);
+        try(SegmentWriter writer = new SegmentWriter(dir, 1024L * 1024 * 1024)){
+            timeline(segmentSeries, () -> {
+                buf.rewind();
+                writer.append(buf);
+            });
+            long start = System.nanoTime();
+            writer.sync();
+            segmentSeries.param("syncMs", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @AfterAll
+    public static void writeOutput() throws IOException {
+        ResultWriter.write("segmentWriteTimeline.json", new BenchmarkResult(SegmentWriterTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(appendSeries)
+                .addSeries(segmentSeries));
+    }
+
+    private interface Append {
+        void run() throws IOException;
+    }
+
+    // throughput and the slowest 1MB append of every window
+    private static void timeline(BenchmarkResult.Series series, Append append) throws IOException {
+        int windows = timelineGbs * 1024 / windowMbs;
+        for (int w = 1; w <= windows; w++) {
+            long windowStart = System.nanoTime();
+            long maxNanos = 0;
+            for (int i = 0; i < windowMbs; i++) {
+                long start = System.nanoTime();
+                append.run();
+                maxNanos = Math.max(maxNanos, System.nanoTime() - start);
+            }
+            double mbs = windowMbs / ((System.nanoTime() - windowStart) / 1e9);
+            series.addPoint(new BenchmarkResult.Point((double) w * windowMbs / 1024, null, mbs, 0, windowMbs)
+                    .metric("maxAppendMs", maxNanos / 1e6));
+        }
+        System.out.println(series.getName() + ": " + Math.round(series.getPoints().stream()
+                .mapToDouble(BenchmarkResult.Point::getValue).min().orElse(0)) + " MB/s slowest window");
+    }
+}
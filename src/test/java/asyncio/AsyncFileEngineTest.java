@@ -0,0 +1,93 @@
+package asyncio;
+
+import org.asyncio.AsyncFileEngine;
+import org.asyncio.IoUringEngine;
+import org.asyncio.ThreadPoolEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class AsyncFileEngineTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testThreadPoolEngine() throws IOException {
+        testWriteAndRead(new ThreadPoolEngine(8));
+    }
+
+    @Test
+    public void testIoUringEngine() throws IOException {
+        // kernels without io_uring are covered by the fallback
+        assumeTrue(IoUringEngine.isSupported(), "io_uring is not available");
+        testWriteAndRead(new IoUringEngine(8));
+    }
+
+    // more operations than the queue depth, so queuing has to wait for completions
+    private void testWriteAndRead(AsyncFileEngine engine) throws IOException {
+        int blocks = 100;
+        Counter counter = new Counter();
+        try(FileChannel ch = FileChannel.open(path(fileName), CREATE, READ, WRITE); AsyncFileEngine io = engine){
+            for (int i = 0; i < blocks; i++) {
+                ByteBuffer buf = ByteBuffer.allocateDirect(4096);
+                while(buf.hasRemaining()){
+                    buf.put((byte) i);
+                }
+                buf.flip();
+                io.write(ch, buf, i * 4096L, i, counter);
+            }
+            io.await(io.outstanding());
+            assertEquals(blocks, counter.completed);
+            assertEquals(blocks * 4096L, ch.size());
+
+            ByteBuffer[] buffers = new ByteBuffer[blocks];
+            for (int i = 0; i < blocks; i++) {
+                buffers[i] = ByteBuffer.allocateDirect(4096);
+                io.read(ch, buffers[i], i * 4096L, i, counter);
+            }
+            io.await(io.outstanding());
+            assertEquals(2 * blocks, counter.completed);
+            for (int i = 0; i < blocks; i++) {
+                assertEquals(4096, buffers[i].position());
+                assertEquals((byte) i, buffers[i].get(4095));
+            }
+
+            io.read(ch, ByteBuffer.allocateDirect(4096), blocks * 4096L, -1, counter);
+            io.await(1);
+            assertEquals(-1, counter.last);
+            assertEquals(0, counter.failed);
+        }
+    }
+
+    private static class Counter implements CompletionHandler<Integer, Integer> {
+        int completed;
+        int failed;
+        int last;
+
+        @Override
+        public void completed(Integer bytes, Integer index) {
+            if (bytes == 4096) {
+                completed++;
+            }
+            last = bytes;
+        }
+
+        @Override
+        public void failed(Throwable e, Integer index) {
+            failed++;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import org.benchmark.LatencyRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testQuantiles(){
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (long i = 1; i <= 10000; i++) {
+            recorder.record(i * 1000);
+        }
+        assertEquals(10000, recorder.count());
+        assertEquals(1000, recorder.min());
+        assertEquals(10_000_000, recorder.max());
+        // 1% relative error
+        assertEquals(5_000_000, recorder.quantile(0.5), 50_000);
+        assertEquals(9_000_000, recorder.quantile(0.9), 90_000);
+        assertEquals(9_990_000, recorder.quantile(0.999), 99_900);
+        assertEquals(10_000_000, recorder.quantile(1));
+    }
+
+    @Test
+    public void testMerge(){
+        LatencyRecorder first = new LatencyRecorder();
+        LatencyRecorder second = new LatencyRecorder();
+        for (long i = 0; i < 100; i++) {
+            first.record(i);
+            second.record(i + 100);
+        }
+        first.merge(second);
+        assertEquals(200, first.count());
+        assertEquals(0, first.min());
+        assertEquals(199, first.max());
+        assertEquals(99, first.quantile(0.5));
+    }
+
+    @Test
+    public void testDistribution(){
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (long i = 0; i < 1000; i++) {
+            recorder.record(i * i);
+        }
+        double[] last = recorder.distribution().get(recorder.distribution().size() - 1);
+        assertEquals(1.0, last[0], 0);
+        assertEquals(999 * 999, last[1], 0);
+    }
+}
@@ -0,0 +1,111 @@
+package benchmark;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import org.junit.jupiter.api.DynamicTest;
+import org.pagecache.CachePolicy;
+import org.pagecache.PageCacheInspector;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Test file fixtures shared by the benchmark tests: the random block test files are written from, writing and
+ * purging the files under {@link #baseTestPath}, the page cache state of a file and one dynamic test per file size.
+ */
+public final class TestFiles {
+    public static final String baseTestPath = "./src/test/resources/";
+
+    private TestFiles() {
+    }
+
+    public static Path path(String fileName) {
+        return Paths.get(baseTestPath + fileName);
+    }
+
+    /**
+     * A 1MB direct buffer of random chars, ready to be written.
+     */
+    public static ByteBuffer randomData() {
+        ByteBuffer buf = ByteBuffer.allocateDirect(1024 * 1024);
+        while(buf.hasRemaining()){
+            buf.putChar(PcgRSUFast.nextChar());
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Creates the file and writes the whole block to it {@code blocks} times.
+     */
+    public static void write(Path path, ByteBuffer block, long blocks) {
+        block.clear();
+        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, WRITE)){
+            for (long counter = 0; counter < blocks; counter++) {
+                while(block.hasRemaining()){
+                    int bytes = ch.write(block);
+                    if (bytes <= 0){
+                        break;
+                    }
+                }
+                block.flip();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Deletes every file under {@link #baseTestPath}.
+     */
+    public static void purge() {
+        Arrays.stream(Objects.requireNonNull(new File(baseTestPath).listFiles())).forEach(File::delete);
+    }
+
+    /**
+     * Brings the file into the state of the cache policy and prints the residency it left.
+     */
+    public static PageCacheInspector.Residency applyCachePolicy(CachePolicy cachePolicy, Path path) {
+        try {
+            PageCacheInspector.Residency residency = cachePolicy.apply(path);
+            System.out.println("Cache policy " + cachePolicy + ": " + residency);
+            return residency;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static PageCacheInspector.Residency inspect(Path path) {
+        try {
+            return PageCacheInspector.inspect(path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * One dynamic test per size, named like {@code 64MB}. The test files are purged after every size, dynamic tests
+     * don't get the {@code @AfterEach} of their class.
+     */
+    public static Stream<DynamicTest> perSize(int[] sizes, String unit, SizeTest test) {
+        return Arrays.stream(sizes).mapToObj(size -> DynamicTest.dynamicTest(size + unit, () -> {
+            try {
+                test.run(size);
+            } finally {
+                purge();
+            }
+        }));
+    }
+
+    public interface SizeTest {
+        void run(int size) throws Exception;
+    }
+}
@@ -0,0 +1,93 @@
+package directbuffer;
+
+import org.directbuffer.DirectBufferPool;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class DirectBufferPoolTest {
+
+    @Test
+    public void testSizeClasses(){
+        DirectBufferPool pool = new DirectBufferPool(false);
+        ByteBuffer small = pool.acquire(4092);
+        assertEquals(4092, small.limit());
+        assertEquals(DirectBufferPool.PageSize, small.capacity());
+        ByteBuffer medium = pool.acquire(DirectBufferPool.PageSize * 3);
+        assertEquals(DirectBufferPool.PageSize * 4, medium.capacity());
+        ByteBuffer huge = pool.acquire(DirectBufferPool.MaxPooledSize + 1);
+        assertEquals(DirectBufferPool.MaxPooledSize + 1, huge.capacity());
+        assertEquals(2, pool.inUse());
+        pool.release(small);
+        pool.release(medium);
+        pool.release(huge);
+        assertEquals(0, pool.inUse());
+        assertThrows(IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocateDirect(1000)));
+    }
+
+    @Test
+    public void testReuse(){
+        DirectBufferPool pool = new DirectBufferPool(false);
+        ByteBuffer first = pool.acquire(64 * 1024);
+        long reserved = pool.reservedBytes();
+        pool.release(first);
+        for (int i = 0; i < 1000; i++) {
+            pool.release(pool.acquire(64 * 1024));
+        }
+        assertSame(first, pool.acquire(64 * 1024));
+        assertEquals(reserved, pool.reservedBytes());
+    }
+
+    @Test
+    public void testCrossThreadRelease() throws Exception {
+        DirectBufferPool pool = new DirectBufferPool(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<ByteBuffer>>> acquired = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                acquired.add(executor.submit(() -> {
+                    List<ByteBuffer> buffers = new ArrayList<>();
+                    for (int j = 0; j < 500; j++) {
+                        buffers.add(pool.acquire(8192));
+                    }
+                    return buffers;
+                }));
+            }
+            List<ByteBuffer> all = new ArrayList<>();
+            for (Future<List<ByteBuffer>> future : acquired) {
+                all.addAll(future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(2000, pool.inUse());
+            all.forEach(pool::release);
+            assertEquals(0, pool.inUse());
+            assertThrows(IllegalStateException.class, () -> pool.release(all.get(0)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLeakDetection() throws InterruptedException {
+        DirectBufferPool pool = new DirectBufferPool(true);
+        pool.acquire(4096);
+        // System.gc() is only a request, a JVM which doesn't collect the buffer in time skips the test
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pool.leaks() == 0 && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+            pool.release(pool.acquire(4096));
+        }
+        assumeTrue(pool.leaks() > 0, "The leaked buffer wasn't collected within 10s");
+        assertEquals(1, pool.leaks());
+        assertEquals(0, pool.inUse());
+    }
+}
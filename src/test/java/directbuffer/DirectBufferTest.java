@@ -2,15 +2,16 @@ package directbuffer;
 
 import com.github.kilianB.pcg.fast.PcgRSUFast;
 import com.google.common.base.Stopwatch;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
 import org.junit.jupiter.api.*;
+import org.pagecache.CachePolicy;
+import org.pagecache.PageCacheInspector;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Objects;
@@ -21,13 +22,15 @@ import static java.nio.file.StandardOpenOption.READ;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class DirectBufferTest {
-    private static final String baseMainPath = "./src/main/resources/";
     private static final String baseTestPath = "./src/test/resources/";
     private static final String fileName = String.valueOf(System.currentTimeMillis());
 
     private static ByteBuffer buf;
 
-    private static final StringBuilder output = new StringBuilder();
+    private static final CachePolicy cachePolicy = CachePolicy.configured();
+    private static final BenchmarkResult.Series series = new BenchmarkResult.Series("direct buffer", "file size", "MB", "us")
+            .param("bufferSize", 1024 * 1024)
+            .param("cachePolicy", cachePolicy);
 
     @BeforeAll
     public static void setupRandomData(){
@@ -47,51 +50,52 @@ public class DirectBufferTest {
     @Order(1)
     public void test_1MB(){
         writeToTestSeqReading(1);
+        applyCachePolicy();
         long result = testHeapBufferReading(1);
         System.out.println("Direct buffer reading 1MB: " + result);
-        output.append(result).append(" ");
+        series.addPoint(1, result);
     }
 
     @Test
     @Order(2)
     public void test_16MB(){
         writeToTestSeqReading(16);
+        applyCachePolicy();
         long result = testHeapBufferReading(16);
         System.out.println("Direct buffer reading 16MB: " + result);
-        output.append(result).append(" ");
+        series.addPoint(16, result);
     }
 
     @Test
     @Order(3)
     public void test_256MB(){
         writeToTestSeqReading(256);
+        applyCachePolicy();
         long result = testHeapBufferReading(256);
         System.out.println("Direct buffer reading 256MB: " + result);
-        output.append(result).append(" ");
+        series.addPoint(256, result);
     }
 
     @Test
     @Order(4)
     public void test_1GB(){
         writeToTestSeqReading(1024);
+        applyCachePolicy();
         long result = testHeapBufferReading(1024);
         System.out.println("Direct buffer reading 1GB: " + result);
-        output.append(result);
+        series.addPoint(1024, result);
     }
 
     @AfterAll
     public static void writeOutput() throws IOException {
-        String outputFile = "directBufferReading.txt";
-        Path path = Paths.get(baseMainPath + outputFile);
-        Files.deleteIfExists(path);
-        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, APPEND)){
-            ByteBuffer outputBuf = ByteBuffer.wrap(output.toString().getBytes(Charset.defaultCharset()));
-            while(outputBuf.hasRemaining()){
-                int bytes = ch.write(outputBuf);
-                if (bytes <= 0){
-                    break;
-                }
-            }
+        ResultWriter.write("directBufferReading.json", new BenchmarkResult(DirectBufferTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series));
+    }
+
+    private static void applyCachePolicy(){
+        try {
+            PageCacheInspector.Residency residency = cachePolicy.apply(Paths.get(baseTestPath + fileName));
+            System.out.println("Cache policy " + cachePolicy + ": " + residency);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,86 @@
+package directio;
+
+import org.directio.AlignedBufferPool;
+import org.directio.DirectIOFileChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectIOFileChannelTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException, InterruptedException {
+        Path path = path(fileName);
+        AlignedBufferPool pool = new AlignedBufferPool(64 * 1024, 2, DirectIOFileChannel.DefaultBlockSize);
+        ByteBuffer src = pool.acquire();
+        ByteBuffer dst = pool.acquire();
+        while(src.hasRemaining()){
+            src.put((byte) src.position());
+        }
+        src.flip();
+        try(DirectIOFileChannel ch = DirectIOFileChannel.open(path, CREATE, WRITE, READ)){
+            assertEquals(0, ch.blockSize() % DirectIOFileChannel.DefaultBlockSize);
+            assertEquals(src.capacity(), ch.write(src, ch.blockSize()));
+            ch.force();
+            assertEquals(ch.blockSize() + src.capacity(), ch.size());
+            assertEquals(dst.capacity(), ch.read(dst, ch.blockSize()));
+        }
+        src.flip();
+        dst.flip();
+        assertEquals(src, dst);
+        pool.release(src);
+        pool.release(dst);
+    }
+
+    @Test
+    public void testMisalignedAccess() throws IOException {
+        Path path = path(fileName);
+        try(DirectIOFileChannel ch = DirectIOFileChannel.open(path, CREATE, WRITE, READ)){
+            ByteBuffer aligned = DirectIOFileChannel.allocate(ch.blockSize() * 2);
+            assertThrows(IllegalArgumentException.class, () -> ch.write(aligned, 1));
+            aligned.limit(ch.blockSize() + 1);
+            assertThrows(IllegalArgumentException.class, () -> ch.write(aligned, 0));
+            aligned.clear().position(1);
+            assertThrows(IllegalArgumentException.class, () -> ch.write(aligned, 0));
+            assertThrows(IllegalArgumentException.class, () -> ch.write(ByteBuffer.allocate(ch.blockSize()), 0));
+        }
+    }
+
+    @Test
+    public void testOpenOptions() throws IOException {
+        Path path = path(fileName);
+        DirectIOFileChannel.open(path, CREATE_NEW, WRITE, DSYNC).close();
+        assertThrows(IOException.class, () -> DirectIOFileChannel.open(path, CREATE_NEW, WRITE));
+        assertThrows(UnsupportedOperationException.class, () -> DirectIOFileChannel.open(path, WRITE, APPEND));
+        assertThrows(UnsupportedOperationException.class, () -> DirectIOFileChannel.open(path, READ, DELETE_ON_CLOSE));
+    }
+
+    @Test
+    public void testPoolRejectsForeignBuffers() throws InterruptedException {
+        AlignedBufferPool pool = new AlignedBufferPool(64 * 1024, 2, DirectIOFileChannel.DefaultBlockSize);
+        AlignedBufferPool other = new AlignedBufferPool(64 * 1024, 2, DirectIOFileChannel.DefaultBlockSize);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(DirectIOFileChannel.allocate(64 * 1024)));
+        assertThrows(IllegalArgumentException.class, () -> pool.release(other.acquire()));
+        ByteBuffer buf = pool.acquire();
+        buf.position(DirectIOFileChannel.DefaultBlockSize);
+        ByteBuffer shifted = buf.slice();
+        assertThrows(IllegalArgumentException.class, () -> pool.release(shifted));
+        pool.release(buf);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(buf));
+        assertThrows(ArithmeticException.class,
+                () -> new AlignedBufferPool(1024 * 1024 * 1024, 4, DirectIOFileChannel.DefaultBlockSize));
+    }
+}
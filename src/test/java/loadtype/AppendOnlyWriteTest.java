@@ -1,14 +1,13 @@
 package loadtype;
 
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
 import org.junit.jupiter.api.*;
 import com.github.kilianB.pcg.fast.PcgRSUFast;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Objects;
@@ -19,13 +18,13 @@ import static java.nio.file.StandardOpenOption.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class AppendOnlyWriteTest {
-    private static final String baseMainPath = "./src/main/resources/";
     private static final String baseTestPath = "./src/test/resources/";
     private static final String fileName = String.valueOf(System.currentTimeMillis());
 
     private static ByteBuffer buf;
 
-    private static final StringBuilder output = new StringBuilder();
+    private static final BenchmarkResult.Series series = new BenchmarkResult.Series("Append-only write", "file size", "GB", "ms")
+            .param("blockSize", 1024 * 1024);
 
     @BeforeAll
     public static void setupRandomData(){
@@ -46,7 +45,7 @@ public class AppendOnlyWriteTest {
     public void test_1GB(){
         long result = testAppendOnlyWrite(1);
         System.out.println("Append-only write 1GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(1, result);
     }
 
     @Test
@@ -54,7 +53,7 @@ public class AppendOnlyWriteTest {
     public void test_2GB(){
         long result = testAppendOnlyWrite(2);
         System.out.println("Append-only write 2GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(2, result);
     }
 
     @Test
@@ -62,7 +61,7 @@ public class AppendOnlyWriteTest {
     public void test_4GB(){
         long result = testAppendOnlyWrite(4);
         System.out.println("Append-only write 4GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(4, result);
     }
 
     @Test
@@ -70,25 +69,13 @@ public class AppendOnlyWriteTest {
     public void test_8GB(){
         long result = testAppendOnlyWrite(8);
         System.out.println("Append-only write 8GB: " + result + " ms");
-        output.append(result);
+        series.addPoint(8, result);
     }
 
     @AfterAll
     public static void writeOutput() throws IOException {
-        String outputFile = "appendOnlyWrite.txt";
-        Path path = Paths.get(baseMainPath + outputFile);
-        Files.deleteIfExists(path);
-        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, APPEND)){
-            ByteBuffer outputBuf = ByteBuffer.wrap(output.toString().getBytes(Charset.defaultCharset()));
-            while(outputBuf.hasRemaining()){
-                int bytes = ch.write(outputBuf);
-                if (bytes <= 0){
-                    break;
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        ResultWriter.write("appendOnlyWrite.json", new BenchmarkResult(AppendOnlyWriteTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series));
     }
 
     private long testAppendOnlyWrite(int gbs) {
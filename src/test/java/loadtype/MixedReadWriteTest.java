@@ -0,0 +1,85 @@
+package loadtype;
+
+import org.benchmark.BenchmarkResult;
+import org.benchmark.LatencyRecorder;
+import org.benchmark.ResultWriter;
+import org.junit.jupiter.api.*;
+import org.loadtype.AccessDistribution;
+import org.loadtype.MixedWorkload;
+import org.pagecache.CachePolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static benchmark.TestFiles.*;
+
+public class MixedReadWriteTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    private static ByteBuffer buf;
+
+    private static final double readRatio = 0.7;
+    private static final int threads = 1;
+    private static final MixedWorkload.SyncPolicy syncPolicy = MixedWorkload.SyncPolicy.NONE;
+    private static final CachePolicy cachePolicy = CachePolicy.configured();
+    private static final BenchmarkResult.Series series = new BenchmarkResult.Series("Random read/write", "file size", "GB", "ms")
+            .param("blockSize", 1024 * 1024)
+            .param("readRatio", readRatio)
+            .param("distribution", AccessDistribution.UNIFORM)
+            .param("threads", threads)
+            .param("syncPolicy", syncPolicy)
+            .param("cachePolicy", cachePolicy);
+
+    @BeforeAll
+    public static void setupRandomData(){
+        buf = randomData();
+    }
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> testFileSizes() {
+        return perSize(new int[]{1, 2, 4, 8}, "GB", gbs -> {
+            write(path(fileName), buf, 1024L * gbs);
+            applyCachePolicy(cachePolicy, path(fileName));
+            MixedWorkload.Result result = testMixed(gbs);
+            System.out.println("Random read/write " + gbs + "GB: " + TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()) + " ms");
+            series.addPoint(toPoint(gbs, result));
+        });
+    }
+
+    @AfterAll
+    public static void writeOutput() throws IOException {
+        ResultWriter.write("mixedReadWrite.json", new BenchmarkResult(MixedReadWriteTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series));
+    }
+
+    // total time as the value, read and write side separately as metrics
+    private static BenchmarkResult.Point toPoint(int gbs, MixedWorkload.Result result){
+        LatencyRecorder reads = result.getReadLatencies();
+        LatencyRecorder writes = result.getWriteLatencies();
+        return new BenchmarkResult.Point(gbs, null, TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()), 0, 1)
+                .metric("readMbs", result.readThroughputMbs())
+                .metric("writeMbs", result.writeThroughputMbs())
+                .metric("readP50Us", reads.quantile(0.5) / 1000.0)
+                .metric("readP99Us", reads.quantile(0.99) / 1000.0)
+                .metric("writeP50Us", writes.quantile(0.5) / 1000.0)
+                .metric("writeP99Us", writes.quantile(0.99) / 1000.0);
+    }
+
+    // as many 1MB operations as the file has blocks
+    private MixedWorkload.Result testMixed(int gbs) {
+        MixedWorkload workload = new MixedWorkload(readRatio, 1024 * 1024, AccessDistribution.UNIFORM, threads, syncPolicy, 1024L * gbs);
+        try {
+            return workload.run(path(fileName));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package loadtype;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.loadtype.ParallelReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelReaderTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testShardsCoverTheFile(){
+        ParallelReader reader = new ParallelReader(3, 4096);
+        long[] bounds = reader.shards(10 * 4096 + 100);
+        assertArrayEquals(new long[]{0, 4 * 4096, 8 * 4096, 10 * 4096 + 100}, bounds);
+    }
+
+    @Test
+    public void testMoreThreadsThanChunks(){
+        ParallelReader reader = new ParallelReader(4, 4096);
+        long[] bounds = reader.shards(5000);
+        assertArrayEquals(new long[]{0, 4096, 5000, 5000, 5000}, bounds);
+    }
+
+    @Test
+    public void testReadsWholeFile() throws IOException {
+        Path path = path(fileName);
+        long size = 3 * 1024 * 1024 + 12345;
+        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, WRITE)){
+            ch.write(ByteBuffer.wrap(new byte[] {1}), size - 1);
+        }
+        ParallelReader.Result result = new ParallelReader(4, 256 * 1024).read(path);
+        assertEquals(size, result.getBytes());
+        assertEquals(size, Arrays.stream(result.getShardBytes()).sum());
+        assertEquals(4, result.getShardBytes().length);
+    }
+}
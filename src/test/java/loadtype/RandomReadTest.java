@@ -1,32 +1,34 @@
 package loadtype;
 
 import com.github.kilianB.pcg.fast.PcgRSUFast;
-import com.google.common.base.Stopwatch;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
+import org.directbuffer.DirectBufferPool;
 import org.junit.jupiter.api.*;
+import org.loadtype.AccessDistribution;
+import org.loadtype.RandomReadWorkload;
+import org.pagecache.CachePolicy;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
-import static java.nio.file.StandardOpenOption.APPEND;
-import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.READ;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class RandomReadTest {
-    private static final String baseMainPath = "./src/main/resources/";
-    private static final String baseTestPath = "./src/test/resources/";
     private static final String fileName = String.valueOf(System.currentTimeMillis());
     private static StringBuilder charBuf;
 
-    private static final StringBuilder output = new StringBuilder();
+    private static final CachePolicy cachePolicy = CachePolicy.configured();
+    private static final BenchmarkResult.Series series = new BenchmarkResult.Series("Random read", "file size", "GB", "ms")
+            .param("blockSize", 1024 * 1024)
+            .param("distribution", AccessDistribution.UNIFORM)
+            .param("cachePolicy", cachePolicy);
 
     @BeforeAll
     public static void setupRandomData(){
@@ -38,61 +40,53 @@ public class RandomReadTest {
 
     @AfterEach
     public void purgeResourceDirectory() {
-        Arrays.stream(Objects.requireNonNull(new File(baseTestPath).listFiles())).forEach(File::delete);
+        purge();
     }
 
     @Test
     @Order(1)
     public void test_1GB(){
         writeToTestRandomReading(1);
+        applyCachePolicy(cachePolicy, path(fileName));
         long result = testRandomReading(1);
         System.out.println("Random reading 1GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(1, result);
     }
 
     @Test
     @Order(2)
     public void test_2GB(){
         writeToTestRandomReading(2);
+        applyCachePolicy(cachePolicy, path(fileName));
         long result = testRandomReading(2);
         System.out.println("Random reading 2GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(2, result);
     }
 
     @Test
     @Order(3)
     public void test_4GB(){
         writeToTestRandomReading(4);
+        applyCachePolicy(cachePolicy, path(fileName));
         long result = testRandomReading(4);
         System.out.println("Random reading 4GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(4, result);
     }
 
     @Test
     @Order(4)
     public void test_8GB(){
         writeToTestRandomReading(8);
+        applyCachePolicy(cachePolicy, path(fileName));
         long result = testRandomReading(8);
         System.out.println("Random reading 8GB: " + result + " ms");
-        output.append(result);
+        series.addPoint(8, result);
     }
 
     @AfterAll
     public static void writeOutput() throws IOException {
-        String outputFile = "randomRead.txt";
-        Path path = Paths.get(baseMainPath + outputFile);
-        Files.deleteIfExists(path);
-        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, APPEND)){
-            ByteBuffer outputBuf = ByteBuffer.wrap(output.toString().getBytes(Charset.defaultCharset()));
-            while(outputBuf.hasRemaining()){
-                int bytes = ch.write(outputBuf);
-                if (bytes <= 0){
-                    break;
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        ResultWriter.write("randomRead.json", new BenchmarkResult(RandomReadTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series));
     }
 
     private void writeToTestRandomReading(int gbs) {
@@ -109,22 +103,16 @@ public class RandomReadTest {
     }
 
     private long testRandomReading(int gbs) {
-        Stopwatch watch = Stopwatch.createStarted();
-        try(RandomAccessFile file = new RandomAccessFile(baseTestPath + fileName, "r")){
-            file.seek(0);
-            int mbCount = 1024 * gbs;
-            int counter = 0;
-            while(counter < mbCount){
-                byte[] bytes = new byte[1024 * 1024];
-                while (file.read(bytes) != -1) {
-                    // Do something with the bytes read
-                    break;
-                }
-                counter++;
-            }
+        // as many 1MB reads as the file has blocks, at uniformly random block offsets
+        RandomReadWorkload workload = new RandomReadWorkload(AccessDistribution.UNIFORM, 1024 * 1024, 1024 * 1024, 1024 * gbs);
+        ByteBuffer buf = DirectBufferPool.shared().acquire(1024 * 1024);
+        try(FileChannel ch = FileChannel.open(path(fileName), READ)){
+            long[] offsets = workload.offsets(ch.size());
+            return TimeUnit.NANOSECONDS.toMillis(workload.run(ch, buf, offsets).getElapsedNanos());
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            DirectBufferPool.shared().release(buf);
         }
-        return watch.elapsed().toMillis();
     }
 }
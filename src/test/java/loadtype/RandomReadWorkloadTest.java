@@ -0,0 +1,63 @@
+package loadtype;
+
+import org.junit.jupiter.api.Test;
+import org.loadtype.AccessDistribution;
+import org.loadtype.RandomReadWorkload;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RandomReadWorkloadTest {
+    private static final long fileSize = 1024L * 1024 * 1024;
+
+    @Test
+    public void testOffsetsFitTheFile(){
+        for (AccessDistribution distribution : AccessDistribution.values()) {
+            RandomReadWorkload workload = new RandomReadWorkload(distribution, 65536, 512, 100000);
+            for (long offset : workload.offsets(fileSize)) {
+                assertEquals(0, offset % 512);
+                assertTrue(offset >= 0 && offset + 65536 <= fileSize, distribution + " offset " + offset);
+            }
+        }
+    }
+
+    @Test
+    public void testUniformIsNotSequential(){
+        RandomReadWorkload workload = new RandomReadWorkload(AccessDistribution.UNIFORM, 4096, 4096, 100000);
+        long[] offsets = workload.offsets(fileSize);
+        int sequential = 0;
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] == offsets[i - 1] + 4096) {
+                sequential++;
+            }
+        }
+        assertTrue(sequential < 10, "sequential reads: " + sequential);
+    }
+
+    @Test
+    public void testZipfSkew(){
+        RandomReadWorkload workload = new RandomReadWorkload(AccessDistribution.ZIPF, 4096, 4096, 100000);
+        Map<Long, Integer> counts = new HashMap<>();
+        for (long offset : workload.offsets(fileSize)) {
+            counts.merge(offset, 1, Integer::sum);
+        }
+        int hottest = counts.values().stream().max(Integer::compare).orElse(0);
+        // theta 0.99 over 256K blocks puts ~7% of the reads on the first rank, uniform would be ~1 read
+        assertTrue(hottest > 3000, "hottest block reads: " + hottest);
+    }
+
+    @Test
+    public void testHotspotShare(){
+        RandomReadWorkload workload = new RandomReadWorkload(AccessDistribution.HOTSPOT, 4096, 4096, 100000);
+        long hotEnd = (long) (fileSize * AccessDistribution.HotFraction);
+        long hot = 0;
+        for (long offset : workload.offsets(fileSize)) {
+            if (offset < hotEnd) {
+                hot++;
+            }
+        }
+        assertEquals(AccessDistribution.HotProbability, hot / 100000.0, 0.01);
+    }
+}
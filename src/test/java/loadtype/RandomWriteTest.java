@@ -2,31 +2,25 @@ package loadtype;
 
 import com.github.kilianB.pcg.fast.PcgRSUFast;
 import com.google.common.base.Stopwatch;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
 import org.junit.jupiter.api.*;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Objects;
 
-import static java.nio.file.StandardOpenOption.APPEND;
-import static java.nio.file.StandardOpenOption.CREATE_NEW;
-
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class RandomWriteTest {
-    private static final String baseMainPath = "./src/main/resources/";
     private static final String baseTestPath = "./src/test/resources/";
     private static final String fileName = String.valueOf(System.currentTimeMillis());
     private static StringBuilder charBuf;
 
-    private static final StringBuilder output = new StringBuilder();
+    private static final BenchmarkResult.Series series = new BenchmarkResult.Series("Random write", "file size", "GB", "ms")
+            .param("blockSize", 1024 * 1024);
 
     @BeforeAll
     public static void setupRandomData(){
@@ -46,7 +40,7 @@ public class RandomWriteTest {
     public void test_1GB(){
         long result = testRandomWrite(1);
         System.out.println("Random write 1GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(1, result);
     }
 
     @Test
@@ -54,7 +48,7 @@ public class RandomWriteTest {
     public void test_2GB(){
         long result = testRandomWrite(2);
         System.out.println("Random write 2GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(2, result);
     }
 
     @Test
@@ -62,7 +56,7 @@ public class RandomWriteTest {
     public void test_4GB(){
         long result = testRandomWrite(4);
         System.out.println("Random write 4GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(4, result);
     }
 
     @Test
@@ -70,25 +64,13 @@ public class RandomWriteTest {
     public void test_8GB(){
         long result = testRandomWrite(8);
         System.out.println("Random write 8GB: " + result + " ms");
-        output.append(result);
+        series.addPoint(8, result);
     }
 
     @AfterAll
     public static void writeOutput() throws IOException {
-        String outputFile = "randomWrite.txt";
-        Path path = Paths.get(baseMainPath + outputFile);
-        Files.deleteIfExists(path);
-        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, APPEND)){
-            ByteBuffer outputBuf = ByteBuffer.wrap(output.toString().getBytes(Charset.defaultCharset()));
-            while(outputBuf.hasRemaining()){
-                int bytes = ch.write(outputBuf);
-                if (bytes <= 0){
-                    break;
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        ResultWriter.write("randomWrite.json", new BenchmarkResult(RandomWriteTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series));
     }
 
     private long testRandomWrite(int gbs) {
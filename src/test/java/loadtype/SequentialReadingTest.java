@@ -2,15 +2,16 @@ package loadtype;
 
 import com.github.kilianB.pcg.fast.PcgRSUFast;
 import com.google.common.base.Stopwatch;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
 import org.junit.jupiter.api.*;
+import org.pagecache.CachePolicy;
+import org.pagecache.PageCacheInspector;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Objects;
@@ -19,13 +20,15 @@ import static java.nio.file.StandardOpenOption.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class SequentialReadingTest {
-    private static final String baseMainPath = "./src/main/resources/";
     private static final String baseTestPath = "./src/test/resources/";
     private static final String fileName = String.valueOf(System.currentTimeMillis());
 
     private static ByteBuffer buf;
 
-    private static final StringBuilder output = new StringBuilder();
+    private static final CachePolicy cachePolicy = CachePolicy.configured();
+    private static final BenchmarkResult.Series series = new BenchmarkResult.Series("Sequential reading", "file size", "GB", "ms")
+            .param("blockSize", 1024 * 1024)
+            .param("cachePolicy", cachePolicy);
 
     @BeforeAll
     public static void setupRandomData(){
@@ -45,51 +48,52 @@ public class SequentialReadingTest {
     @Order(1)
     public void test_1GB(){
         writeToTestSeqReading(1);
+        applyCachePolicy();
         long result = testSeqReading(1);
         System.out.println("Sequential reading 1GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(1, result);
     }
 
     @Test
     @Order(2)
     public void test_2GB(){
         writeToTestSeqReading(2);
+        applyCachePolicy();
         long result = testSeqReading(2);
         System.out.println("Sequential reading 2GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(2, result);
     }
 
     @Test
     @Order(3)
     public void test_4GB(){
         writeToTestSeqReading(4);
+        applyCachePolicy();
         long result = testSeqReading(4);
         System.out.println("Sequential reading 4GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(4, result);
     }
 
     @Test
     @Order(4)
     public void test_8GB(){
         writeToTestSeqReading(8);
+        applyCachePolicy();
         long result = testSeqReading(8);
         System.out.println("Sequential reading 8GB: " + result + " ms");
-        output.append(result);
+        series.addPoint(8, result);
     }
 
     @AfterAll
     public static void writeOutput() throws IOException {
-        String outputFile = "seqReading.txt";
-        Path path = Paths.get(baseMainPath + outputFile);
-        Files.deleteIfExists(path);
-        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, APPEND)){
-            ByteBuffer outputBuf = ByteBuffer.wrap(output.toString().getBytes(Charset.defaultCharset()));
-            while(outputBuf.hasRemaining()){
-                int bytes = ch.write(outputBuf);
-                if (bytes <= 0){
-                    break;
-                }
-            }
+        ResultWriter.write("seqReading.json", new BenchmarkResult(SequentialReadingTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series));
+    }
+
+    private static void applyCachePolicy(){
+        try {
+            PageCacheInspector.Residency residency = cachePolicy.apply(Paths.get(baseTestPath + fileName));
+            System.out.println("Cache policy " + cachePolicy + ": " + residency);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,126 @@
+package mmap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mmap.MappedFile;
+import org.mmap.MemoryAdvice;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static benchmark.TestFiles.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedFileTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testValuesAcrossSegmentBoundary() throws IOException {
+        Path path = path(fileName);
+        try(MappedFile file = new MappedFile(path, FileChannel.MapMode.READ_WRITE, 3 * 4096, 4096)){
+            assertEquals(3, file.segmentCount());
+            for (int shift = 1; shift < 8; shift++) {
+                long position = 4096 - shift;
+                file.putLong(position, 0x0102030405060708L + shift);
+                assertEquals(0x0102030405060708L + shift, file.getLong(position));
+            }
+            file.putInt(2 * 4096 - 2, 0xCAFEBABE);
+            assertEquals(0xCAFEBABE, file.getInt(2 * 4096 - 2));
+            file.putShort(4095, (short) 0x1234);
+            assertEquals((short) 0x1234, file.getShort(4095));
+            file.putDouble(4093, Math.PI);
+            assertEquals(Math.PI, file.getDouble(4093));
+            // same layout as a big-endian ByteBuffer
+            file.putLong(8190, 42L);
+            file.force();
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+        assertEquals(42L, content.getLong(8190));
+    }
+
+    @Test
+    public void testBulkAcrossSegments() throws IOException {
+        Path path = path(fileName);
+        byte[] data = new byte[10000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        try(MappedFile file = new MappedFile(path, FileChannel.MapMode.READ_WRITE, 16384, 4096)){
+            file.put(100, data, 0, data.length);
+            byte[] read = new byte[data.length];
+            file.get(100, read, 0, read.length);
+            assertArrayEquals(data, read);
+
+            ByteBuffer buf = ByteBuffer.allocateDirect(5000);
+            file.get(4000, buf);
+            buf.flip();
+            for (int i = 0; i < 5000; i++) {
+                assertEquals(data[3900 + i], buf.get(i));
+            }
+            buf.rewind();
+            file.put(10000, buf);
+            assertEquals(data[3900], file.getByte(10000));
+            assertEquals(data[8899], file.getByte(14999));
+        }
+    }
+
+    @Test
+    public void testGrowRemapsTail() throws IOException {
+        Path path = path(fileName);
+        try(MappedFile file = new MappedFile(path, FileChannel.MapMode.READ_WRITE, 6000, 4096)){
+            file.putLong(5990, 7L);
+            assertThrows(IndexOutOfBoundsException.class, () -> file.getLong(5995));
+            file.grow(20000);
+            assertEquals(5, file.segmentCount());
+            assertEquals(20000, Files.size(path));
+            assertEquals(7L, file.getLong(5990));
+            file.putLong(8190, 9L);
+            assertEquals(9L, file.getLong(8190));
+            assertEquals(0L, file.getLong(19992));
+        }
+        try(MappedFile file = new MappedFile(path, FileChannel.MapMode.READ_ONLY)){
+            assertEquals(20000, file.size());
+            assertEquals(9L, file.getLong(8190));
+            assertThrows(IllegalStateException.class, () -> file.grow(30000));
+        }
+    }
+
+    @Test
+    public void testBeyond2GB() throws IOException {
+        Path path = path(fileName);
+        long size = 5L * 1024 * 1024 * 1024;
+        // sparse file, only the touched pages take space
+        try(MappedFile file = new MappedFile(path, FileChannel.MapMode.READ_WRITE, size, MappedFile.DefaultSegmentSize)){
+            assertEquals(5, file.segmentCount());
+            long boundary = 2L * MappedFile.DefaultSegmentSize;
+            file.putLong(boundary - 3, Long.MIN_VALUE + 1);
+            file.putInt(size - 4, 17);
+            assertEquals(Long.MIN_VALUE + 1, file.getLong(boundary - 3));
+            assertEquals(17, file.getInt(size - 4));
+        }
+    }
+
+    @Test
+    public void testAdviceOnUnalignedRanges() throws IOException {
+        Path path = path(fileName);
+        try(MappedFile file = new MappedFile(path, FileChannel.MapMode.READ_WRITE, 5 * 4096 + 100, 8192)){
+            file.putLong(4090, 5L);
+            file.force();
+            for (MemoryAdvice advice : new MemoryAdvice[]{MemoryAdvice.NORMAL, MemoryAdvice.SEQUENTIAL,
+                    MemoryAdvice.RANDOM, MemoryAdvice.WILLNEED, MemoryAdvice.DONTNEED}) {
+                file.advise(10, file.size() - 20, advice);
+            }
+            // DONTNEED only drops the pages from the mapping, they fault in again from the file
+            assertEquals(5L, file.getLong(4090));
+            assertThrows(IndexOutOfBoundsException.class, () -> file.advise(0, file.size() + 1, MemoryAdvice.NORMAL));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package mmap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mmap.SharedRing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.TestFiles.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedRingTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testFullAndEmpty() throws IOException {
+        Path path = path(fileName);
+        try(SharedRing producer = SharedRing.create(path, 64, 4, false);
+            SharedRing consumer = SharedRing.open(path, 1, TimeUnit.SECONDS)){
+            ByteBuffer dst = ByteBuffer.allocate(64);
+            assertEquals(-1, consumer.poll(dst));
+            for (int i = 0; i < 4; i++) {
+                assertTrue(producer.offer(ByteBuffer.wrap(new byte[]{(byte) i, 1, 2})));
+            }
+            assertFalse(producer.offer(ByteBuffer.wrap(new byte[]{9})));
+            assertEquals(3, consumer.poll(dst));
+            assertEquals(0, dst.get(0));
+            // a freed slot is reused
+            assertTrue(producer.offer(ByteBuffer.wrap(new byte[]{9})));
+            assertThrows(IllegalArgumentException.class, () -> producer.offer(ByteBuffer.allocate(49)));
+        }
+    }
+
+    @Test
+    public void testOrderAcrossMappings() throws Exception {
+        Path path = path(fileName);
+        int count = 200000;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try(SharedRing producer = SharedRing.create(path, 64, 256, false);
+            SharedRing consumer = SharedRing.open(path, 1, TimeUnit.SECONDS)){
+            Future<?> sent = executor.submit(() -> {
+                ByteBuffer message = ByteBuffer.allocateDirect(16);
+                for (long i = 0; i < count; i++) {
+                    message.clear();
+                    message.putLong(0, i).putLong(8, ~i);
+                    producer.send(message, SharedRing.WaitStrategy.BUSY_SPIN);
+                }
+            });
+            ByteBuffer dst = ByteBuffer.allocate(64);
+            for (long i = 0; i < count; i++) {
+                dst.clear();
+                assertEquals(16, consumer.receive(dst, SharedRing.WaitStrategy.PARK));
+                assertEquals(i, dst.getLong(0));
+                assertEquals(~i, dst.getLong(8));
+            }
+            sent.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMultipleProducers() throws Exception {
+        Path path = path(fileName);
+        int producers = 4;
+        int perProducer = 50000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try(SharedRing consumer = SharedRing.create(path, 32, 64, true)){
+            List<Future<?>> sent = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                final int id = p;
+                sent.add(executor.submit(() -> {
+                    try(SharedRing producer = SharedRing.open(path, 1, TimeUnit.SECONDS)){
+                        ByteBuffer message = ByteBuffer.allocate(8);
+                        for (int i = 0; i < perProducer; i++) {
+                            message.clear();
+                            message.putInt(0, id).putInt(4, i);
+                            producer.send(message, SharedRing.WaitStrategy.PARK);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            // per producer order is kept
+            int[] next = new int[producers];
+            ByteBuffer dst = ByteBuffer.allocate(16);
+            for (int i = 0; i < producers * perProducer; i++) {
+                dst.clear();
+                consumer.receive(dst, SharedRing.WaitStrategy.PARK);
+                int id = dst.getInt(0);
+                assertEquals(next[id]++, dst.getInt(4));
+            }
+            for (Future<?> future : sent) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package nativeio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.nativeio.NativeIO;
+import org.pagecache.PageCacheInspector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NativeIOTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testFallocateAndSeek() throws IOException {
+        try(FileChannel ch = FileChannel.open(path(fileName), CREATE_NEW, READ, WRITE)){
+            int fd = NativeIO.fd(ch);
+            NativeIO.fallocate(fd, 0, 0, 1024 * 1024);
+            assertEquals(1024 * 1024, ch.size());
+            NativeIO.fallocate(fd, NativeIO.FALLOC_FL_KEEP_SIZE, 0, 2 * 1024 * 1024);
+            assertEquals(1024 * 1024, ch.size());
+
+            ch.write(ByteBuffer.wrap(new byte[4096]), 8 * 1024 * 1024);
+            // the data is found whether or not the preallocated range counts as a hole
+            long data = NativeIO.seekData(fd, 1024 * 1024);
+            assertTrue(data >= 1024 * 1024 && data <= 8 * 1024 * 1024);
+            assertEquals(ch.size(), NativeIO.seekHole(fd, 8 * 1024 * 1024));
+            assertEquals(-1, NativeIO.seekData(fd, ch.size() + 1));
+        }
+    }
+
+    @Test
+    public void testPageCacheCalls() throws IOException {
+        Path path = path(fileName);
+        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, READ, WRITE)){
+            int fd = NativeIO.fd(ch);
+            ch.write(ByteBuffer.allocate(1024 * 1024), 0);
+            NativeIO.syncFileRange(fd, 0, 0, NativeIO.SYNC_FILE_RANGE_WAIT_BEFORE
+                    | NativeIO.SYNC_FILE_RANGE_WRITE | NativeIO.SYNC_FILE_RANGE_WAIT_AFTER);
+            NativeIO.fadvise(fd, 0, 0, NativeIO.POSIX_FADV_DONTNEED);
+            NativeIO.readahead(fd, 0, 256 * 1024);
+            assertTrue(PageCacheInspector.inspect(path, 0, 256 * 1024).getResidentPages() > 0);
+
+            MappedByteBuffer mapping = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            long address = NativeIO.address(mapping);
+            NativeIO.madvise(address, ch.size(), NativeIO.MADV_WILLNEED);
+            mapping.get(0);
+            ByteBuffer vec = ByteBuffer.allocateDirect((int) (ch.size() / PageCacheInspector.PageSize));
+            NativeIO.mincore(address, ch.size(), vec);
+            assertEquals(1, vec.get(0) & 1);
+
+            IOException e = assertThrows(IOException.class, () -> NativeIO.fadvise(fd, 0, 0, -1));
+            assertTrue(e.getMessage().contains("errno 22"));
+            assertThrows(IOException.class, () -> NativeIO.madvise(address + 1, 10, NativeIO.MADV_NORMAL));
+        }
+    }
+}
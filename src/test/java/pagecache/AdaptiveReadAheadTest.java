@@ -0,0 +1,95 @@
+package pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.nativeio.NativeIO;
+import org.pagecache.AdaptiveReadAhead;
+import org.pagecache.PageCacheInspector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveReadAheadTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+    private static final int blockSize = 16 * 1024;
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testFollowsPhases() throws IOException {
+        Path path = path(fileName);
+        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, READ, WRITE)){
+            ch.write(ByteBuffer.allocate(64 * 1024 * 1024), 0);
+            AdaptiveReadAhead readAhead = new AdaptiveReadAhead(ch, 1024 * 1024);
+            ByteBuffer buf = ByteBuffer.allocateDirect(blockSize);
+
+            // scan
+            for (int i = 0; i < AdaptiveReadAhead.MinReads - 1; i++) {
+                read(readAhead, buf, (long) i * blockSize);
+            }
+            assertEquals(AdaptiveReadAhead.Pattern.UNKNOWN, readAhead.getPattern());
+            for (int i = AdaptiveReadAhead.MinReads - 1; i < 100; i++) {
+                read(readAhead, buf, (long) i * blockSize);
+            }
+            assertEquals(AdaptiveReadAhead.Pattern.SEQUENTIAL, readAhead.getPattern());
+            assertTrue(readAhead.getPrefetchedBytes() >= 100 * blockSize);
+
+            // lookups, two of them end the scan
+            long[] lookups = {40 << 20, 3 << 20, 61 << 20, 17 << 20, 9 << 20};
+            for (long position : lookups) {
+                read(readAhead, buf, position);
+            }
+            assertEquals(AdaptiveReadAhead.Pattern.RANDOM, readAhead.getPattern());
+            long prefetched = readAhead.getPrefetchedBytes();
+
+            // every fourth block backwards from the end
+            for (int i = 0; i < 8; i++) {
+                read(readAhead, buf, (63L << 20) - i * 4L * blockSize);
+            }
+            assertEquals(AdaptiveReadAhead.Pattern.STRIDED, readAhead.getPattern());
+            // blocks of the stride, not the gaps, bounded by the lookahead
+            long strided = readAhead.getPrefetchedBytes() - prefetched;
+            assertTrue(strided > 0 && strided % blockSize == 0 && strided <= 1024 * 1024 + 8 * blockSize);
+
+            assertEquals(3, readAhead.getSwitches());
+        }
+    }
+
+    @Test
+    public void testPrefetchesAhead() throws IOException {
+        Path path = path(fileName);
+        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, READ, WRITE)){
+            ch.write(ByteBuffer.allocate(16 * 1024 * 1024), 0);
+            ch.force(false);
+            AdaptiveReadAhead readAhead = new AdaptiveReadAhead(ch, 4 * 1024 * 1024);
+            ByteBuffer buf = ByteBuffer.allocateDirect(blockSize);
+            // drops the file from the page cache
+            NativeIO.fadvise(NativeIO.fd(ch), 0, 0, NativeIO.POSIX_FADV_DONTNEED);
+            for (int i = 0; i < 8; i++) {
+                read(readAhead, buf, (long) i * blockSize);
+            }
+            // WILLNEED is asynchronous, give it time to finish
+            long deadline = System.currentTimeMillis() + 5000;
+            PageCacheInspector.Residency ahead;
+            do {
+                ahead = PageCacheInspector.inspect(path, 2 * 1024 * 1024, 2 * 1024 * 1024);
+            } while (ahead.hitRatio() < 1 && System.currentTimeMillis() < deadline);
+            System.out.println("Prefetched ahead: " + ahead);
+            assertTrue(ahead.hitRatio() > 0.5);
+        }
+    }
+
+    private static void read(AdaptiveReadAhead readAhead, ByteBuffer buf, long position) throws IOException {
+        buf.clear();
+        assertEquals(blockSize, readAhead.read(buf, position));
+    }
+}
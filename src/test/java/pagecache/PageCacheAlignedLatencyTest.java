@@ -1,114 +1,84 @@
 package pagecache;
 
-import com.github.kilianB.pcg.fast.PcgRSUFast;
 import com.google.common.base.Stopwatch;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.LatencyRecorder;
+import org.benchmark.ResultWriter;
+import org.directbuffer.DirectBufferPool;
 import org.junit.jupiter.api.*;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
 
+import static benchmark.TestFiles.*;
 import static java.nio.file.StandardOpenOption.*;
 
 public class PageCacheAlignedLatencyTest {
-    private static final String baseMainPath = "./src/main/resources/";
-    private static final String baseTestPath = "./src/test/resources/";
     private static final String fileName = String.valueOf(System.currentTimeMillis());
     private static ByteBuffer buf;
 
-    static List<Long> latencies = new ArrayList<>();
+    static LatencyRecorder latencies = new LatencyRecorder();
+    // sums over all runs, averaged in the output
+    static double cacheHitRatioBefore;
+    static double cacheHitRatioAfter;
+    private static final double[] percentiles = {0, 0.5, 0.9, 0.95, 0.99, 0.999, 0.9999};
+    private static final String[] percentileLabels = {"p0", "p50", "p90", "p95", "p99", "p99.9", "p99.99"};
 
     @BeforeAll
     public static void setupRandomData(){
-        buf = ByteBuffer.allocateDirect(1024 * 1024);
-        while(buf.hasRemaining()){
-            buf.putChar(PcgRSUFast.nextChar());
-        }
-        buf.flip();
+        buf = randomData();
     }
 
     @AfterEach
     public void purgeResourceDirectory() {
-        Arrays.stream(Objects.requireNonNull(new File(baseTestPath).listFiles())).forEach(File::delete);
+        purge();
     }
 
     @RepeatedTest(10000)
     public void testAlignedRead(){
-        writeFileForTesting(1);
+        write(path(fileName), buf, 1);
+        cacheHitRatioBefore += inspect(path(fileName)).hitRatio();
         long result = readTest(0);
-        latencies.add(result);
-    }
-
-    private static ArrayList<Long> getPercentile(){
-        // *p*         | 0     | 0.5   | 0.9   | 0.95  | 0.99   | 0.999   | 0.9999
-        ArrayList<Long> output = new ArrayList<>();
-        output.add(latencies.get(0));
-        output.add(latencies.get(50));
-        output.add(latencies.get(90));
-        output.add(latencies.get(95));
-        output.add(latencies.get(99));
-        output.add(latencies.get(999));
-        output.add(latencies.get(9999));
-        return output;
+        cacheHitRatioAfter += inspect(path(fileName)).hitRatio();
+        latencies.record(result);
     }
 
     @AfterAll
     public static void writeOutput() throws IOException {
-        Collections.sort(latencies);
-        String outputFile = "alignedLatencyPercentile.txt";
-        Path path = Paths.get(baseMainPath + outputFile);
-        Files.deleteIfExists(path);
-        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, APPEND)){
-            String output = getPercentile().stream().map(Object::toString)
-                    .collect(Collectors.joining(" "));
-            ByteBuffer outputBuf = ByteBuffer.wrap(output.getBytes(Charset.defaultCharset()));
-            while(outputBuf.hasRemaining()){
-                int bytes = ch.write(outputBuf);
-                if (bytes <= 0){
-                    break;
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        BenchmarkResult.Series series = new BenchmarkResult.Series("aligned", "percentile", "quantile", "ns")
+                .param("readSize", 4096)
+                .param("position", 0)
+                .param("cacheHitRatioBefore", cacheHitRatioBefore / latencies.count())
+                .param("cacheHitRatioAfter", cacheHitRatioAfter / latencies.count());
+        for (int i = 0; i < percentiles.length; i++) {
+            series.addPoint(new BenchmarkResult.Point(percentiles[i], percentileLabels[i],
+                    latencies.quantile(percentiles[i]), 0, latencies.count()));
+        }
+        BenchmarkResult.Series distribution = new BenchmarkResult.Series("aligned distribution", "percentile", "quantile", "ns");
+        for (double[] point : latencies.distribution()) {
+            distribution.addPoint(point[0], point[1]);
         }
+        ResultWriter.write("alignedLatency.json", new BenchmarkResult(PageCacheAlignedLatencyTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series)
+                .addSeries(distribution));
     }
 
     private long readTest(int pos){
         Stopwatch watch = Stopwatch.createStarted();
-        ByteBuffer buf = ByteBuffer.allocate(4096);
-        try(FileChannel ch = FileChannel.open(Paths.get(baseTestPath + fileName), READ)){
+        ByteBuffer buf = DirectBufferPool.shared().acquire(4096);
+        try(FileChannel ch = FileChannel.open(path(fileName), READ)){
             // make N readings with shift
             ch.read(buf, pos);
             ch.read(buf, pos);
 
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            DirectBufferPool.shared().release(buf);
         }
         return watch.elapsed().toNanos();
     }
-
-    private void writeFileForTesting(int mbs){
-        try(FileChannel ch = FileChannel.open(Paths.get(baseTestPath + fileName), CREATE_NEW, APPEND)){
-            int counter = 0;
-            while(counter < mbs){
-                while(buf.hasRemaining()){
-                    int bytes = ch.write(buf);
-                    if (bytes <= 0){
-                        break;
-                    }
-                }
-                buf.flip();
-                counter++;
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
 }
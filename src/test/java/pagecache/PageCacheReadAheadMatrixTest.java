@@ -0,0 +1,169 @@
+package pagecache;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import com.google.common.base.Stopwatch;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
+import org.junit.jupiter.api.*;
+import org.nativeio.NativeIO;
+import org.pagecache.CachePolicy;
+import org.pagecache.PageCacheInspector;
+import org.pagecache.ReadAheadHeatmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Read-ahead matrix: every {@code posix_fadvise} advice against every access pattern and block size. Each cell
+ * reads {@link #readMb} MB of the {@link #fileMb} MB test file in blocks from a cold page cache (the configured
+ * {@link CachePolicy}) and takes the time from the {@code fadvise} call to the last read, the median of
+ * {@link #repeats} runs. One series per pattern and block size, one point per advice, rendered as a heatmap by
+ * {@link ReadAheadHeatmap}.
+ */
+public class PageCacheReadAheadMatrixTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    private static final int fileMb = 256;
+    private static final int readMb = 64;
+    private static final int repeats = 3;
+    private static final int[] blockSizes = {4 * 1024, 16 * 1024, 64 * 1024, 256 * 1024, 1024 * 1024};
+    // strided reads take every 4th block
+    private static final int stride = 4;
+
+    public enum Advice {
+        NORMAL(NativeIO.POSIX_FADV_NORMAL),
+        SEQUENTIAL(NativeIO.POSIX_FADV_SEQUENTIAL),
+        RANDOM(NativeIO.POSIX_FADV_RANDOM),
+        NOREUSE(NativeIO.POSIX_FADV_NOREUSE),
+        WILLNEED(NativeIO.POSIX_FADV_WILLNEED);
+
+        final int flag;
+
+        Advice(int flag) {
+            this.flag = flag;
+        }
+    }
+
+    public enum Pattern {
+        SEQUENTIAL,
+        REVERSE,
+        STRIDED,
+        RANDOM
+    }
+
+    private static ByteBuffer buf;
+    private static final CachePolicy cachePolicy = CachePolicy.configured();
+    private static final Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+
+    @BeforeAll
+    public static void setupTestFile() {
+        buf = randomData();
+        write(path(fileName), buf, fileMb);
+    }
+
+    @AfterAll
+    public static void writeOutput() throws IOException {
+        purge();
+        BenchmarkResult result = new BenchmarkResult(PageCacheReadAheadMatrixTest.class.getName(), Paths.get(baseTestPath));
+        series.values().forEach(result::addSeries);
+        ResultWriter.write(ReadAheadHeatmap.OutputFile, result);
+
+        System.out.println("Fastest advice per access pattern and block size:");
+        for (BenchmarkResult.Series s : series.values()) {
+            s.getPoints().stream()
+                    .min((a, b) -> Double.compare(a.getValue(), b.getValue()))
+                    .ifPresent(best -> System.out.println(s.getName() + ": " + best.getLabel()
+                            + " " + Math.round(best.getValue()) + " ms"));
+        }
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> readAheadMatrix() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Pattern pattern : Pattern.values()) {
+            for (int blockSize : blockSizes) {
+                for (Advice advice : Advice.values()) {
+                    tests.add(DynamicTest.dynamicTest(advice + " x " + pattern + " x " + blockSize,
+                            () -> measure(advice, pattern, blockSize)));
+                }
+            }
+        }
+        return tests.stream();
+    }
+
+    private void measure(Advice advice, Pattern pattern, int blockSize) throws IOException {
+        long[] times = new long[repeats];
+        PageCacheInspector.Residency before = null;
+        PageCacheInspector.Residency after = null;
+        for (int run = 0; run < repeats; run++) {
+            // random offsets are drawn again for every run
+            long[] offsets = offsets(pattern, blockSize);
+            before = cachePolicy.apply(path(fileName));
+            Stopwatch watch = Stopwatch.createStarted();
+            try(FileChannel ch = FileChannel.open(path(fileName), READ)){
+                NativeIO.fadvise(NativeIO.fd(ch), 0, 0, advice.flag);
+                for (long offset : offsets) {
+                    buf.clear().limit(blockSize);
+                    while(buf.hasRemaining()){
+                        if (ch.read(buf, offset + buf.position()) <= 0){
+                            break;
+                        }
+                    }
+                }
+            }
+            times[run] = watch.elapsed().toMillis();
+            after = PageCacheInspector.inspect(path(fileName));
+        }
+        Arrays.sort(times);
+        long elapsed = times[repeats / 2];
+        System.out.println(advice + " x " + pattern + " x " + blockSize + ": " + elapsed + " ms, runs "
+                + Arrays.toString(times) + ", cached after " + after);
+
+        String name = pattern + ", " + blockSize + "B";
+        series.computeIfAbsent(name, k -> new BenchmarkResult.Series(name, "advice", "", "ms")
+                        .param("pattern", pattern.name())
+                        .param("blockSize", blockSize)
+                        .param("readMb", readMb)
+                        .param("fileMb", fileMb)
+                        .param("cachePolicy", cachePolicy))
+                .addPoint(new BenchmarkResult.Point(advice.ordinal(), advice.name(), elapsed,
+                        (times[repeats - 1] - times[0]) / 2.0, repeats)
+                        .metric("cacheHitRatioBefore", before.hitRatio())
+                        .metric("cacheHitRatioAfter", after.hitRatio()));
+    }
+
+    // block aligned offsets of readMb MB worth of reads
+    private static long[] offsets(Pattern pattern, int blockSize) {
+        long blocks = (long) fileMb * 1024 * 1024 / blockSize;
+        long[] offsets = new long[(int) ((long) readMb * 1024 * 1024 / blockSize)];
+        for (int i = 0; i < offsets.length; i++) {
+            long block;
+            switch (pattern) {
+                case SEQUENTIAL:
+                    block = i;
+                    break;
+                case REVERSE:
+                    block = blocks - 1 - i;
+                    break;
+                case STRIDED:
+                    block = (long) i * stride;
+                    break;
+                default:
+                    block = PcgRSUFast.nextLong(blocks);
+            }
+            offsets[i] = block * blockSize;
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,168 @@
+package pagecache;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import com.google.common.base.Stopwatch;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
+import org.junit.jupiter.api.*;
+import org.pagecache.CachePolicy;
+import org.pagecache.PrefetchingReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cold sequential reads of 1..8GB files through {@link PrefetchingReader} in both modes against plain
+ * {@link FileChannel#read(ByteBuffer)} with the same 1MB consumer buffer, as in {@code SequentialReadingTest}.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PrefetchingReaderTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+    private static final int chunkSize = 4 * 1024 * 1024;
+    private static final int depth = 16;
+
+    private static ByteBuffer buf;
+
+    private static final CachePolicy cachePolicy = CachePolicy.configured();
+    private static final BenchmarkResult.Series plainSeries = new BenchmarkResult.Series("FileChannel.read", "file size", "GB", "ms")
+            .param("blockSize", 1024 * 1024)
+            .param("cachePolicy", cachePolicy);
+    private static final BenchmarkResult.Series readAheadSeries = prefetchSeries(PrefetchingReader.Mode.READAHEAD);
+    private static final BenchmarkResult.Series bufferedSeries = prefetchSeries(PrefetchingReader.Mode.BUFFERED);
+
+    private static BenchmarkResult.Series prefetchSeries(PrefetchingReader.Mode mode) {
+        return new BenchmarkResult.Series("Prefetching " + mode, "file size", "GB", "ms")
+                .param("blockSize", 1024 * 1024)
+                .param("mode", mode.name())
+                .param("chunkSize", chunkSize)
+                .param("depth", depth)
+                .param("cachePolicy", cachePolicy);
+    }
+
+    @BeforeAll
+    public static void setupRandomData(){
+        buf = randomData();
+    }
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    @Order(0)
+    public void testReadsWholeFile() throws IOException {
+        Path path = path(fileName);
+        byte[] data = new byte[5 * 64 * 1024 + 123];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) PcgRSUFast.nextChar();
+        }
+        Files.write(path, data);
+        for (PrefetchingReader.Mode mode : PrefetchingReader.Mode.values()) {
+            try(PrefetchingReader reader = new PrefetchingReader(path, 64 * 1024, 2, mode)){
+                assertArrayEquals(data, readAll(reader, 10000));
+                assertEquals(-1, reader.read(ByteBuffer.allocate(1)));
+                assertEquals(data.length, reader.position());
+            }
+            try(FileChannel ch = FileChannel.open(path, READ);
+                PrefetchingReader reader = new PrefetchingReader(ch, 1000, 64 * 1024, 3, mode)){
+                assertArrayEquals(Arrays.copyOfRange(data, 1000, data.length), readAll(reader, 70000));
+            }
+        }
+    }
+
+    @Test
+    @Order(0)
+    public void testStopsAheadOfStalledConsumer() throws Exception {
+        Path path = path(fileName);
+        write(path, buf, 64);
+        for (PrefetchingReader.Mode mode : PrefetchingReader.Mode.values()) {
+            try(PrefetchingReader reader = new PrefetchingReader(path, 1024 * 1024, 4, mode)){
+                reader.read(ByteBuffer.allocate(4096));
+                // the consumer stalls, the prefetcher must not run through the file
+                Thread.sleep(500);
+                assertTrue(reader.getPrefetchedBytes() <= 5 * 1024 * 1024, mode + ": " + reader.getPrefetchedBytes());
+                assertTrue(reader.getPrefetcherWaitNanos() > 0);
+            }
+        }
+    }
+
+    @TestFactory
+    @Order(1)
+    public Stream<DynamicTest> testFileSizes() {
+        return perSize(new int[]{1, 2, 4, 8}, "GB", this::compareReads);
+    }
+
+    @AfterAll
+    public static void writeOutput() throws IOException {
+        ResultWriter.write("prefetchingRead.json", new BenchmarkResult(PrefetchingReaderTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(plainSeries)
+                .addSeries(readAheadSeries)
+                .addSeries(bufferedSeries));
+    }
+
+    private void compareReads(int gbs) throws IOException {
+        Path path = path(fileName);
+        write(path, buf, 1024 * gbs);
+
+        applyCachePolicy(cachePolicy, path);
+        Stopwatch watch = Stopwatch.createStarted();
+        try(FileChannel ch = FileChannel.open(path, READ)){
+            assertEquals(ch.size(), consume(ch));
+        }
+        long plain = watch.elapsed().toMillis();
+        plainSeries.addPoint(gbs, plain);
+
+        for (PrefetchingReader.Mode mode : PrefetchingReader.Mode.values()) {
+            applyCachePolicy(cachePolicy, path);
+            watch = Stopwatch.createStarted();
+            try(PrefetchingReader reader = new PrefetchingReader(path, chunkSize, depth, mode)){
+                assertEquals(reader.size(), consume(reader));
+                long elapsed = watch.elapsed().toMillis();
+                System.out.println(mode + " " + gbs + "GB: " + elapsed + " ms, plain read " + plain + " ms, consumer waited "
+                        + reader.getConsumerWaitNanos() / 1_000_000 + " ms, prefetcher waited "
+                        + reader.getPrefetcherWaitNanos() / 1_000_000 + " ms");
+                (mode == PrefetchingReader.Mode.READAHEAD ? readAheadSeries : bufferedSeries)
+                        .addPoint(new BenchmarkResult.Point(gbs, null, elapsed, 0, 1)
+                                .metric("consumerWaitMs", reader.getConsumerWaitNanos() / 1e6)
+                                .metric("prefetcherWaitMs", reader.getPrefetcherWaitNanos() / 1e6));
+            }
+        }
+    }
+
+    private static long consume(ReadableByteChannel ch) throws IOException {
+        long total = 0;
+        buf.clear();
+        int bytes;
+        while((bytes = ch.read(buf)) >= 0){
+            total += bytes;
+            if (!buf.hasRemaining()) {
+                buf.clear();
+            }
+        }
+        buf.clear();
+        return total;
+    }
+
+    private static byte[] readAll(ReadableByteChannel ch, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer dst = ByteBuffer.allocate(bufferSize);
+        while(ch.read(dst) >= 0){
+            out.write(dst.array(), 0, dst.position());
+            dst.clear();
+        }
+        return out.toByteArray();
+    }
+}
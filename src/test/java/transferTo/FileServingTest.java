@@ -0,0 +1,156 @@
+package transferTo;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import com.sun.management.OperatingSystemMXBean;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
+import org.junit.jupiter.api.*;
+import org.transferTo.FileServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static benchmark.TestFiles.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Serves a file from the page cache to {@code clients} concurrent loopback connections with every
+ * {@link FileServer.Mode}, each client fetches the whole file once. Points are throughput in MB/s with the CPU
+ * time per GB served of the server threads and of the whole process (server and clients).
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class FileServingTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+    private static final int bufferSize = 256 * 1024;
+    private static final int[] clientCounts = {1, 4, 16};
+
+    private static final OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private static ByteBuffer buf;
+
+    private static final Map<String, BenchmarkResult.Series> series = new LinkedHashMap<>();
+
+    @BeforeAll
+    public static void setupRandomData(){
+        buf = randomData();
+    }
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    @Order(0)
+    public void testServesRanges() throws IOException {
+        Path path = path(fileName);
+        byte[] data = new byte[3 * bufferSize + 77];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) PcgRSUFast.nextChar();
+        }
+        Files.write(path, data);
+        for (FileServer.Mode mode : FileServer.Mode.values()) {
+            try(FileServer server = new FileServer(path, mode, bufferSize);
+                FileServer.Client client = new FileServer.Client(server.getPort(), 64 * 1024)){
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertEquals(data.length, client.fetch(0, Long.MAX_VALUE, Channels.newChannel(out)));
+                assertArrayEquals(data, out.toByteArray());
+
+                out.reset();
+                assertEquals(1000, client.fetch(bufferSize - 10, 1000, Channels.newChannel(out)));
+                assertArrayEquals(Arrays.copyOfRange(data, bufferSize - 10, bufferSize + 990), out.toByteArray());
+
+                // clamped to the end of the file
+                assertEquals(7, client.fetch(data.length - 7, 100));
+                assertEquals(0, client.fetch(data.length + 1, 100));
+                assertEquals(data.length + 1007, server.getBytesServed());
+            }
+        }
+    }
+
+    @TestFactory
+    @Order(1)
+    public Stream<DynamicTest> testFileSizes() {
+        return perSize(new int[]{64, 256, 1024}, "MB", mbs -> {
+            write(path(fileName), buf, mbs);
+            serveFile(mbs);
+        });
+    }
+
+    @AfterAll
+    public static void writeOutput() throws IOException {
+        BenchmarkResult result = new BenchmarkResult(FileServingTest.class.getName(), Paths.get(baseTestPath));
+        series.values().forEach(result::addSeries);
+        ResultWriter.write("fileServing.json", result);
+    }
+
+    private void serveFile(int mbs) throws Exception {
+        Path path = path(fileName);
+        for (int clients : clientCounts) {
+            for (FileServer.Mode mode : FileServer.Mode.values()) {
+                // first pass warms the page cache and the JIT
+                fetchConcurrently(path, mode, clients, mbs);
+                BenchmarkResult.Point point = fetchConcurrently(path, mode, clients, mbs);
+                System.out.println(mode + ", " + clients + " clients, " + mbs + "MB: " + Math.round(point.getValue()) + " MB/s, "
+                        + Math.round(point.getMetrics().get("serverCpuMsPerGb")) + " ms CPU/GB");
+                String name = mode + ", " + clients + " clients";
+                series.computeIfAbsent(name, k -> new BenchmarkResult.Series(name, "file size", "MB", "MB/s")
+                        .param("mode", mode.name())
+                        .param("clients", clients)
+                        .param("bufferSize", bufferSize))
+                        .addPoint(point);
+            }
+        }
+    }
+
+    private BenchmarkResult.Point fetchConcurrently(Path path, FileServer.Mode mode, int clients, int mbs) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        FileServer server = new FileServer(path, mode, bufferSize);
+        try {
+            List<FileServer.Client> connections = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                connections.add(new FileServer.Client(server.getPort(), bufferSize));
+            }
+            long startCpu = os.getProcessCpuTime();
+            long startNanos = System.nanoTime();
+            List<Future<Long>> fetched = new ArrayList<>();
+            for (FileServer.Client client : connections) {
+                fetched.add(executor.submit(() -> client.fetch(0, Long.MAX_VALUE)));
+            }
+            long bytes = 0;
+            for (Future<Long> future : fetched) {
+                bytes += future.get();
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long processCpuNanos = os.getProcessCpuTime() - startCpu;
+            for (FileServer.Client client : connections) {
+                client.close();
+            }
+            // waits for the connection threads to count their CPU time
+            server.close();
+            assertEquals((long) clients * mbs * 1024 * 1024, bytes);
+            double gbs = bytes / (1024.0 * 1024 * 1024);
+            return new BenchmarkResult.Point(mbs, null, bytes / (1024.0 * 1024) / (elapsedNanos / 1e9), 0, 1)
+                    .metric("serverCpuMsPerGb", server.getCpuNanos() / 1e6 / gbs)
+                    .metric("processCpuMsPerGb", processCpuNanos / 1e6 / gbs);
+        } finally {
+            server.close();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -2,15 +2,14 @@ package transferTo;
 
 import com.github.kilianB.pcg.fast.PcgRSUFast;
 import com.google.common.base.Stopwatch;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
 import org.junit.jupiter.api.*;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Objects;
@@ -20,13 +19,12 @@ import static java.nio.file.StandardOpenOption.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class NaiveCopyTest {
-    private static final String baseMainPath = "./src/main/resources/";
     private static final String baseTestPath = "./src/test/resources/";
     private static final String fileName = String.valueOf(System.currentTimeMillis());
 
     private static ByteBuffer buf;
 
-    private static final StringBuilder output = new StringBuilder();
+    private static final BenchmarkResult.Series series = new BenchmarkResult.Series("naive copy", "file size", "MB", "ms");
 
     @BeforeAll
     public static void setupRandomData(){
@@ -48,7 +46,7 @@ public class NaiveCopyTest {
         testAppendOnlyWrite(64);
         long result = copyFile();
         System.out.println("Naive copy 1GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(64, result);
     }
 
     @Test
@@ -57,7 +55,7 @@ public class NaiveCopyTest {
         testAppendOnlyWrite(256);
         long result = copyFile();
         System.out.println("Naive copy 2GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(256, result);
     }
 
     @Test
@@ -66,7 +64,7 @@ public class NaiveCopyTest {
         testAppendOnlyWrite(512);
         long result = copyFile();
         System.out.println("Naive copy 4GB: " + result + " ms");
-        output.append(result).append(" ");
+        series.addPoint(512, result);
     }
 
     @Test
@@ -75,25 +73,13 @@ public class NaiveCopyTest {
         testAppendOnlyWrite(1024);
         long result = copyFile();
         System.out.println("Naive copy 8GB: " + result + " ms");
-        output.append(result);
+        series.addPoint(1024, result);
     }
 
     @AfterAll
     public static void writeOutput() throws IOException {
-        String outputFile = "naiveCopy.txt";
-        Path path = Paths.get(baseMainPath + outputFile);
-        Files.deleteIfExists(path);
-        try(FileChannel ch = FileChannel.open(path, CREATE_NEW, APPEND)){
-            ByteBuffer outputBuf = ByteBuffer.wrap(output.toString().getBytes(Charset.defaultCharset()));
-            while(outputBuf.hasRemaining()){
-                int bytes = ch.write(outputBuf);
-                if (bytes <= 0){
-                    break;
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        ResultWriter.write("naiveCopy.json", new BenchmarkResult(NaiveCopyTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series));
     }
 
     private void testAppendOnlyWrite(int mbs) {
@@ -0,0 +1,65 @@
+package transferTo;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.transferTo.ParallelCopy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static benchmark.TestFiles.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelCopyTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    public void testTransferTo() throws IOException {
+        testCopy(new ParallelCopy(4, 64 * 1024, ParallelCopy.Method.TRANSFER_TO));
+    }
+
+    @Test
+    public void testCopyFileRange() throws IOException {
+        ParallelCopy.Result result = testCopy(new ParallelCopy(4, 64 * 1024, ParallelCopy.Method.COPY_FILE_RANGE));
+        // all of it, or nothing on file systems without support
+        assertTrue(result.getCopyFileRangeBytes() == 0 || result.getCopyFileRangeBytes() == result.getBytes());
+    }
+
+    @Test
+    public void testMoreThreadsThanChunks() throws IOException {
+        ParallelCopy.Result result = testCopy(new ParallelCopy(64, 1024 * 1024, ParallelCopy.Method.TRANSFER_TO));
+        assertEquals(2, result.getThreads());
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path src = path(fileName);
+        Path dst = Paths.get(baseTestPath + fileName + "_copy");
+        Files.write(src, new byte[0]);
+        Files.write(dst, new byte[100]);
+        assertEquals(0, new ParallelCopy(4, 4096, ParallelCopy.Method.COPY_FILE_RANGE).copy(src, dst).getBytes());
+        assertEquals(0, Files.size(dst));
+    }
+
+    private ParallelCopy.Result testCopy(ParallelCopy copy) throws IOException {
+        Path src = path(fileName);
+        Path dst = Paths.get(baseTestPath + fileName + "_copy");
+        byte[] data = new byte[1024 * 1024 + 12345];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) PcgRSUFast.nextChar();
+        }
+        Files.write(src, data);
+        ParallelCopy.Result result = copy.copy(src, dst);
+        assertEquals(data.length, result.getBytes());
+        assertArrayEquals(data, Files.readAllBytes(dst));
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package transferTo;
+
+import com.github.kilianB.pcg.fast.PcgRSUFast;
+import org.benchmark.BenchmarkResult;
+import org.benchmark.ResultWriter;
+import org.junit.jupiter.api.*;
+import org.transferTo.StreamingCopy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static benchmark.TestFiles.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class StreamingCopyTest {
+    private static final String fileName = String.valueOf(System.currentTimeMillis());
+
+    private static ByteBuffer buf;
+
+    private static final BenchmarkResult.Series series = new BenchmarkResult.Series("streaming copy", "file size", "MB", "ms")
+            .param("bufferSize", 1024 * 1024)
+            .param("depth", 4);
+
+    @BeforeAll
+    public static void setupRandomData(){
+        buf = randomData();
+    }
+
+    @AfterEach
+    public void purgeResourceDirectory() {
+        purge();
+    }
+
+    @Test
+    @Order(0)
+    public void testCopiesContentAndReportsProgress() throws IOException {
+        Path src = path(fileName);
+        Path dst = Paths.get(baseTestPath + fileName + "_copy");
+        byte[] data = new byte[10 * 4096 + 123];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) PcgRSUFast.nextChar();
+        }
+        Files.write(src, data);
+        List<Long> progress = new ArrayList<>();
+        StreamingCopy.Result result = new StreamingCopy(4096, 2)
+                .progress((copied, total) -> {
+                    assertEquals(data.length, total);
+                    progress.add(copied);
+                })
+                .copy(src, dst);
+        assertEquals(data.length, result.getBytes());
+        assertArrayEquals(data, Files.readAllBytes(dst));
+        assertEquals(11, progress.size());
+        assertEquals(4096, (long) progress.get(0));
+        assertEquals(data.length, (long) progress.get(progress.size() - 1));
+    }
+
+    @Test
+    @Order(0)
+    public void testCopiesRangeAndStopsAtEndOfFile() throws IOException {
+        Path src = path(fileName);
+        Path dst = Paths.get(baseTestPath + fileName + "_copy");
+        byte[] data = new byte[3 * 4096];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        Files.write(src, data);
+        try(FileChannel in = FileChannel.open(src, READ);
+            FileChannel out = FileChannel.open(dst, CREATE_NEW, WRITE)){
+            StreamingCopy.Result result = new StreamingCopy(1000, 3).copy(in, 100, data.length, out, 10);
+            assertEquals(data.length - 100, result.getBytes());
+            assertEquals(data.length - 100 + 10, out.size());
+        }
+        byte[] copied = Files.readAllBytes(dst);
+        assertArrayEquals(Arrays.copyOfRange(data, 100, data.length), Arrays.copyOfRange(copied, 10, copied.length));
+    }
+
+    @TestFactory
+    @Order(1)
+    public Stream<DynamicTest> testFileSizes() {
+        return perSize(new int[]{64, 256, 512, 1024}, "MB", mbs -> {
+            write(path(fileName), buf, mbs);
+            long result = copyFile();
+            System.out.println("Streaming copy " + mbs + "MB: " + result + " ms");
+            series.addPoint(mbs, result);
+        });
+    }
+
+    @AfterAll
+    public static void writeOutput() throws IOException {
+        ResultWriter.write("streamingCopy.json", new BenchmarkResult(StreamingCopyTest.class.getName(), Paths.get(baseTestPath))
+                .addSeries(series));
+    }
+
+    private long copyFile() {
+        try {
+            StreamingCopy.Result result = new StreamingCopy(1024 * 1024, 4)
+                    .copy(path(fileName), Paths.get(baseTestPath + fileName + "_copy"));
+            return TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}